@@ -0,0 +1,121 @@
+package com.pylon.pylonservice.benchmark;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.pylon.pylonservice.constants.GraphConstants.COMMON_CREATED_AT_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_BODY_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_CONTENT_URL_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_FILENAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_ID_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_TITLE_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_AVATAR_FILENAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_BANNER_FILENAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_DESCRIPTION_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_FEATURED_IMAGE_FILENAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_FEATURED_IMAGE_LINK_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_FRIENDLY_NAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_NAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_AVATAR_FILENAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_BANNER_FILENAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_BIO_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_FRIENDLY_NAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_LOCATION_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_USERNAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_VERIFIED_PROPERTY;
+
+/**
+ * Builds maps shaped like the results of the Post, Shard and Profile projections, as they come back from Neptune,
+ * so that the domain classes can be benchmarked without a graph. Generation is seeded, so every run benchmarks the
+ * same data.
+ */
+public final class DomainFixtures {
+    private static final long THIRTY_DAYS_IN_MILLISECONDS = TimeUnit.DAYS.toMillis(30);
+
+    private DomainFixtures() {}
+
+    public static Map<String, Object> graphPostMap(final Random random, final Date now) {
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put(POST_ID_PROPERTY, new UUID(random.nextLong(), random.nextLong()).toString());
+        properties.put(POST_TITLE_PROPERTY, "A post title which is about as long as most of them");
+        properties.put(POST_FILENAME_PROPERTY, "f99269c2-9b0b-4dbf-b04a-385bc7ffa629.png");
+        properties.put(POST_CONTENT_URL_PROPERTY, "https://pylon.gg");
+        properties.put(POST_BODY_PROPERTY, "A post body. ".repeat(1 + random.nextInt(20)));
+        properties.put(COMMON_CREATED_AT_PROPERTY, randomDateBefore(random, now));
+
+        final boolean isInShard = random.nextBoolean();
+        final Map<String, Object> graphPostMap = new HashMap<>();
+        graphPostMap.put("properties", properties);
+        // Likes and comments are heavily skewed towards a few posts
+        graphPostMap.put("numLikes", (long) (Math.pow(random.nextDouble(), 4) * 10_000));
+        graphPostMap.put("numComments", (long) (Math.pow(random.nextDouble(), 4) * 1_000));
+        graphPostMap.put("submitterUsername", "user" + random.nextInt(10_000));
+        graphPostMap.put("submitterFriendlyName", "A User");
+        graphPostMap.put("submitterAvatarFilename", "f99269c2-9b0b-4dbf-b04a-385bc7ffa629.png");
+        graphPostMap.put("submitterVerified", random.nextInt(100) == 0);
+        graphPostMap.put("postLikedByUser", random.nextBoolean() ? 1L : 0L);
+        graphPostMap.put("repliedToUsername", List.of());
+        graphPostMap.put("repliedToFriendlyName", List.of());
+        graphPostMap.put("repliedToAvatarFilename", List.of());
+        graphPostMap.put("postedInShard", isInShard ? List.of("shard" + random.nextInt(1_000)) : List.of());
+        graphPostMap.put("postedInUser", isInShard ? List.of() : List.of("user" + random.nextInt(10_000)));
+        graphPostMap.put("shardFriendlyName", isInShard ? List.of("A Shard") : List.of());
+        graphPostMap.put("shardAvatarFilename", isInShard ? List.of("f99269c2.png") : List.of());
+        graphPostMap.put("commentOnPost", List.of());
+        graphPostMap.put("topLevelPostId", List.of());
+        return graphPostMap;
+    }
+
+    public static Map<String, Object> graphShardMap(final Random random, final Date now) {
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put(SHARD_NAME_PROPERTY, "shard" + random.nextInt(1_000_000));
+        properties.put(SHARD_FRIENDLY_NAME_PROPERTY, "A Shard");
+        properties.put(SHARD_AVATAR_FILENAME_PROPERTY, "f99269c2-9b0b-4dbf-b04a-385bc7ffa629.png");
+        properties.put(SHARD_BANNER_FILENAME_PROPERTY, "f99269c2-9b0b-4dbf-b04a-385bc7ffa629.jpg");
+        properties.put(SHARD_DESCRIPTION_PROPERTY, "A shard description. ".repeat(1 + random.nextInt(10)));
+        properties.put(SHARD_FEATURED_IMAGE_FILENAME_PROPERTY, "");
+        properties.put(SHARD_FEATURED_IMAGE_LINK_PROPERTY, "");
+        properties.put(COMMON_CREATED_AT_PROPERTY, randomDateBefore(random, now));
+
+        final Map<String, Object> graphShardMap = new HashMap<>();
+        graphShardMap.put("properties", properties);
+        graphShardMap.put("numInheritedShards", (long) random.nextInt(10));
+        graphShardMap.put("numInheritedUsers", (long) random.nextInt(50));
+        graphShardMap.put("userFollowsShard", random.nextBoolean() ? 1L : 0L);
+        graphShardMap.put("numFollowers", (long) random.nextInt(100_000));
+        graphShardMap.put("ownerUsername", "user" + random.nextInt(10_000));
+        return graphShardMap;
+    }
+
+    public static Map<String, Object> graphProfileMap(final Random random, final Date now) {
+        final Map<String, Object> properties = new HashMap<>();
+        properties.put(USER_USERNAME_PROPERTY, "user" + random.nextInt(1_000_000));
+        properties.put(USER_FRIENDLY_NAME_PROPERTY, "A User");
+        properties.put(USER_AVATAR_FILENAME_PROPERTY, "f99269c2-9b0b-4dbf-b04a-385bc7ffa629.png");
+        properties.put(USER_BANNER_FILENAME_PROPERTY, "f99269c2-9b0b-4dbf-b04a-385bc7ffa629.jpg");
+        properties.put(USER_BIO_PROPERTY, "A user bio. ".repeat(1 + random.nextInt(10)));
+        properties.put(USER_LOCATION_PROPERTY, "Seattle, WA");
+        properties.put(USER_VERIFIED_PROPERTY, random.nextInt(100) == 0);
+        properties.put(COMMON_CREATED_AT_PROPERTY, randomDateBefore(random, now));
+
+        final Map<String, Object> graphProfileMap = new HashMap<>();
+        graphProfileMap.put("properties", properties);
+        graphProfileMap.put("numOwnedShards", (long) random.nextInt(10));
+        graphProfileMap.put("numPosts", (long) random.nextInt(1_000));
+        graphProfileMap.put("userIsFollowed", random.nextBoolean() ? 1L : 0L);
+        graphProfileMap.put("userFollowsYou", random.nextBoolean() ? 1L : 0L);
+        graphProfileMap.put("pinnedPost", random.nextBoolean() ? List.of(graphPostMap(random, now)) : List.of());
+        graphProfileMap.put("numFollowers", (long) random.nextInt(100_000));
+        graphProfileMap.put("numFollowed", (long) random.nextInt(1_000));
+        return graphProfileMap;
+    }
+
+    private static Date randomDateBefore(final Random random, final Date now) {
+        return new Date(now.getTime() - (long) (random.nextDouble() * THIRTY_DAYS_IN_MILLISECONDS));
+    }
+}
@@ -0,0 +1,299 @@
+package com.pylon.pylonservice.benchmark;
+
+import lombok.Getter;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.pylon.pylonservice.constants.GraphConstants.COMMON_CREATED_AT_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_BODY_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_COMMENT_ON_POST_EDGE_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_CONTENT_URL_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_FILENAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_ID_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_IS_TOP_LEVEL_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_NUM_LIKES_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_POSTED_IN_SHARD_EDGE_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_POSTED_IN_USER_EDGE_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_TITLE_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_TOP_LEVEL_POST_ID_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_VERTEX_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_AVATAR_FILENAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_DESCRIPTION_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_FRIENDLY_NAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_INHERITS_SHARD_EDGE_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_INHERITS_USER_EDGE_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_NAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_VERTEX_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_AVATAR_FILENAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_FOLLOWS_SHARD_EDGE_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_FOLLOWS_USER_EDGE_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_FRIENDLY_NAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_OWNS_SHARD_EDGE_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_SUBMITTED_POST_EDGE_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_UPVOTED_POST_EDGE_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_USERNAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_VERIFIED_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_VERTEX_LABEL;
+import static com.pylon.pylonservice.util.EdgeIdUtil.getEdgeId;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.V;
+import static org.apache.tinkerpop.gremlin.structure.VertexProperty.Cardinality.single;
+
+/**
+ * A seeded, synthetic social graph in an embedded TinkerGraph, with the vertex and edge labels, properties and edge
+ * ids the service itself writes, so that traversals can be benchmarked without Neptune.
+ *
+ * Shards are arranged in layers: shards in the bottom layer inherit users, and shards in every layer above inherit
+ * shards in the layer below, so the deepest inheritance chain is {@link Scale#inheritanceDepth} shards long. Who is
+ * followed, who posts and which posts are upvoted or commented on follow power laws, so a few users, shards and posts
+ * have most of the edges, as they do in production.
+ */
+public final class SyntheticGraph {
+    private static final long THIRTY_DAYS_IN_MILLISECONDS = TimeUnit.DAYS.toMillis(30);
+    // Pareto shape of the degree distributions; close to what follower counts in social networks are usually fit to
+    private static final double POWER_LAW_EXPONENT = 2.1;
+
+    /**
+     * The data scales the graph benchmarks run at.
+     */
+    @Getter
+    public enum Scale {
+        SMALL(1_000, 50, 2, 5_000, 4, 50),
+        MEDIUM(10_000, 200, 3, 50_000, 6, 200),
+        LARGE(50_000, 500, 4, 200_000, 8, 1_000);
+
+        private final int numUsers;
+        private final int numShards;
+        private final int inheritanceDepth;
+        private final int numTopLevelPosts;
+        private final int maxCommentDepth;
+        private final int maxDegree;
+
+        Scale(final int numUsers, final int numShards, final int inheritanceDepth, final int numTopLevelPosts,
+              final int maxCommentDepth, final int maxDegree) {
+            this.numUsers = numUsers;
+            this.numShards = numShards;
+            this.inheritanceDepth = inheritanceDepth;
+            this.numTopLevelPosts = numTopLevelPosts;
+            this.maxCommentDepth = maxCommentDepth;
+            this.maxDegree = maxDegree;
+        }
+    }
+
+    @Getter
+    private final TinkerGraph graph;
+    @Getter
+    private final List<String> usernames = new ArrayList<>();
+    @Getter
+    private final List<String> shardNames = new ArrayList<>();
+    @Getter
+    private final List<String> topLevelPostIds = new ArrayList<>();
+
+    private final Random random;
+    private final Date now = new Date();
+    private long nextPostId = 0;
+
+    private SyntheticGraph(final Scale scale, final long seed) {
+        this.random = new Random(seed);
+        this.graph = TinkerGraph.open();
+        // Lookups by unique key are index lookups in Neptune, so they should be here too
+        graph.createIndex(USER_USERNAME_PROPERTY, Vertex.class);
+        graph.createIndex(SHARD_NAME_PROPERTY, Vertex.class);
+        graph.createIndex(POST_ID_PROPERTY, Vertex.class);
+
+        final GraphTraversalSource g = graph.traversal();
+        addUsers(g, scale);
+        addShards(g, scale);
+        addFollows(g, scale);
+        addPosts(g, scale);
+    }
+
+    public static SyntheticGraph generate(final Scale scale, final long seed) {
+        return new SyntheticGraph(scale, seed);
+    }
+
+    public GraphTraversalSource traversal() {
+        return graph.traversal();
+    }
+
+    private void addUsers(final GraphTraversalSource g, final Scale scale) {
+        for (int i = 0; i < scale.getNumUsers(); i++) {
+            final String username = "user" + i;
+            g.addV(USER_VERTEX_LABEL)
+                .property(USER_USERNAME_PROPERTY, username)
+                .property(USER_FRIENDLY_NAME_PROPERTY, "User " + i)
+                .property(USER_AVATAR_FILENAME_PROPERTY, "f99269c2-9b0b-4dbf-b04a-385bc7ffa629.png")
+                .property(USER_VERIFIED_PROPERTY, random.nextInt(100) == 0)
+                .property(COMMON_CREATED_AT_PROPERTY, randomDateBeforeNow())
+                .iterate();
+            usernames.add(username);
+        }
+    }
+
+    private void addShards(final GraphTraversalSource g, final Scale scale) {
+        final int numLayers = scale.getInheritanceDepth();
+        final List<List<String>> layers = new ArrayList<>();
+        for (int layer = 0; layer < numLayers; layer++) {
+            layers.add(new ArrayList<>());
+        }
+
+        for (int i = 0; i < scale.getNumShards(); i++) {
+            final String shardName = "shard" + i;
+            final String ownerUsername = powerLawPick(usernames);
+            g.addV(SHARD_VERTEX_LABEL)
+                .property(SHARD_NAME_PROPERTY, shardName)
+                .property(SHARD_FRIENDLY_NAME_PROPERTY, "Shard " + i)
+                .property(SHARD_AVATAR_FILENAME_PROPERTY, "f99269c2-9b0b-4dbf-b04a-385bc7ffa629.png")
+                .property(SHARD_DESCRIPTION_PROPERTY, "A shard description")
+                .property(COMMON_CREATED_AT_PROPERTY, randomDateBeforeNow())
+                .as("shard")
+                .V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, ownerUsername)
+                .addE(USER_OWNS_SHARD_EDGE_LABEL).to("shard")
+                .iterate();
+
+            // Every layer gets at least one shard before any layer gets a second
+            final int layer = i < numLayers ? i : random.nextInt(numLayers);
+            final List<String> inheritedKeys = layer == 0 ? usernames : layers.get(layer - 1);
+            final String inheritedLabel = layer == 0 ? USER_VERTEX_LABEL : SHARD_VERTEX_LABEL;
+            final String inheritedKeyProperty = layer == 0 ? USER_USERNAME_PROPERTY : SHARD_NAME_PROPERTY;
+            final String edgeLabel = layer == 0 ? SHARD_INHERITS_USER_EDGE_LABEL : SHARD_INHERITS_SHARD_EDGE_LABEL;
+            for (final String inheritedKey : distinctPowerLawPicks(inheritedKeys, 1 + random.nextInt(5))) {
+                g.V().has(SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, shardName)
+                    .addE(edgeLabel).to(V().has(inheritedLabel, inheritedKeyProperty, inheritedKey))
+                    .iterate();
+            }
+
+            layers.get(layer).add(shardName);
+            shardNames.add(shardName);
+        }
+    }
+
+    private void addFollows(final GraphTraversalSource g, final Scale scale) {
+        for (final String username : usernames) {
+            for (final String followedUsername : distinctPowerLawPicks(usernames, powerLawDegree(scale))) {
+                if (!followedUsername.equals(username)) {
+                    addEdgeWithId(g, USER_FOLLOWS_USER_EDGE_LABEL, USER_VERTEX_LABEL, USER_USERNAME_PROPERTY,
+                        username, USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, followedUsername);
+                }
+            }
+            for (final String followedShardName : distinctPowerLawPicks(shardNames, powerLawDegree(scale) / 4)) {
+                addEdgeWithId(g, USER_FOLLOWS_SHARD_EDGE_LABEL, USER_VERTEX_LABEL, USER_USERNAME_PROPERTY,
+                    username, SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, followedShardName);
+            }
+        }
+    }
+
+    private void addPosts(final GraphTraversalSource g, final Scale scale) {
+        for (int i = 0; i < scale.getNumTopLevelPosts(); i++) {
+            final String postId = addPost(g, scale);
+            if (random.nextBoolean()) {
+                g.V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, postId)
+                    .addE(POST_POSTED_IN_SHARD_EDGE_LABEL)
+                    .to(V().has(SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, powerLawPick(shardNames)))
+                    .iterate();
+            } else {
+                g.V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, postId)
+                    .addE(POST_POSTED_IN_USER_EDGE_LABEL)
+                    .to(V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, powerLawPick(usernames)))
+                    .iterate();
+            }
+            topLevelPostIds.add(postId);
+
+            // Each comment replies to the top level post or to a comment above it in the tree
+            final List<String> commentTree = new ArrayList<>(List.of(postId));
+            final List<Integer> commentDepths = new ArrayList<>(List.of(0));
+            for (int j = powerLawDegree(scale) - 1; j > 0; j--) {
+                final int parentIndex = random.nextInt(commentTree.size());
+                if (commentDepths.get(parentIndex) >= scale.getMaxCommentDepth()) {
+                    continue;
+                }
+                final String commentPostId = addPost(g, scale);
+                g.V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, commentPostId)
+                    .property(single, POST_IS_TOP_LEVEL_PROPERTY, false)
+                    .property(single, POST_TOP_LEVEL_POST_ID_PROPERTY, postId)
+                    .addE(POST_COMMENT_ON_POST_EDGE_LABEL)
+                    .to(V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, commentTree.get(parentIndex)))
+                    .iterate();
+                commentTree.add(commentPostId);
+                commentDepths.add(commentDepths.get(parentIndex) + 1);
+            }
+        }
+    }
+
+    private String addPost(final GraphTraversalSource g, final Scale scale) {
+        final String postId = String.format("post%d", nextPostId++);
+        final Set<String> upvoterUsernames = distinctPowerLawPicks(usernames, powerLawDegree(scale) - 1);
+        g.addV(POST_VERTEX_LABEL)
+            .property(POST_ID_PROPERTY, postId)
+            .property(POST_TITLE_PROPERTY, "A post title which is about as long as most of them")
+            .property(POST_FILENAME_PROPERTY, "f99269c2-9b0b-4dbf-b04a-385bc7ffa629.png")
+            .property(POST_CONTENT_URL_PROPERTY, "https://pylon.gg")
+            .property(POST_BODY_PROPERTY, "A post body. ".repeat(1 + random.nextInt(20)))
+            .property(POST_NUM_LIKES_PROPERTY, (long) upvoterUsernames.size())
+            // Top level until made a comment
+            .property(POST_IS_TOP_LEVEL_PROPERTY, true)
+            .property(POST_TOP_LEVEL_POST_ID_PROPERTY, postId)
+            .property(COMMON_CREATED_AT_PROPERTY, randomDateBeforeNow())
+            .as("post")
+            .V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, powerLawPick(usernames))
+            .addE(USER_SUBMITTED_POST_EDGE_LABEL).to("post")
+            .iterate();
+
+        for (final String upvoterUsername : upvoterUsernames) {
+            addEdgeWithId(g, USER_UPVOTED_POST_EDGE_LABEL, USER_VERTEX_LABEL, USER_USERNAME_PROPERTY,
+                upvoterUsername, POST_VERTEX_LABEL, POST_ID_PROPERTY, postId);
+        }
+        return postId;
+    }
+
+    private static void addEdgeWithId(final GraphTraversalSource g, final String edgeLabel,
+                                      final String fromLabel, final String fromKeyProperty, final String fromKey,
+                                      final String toLabel, final String toKeyProperty, final String toKey) {
+        g.V().has(fromLabel, fromKeyProperty, fromKey)
+            .addE(edgeLabel).to(V().has(toLabel, toKeyProperty, toKey))
+            .property(T.id, getEdgeId(edgeLabel, fromKey, toKey))
+            .iterate();
+    }
+
+    /**
+     * A Pareto distributed degree, at least 1 and capped at the scale's maximum degree.
+     */
+    private int powerLawDegree(final Scale scale) {
+        final double degree = Math.pow(1.0 - random.nextDouble(), -1.0 / (POWER_LAW_EXPONENT - 1.0));
+        return (int) Math.min(scale.getMaxDegree(), Math.floor(degree));
+    }
+
+    /**
+     * Picks from a list such that the items at its start are picked far more often than the items at its end.
+     */
+    private <I> I powerLawPick(final List<I> items) {
+        final double u = random.nextDouble();
+        return items.get((int) (items.size() * Math.pow(u, POWER_LAW_EXPONENT + 1.0)));
+    }
+
+    private <I> Set<I> distinctPowerLawPicks(final List<I> items, final int numPicks) {
+        if (numPicks >= items.size()) {
+            return new HashSet<>(items);
+        }
+        final Set<I> picks = new HashSet<>();
+        // Bounded, since with a heavy skew the last few distinct picks can take many draws
+        for (int i = 0; picks.size() < numPicks && i < numPicks * 10; i++) {
+            picks.add(powerLawPick(items));
+        }
+        return Collections.unmodifiableSet(picks);
+    }
+
+    private Date randomDateBeforeNow() {
+        return new Date(now.getTime() - (long) (random.nextDouble() * THIRTY_DAYS_IN_MILLISECONDS));
+    }
+}
@@ -0,0 +1,149 @@
+package com.pylon.pylonservice.controller;
+
+import com.pylon.pylonservice.benchmark.SyntheticGraph;
+import com.pylon.pylonservice.services.AccessTokenService;
+import com.pylon.pylonservice.services.AsyncTraversalService;
+import com.pylon.pylonservice.services.MetricsService;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.pylon.pylonservice.constants.GraphConstants.POST_ID_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_VERTEX_LABEL;
+import static com.pylon.pylonservice.model.domain.Post.projectToPost;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+/**
+ * End to end latency of the graph backed read endpoints against a {@link SyntheticGraph} at each of its scales. The
+ * controllers are called directly, with the access token being the calling username, metrics going nowhere and
+ * traversals run on the calling thread, so what is measured is the traversals and the work done on their results.
+ *
+ * Every invocation uses the next of a fixed sample of users, shards or posts, since with power law degrees the cost
+ * of a single one says little. For the steps each traversal executes, see {@link GraphTraversalProfileReport}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class GraphEndpointBenchmark {
+    static final long SEED = 0;
+    static final int SAMPLE_SIZE = 100;
+    private static final int PAGE_SIZE = 25;
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private SyntheticGraph.Scale scale;
+
+    private GraphTraversalSource g;
+    private FeedController feedController;
+    private ShardController shardController;
+    private List<String> sampleUsernames;
+    private List<String> sampleShardNames;
+    private List<String> samplePostIds;
+    private int sampleIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final SyntheticGraph syntheticGraph = SyntheticGraph.generate(scale, SEED);
+        g = syntheticGraph.traversal();
+        feedController = newFeedController(g);
+        shardController = newShardController(g);
+
+        final Random random = new Random(SEED);
+        sampleUsernames = sample(syntheticGraph.getUsernames(), random);
+        sampleShardNames = sample(syntheticGraph.getShardNames(), random);
+        samplePostIds = sample(syntheticGraph.getTopLevelPostIds(), random);
+    }
+
+    @Setup(Level.Invocation)
+    public void nextSample() {
+        sampleIndex = (sampleIndex + 1) % SAMPLE_SIZE;
+    }
+
+    @Benchmark
+    public ResponseEntity<?> getMyFeed() {
+        return feedController.getMyFeed(sampleUsernames.get(sampleIndex), 0, PAGE_SIZE).join();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> getNewShardPosts() {
+        final String username = sampleUsernames.get(sampleIndex);
+        return shardController.getNewShardPosts(username, sampleShardNames.get(sampleIndex), 0, PAGE_SIZE).join();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> getPopularShardPosts() {
+        final String username = sampleUsernames.get(sampleIndex);
+        return shardController.getPopularShardPosts(username, sampleShardNames.get(sampleIndex), 0, PAGE_SIZE)
+            .join();
+    }
+
+    @Benchmark
+    public Map<String, Object> projectToPostWithComments() {
+        return g
+            .V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, samplePostIds.get(sampleIndex))
+            .flatMap(projectToPost(sampleUsernames.get(sampleIndex)))
+            .next();
+    }
+
+    static FeedController newFeedController(final GraphTraversalSource g) {
+        final FeedController feedController = new FeedController();
+        ReflectionTestUtils.setField(feedController, "rG", g);
+        ReflectionTestUtils.setField(feedController, "accessTokenService", usernameIsAccessTokenService());
+        ReflectionTestUtils.setField(feedController, "metricsService", Mockito.mock(MetricsService.class));
+        ReflectionTestUtils.setField(feedController, "asyncTraversalService", callingThreadTraversalService());
+        return feedController;
+    }
+
+    static ShardController newShardController(final GraphTraversalSource g) {
+        final ShardController shardController = new ShardController();
+        ReflectionTestUtils.setField(shardController, "rG", g);
+        ReflectionTestUtils.setField(shardController, "accessTokenService", usernameIsAccessTokenService());
+        ReflectionTestUtils.setField(shardController, "metricsService", Mockito.mock(MetricsService.class));
+        ReflectionTestUtils.setField(shardController, "asyncTraversalService", callingThreadTraversalService());
+        return shardController;
+    }
+
+    static List<String> sample(final List<String> keys, final Random random) {
+        return random.ints(SAMPLE_SIZE, 0, keys.size())
+            .mapToObj(keys::get)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Runs traversals on the benchmark thread, so that what's measured doesn't include handing off to an executor.
+     */
+    private static AsyncTraversalService callingThreadTraversalService() {
+        return new AsyncTraversalService(false, null);
+    }
+
+    private static AccessTokenService usernameIsAccessTokenService() {
+        final AccessTokenService accessTokenService = Mockito.mock(AccessTokenService.class);
+        Mockito.when(accessTokenService.getUsernameFromAccessToken(anyString()))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        Mockito.when(accessTokenService.getUsernameFromAccessTokenOrDefaultIfNull(anyString(), any()))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        return accessTokenService;
+    }
+}
@@ -0,0 +1,132 @@
+package com.pylon.pylonservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pylon.pylonservice.benchmark.SyntheticGraph;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.util.Metrics;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalMetrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.pylon.pylonservice.constants.GraphConstants.POST_ID_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_VERTEX_LABEL;
+import static com.pylon.pylonservice.model.domain.Post.projectToPost;
+
+/**
+ * Profiles the traversals behind the endpoints in {@link GraphEndpointBenchmark} at every {@link SyntheticGraph.Scale}
+ * and writes, for each traversal, the elements and traversers every step produced and the time spent in it, summed
+ * over the same samples the benchmark uses. Step counts show where a traversal's cost comes from in a way latency
+ * alone does not, and unlike latency they carry over from TinkerGraph to Neptune.
+ *
+ * Run by the benchmark profile after the JMH benchmarks. Takes the path of the JSON report to write.
+ */
+public final class GraphTraversalProfileReport {
+    private GraphTraversalProfileReport() {}
+
+    public static void main(final String[] args) throws IOException {
+        final File reportFile = new File(args.length > 0 ? args[0] : "graph-profile.json");
+
+        final Map<String, Object> report = new LinkedHashMap<>();
+        for (final SyntheticGraph.Scale scale : SyntheticGraph.Scale.values()) {
+            report.put(scale.name(), profileScale(scale));
+        }
+
+        reportFile.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .writeValue(reportFile, report);
+        System.out.println(String.format("Wrote graph traversal profile to %s", reportFile.getAbsolutePath()));
+    }
+
+    private static Map<String, Object> profileScale(final SyntheticGraph.Scale scale) {
+        final SyntheticGraph syntheticGraph = SyntheticGraph.generate(scale, GraphEndpointBenchmark.SEED);
+        final GraphTraversalSource g = syntheticGraph.traversal();
+        final FeedController feedController = GraphEndpointBenchmark.newFeedController(g);
+        final ShardController shardController = GraphEndpointBenchmark.newShardController(g);
+
+        final Random random = new Random(GraphEndpointBenchmark.SEED);
+        final List<String> sampleUsernames = GraphEndpointBenchmark.sample(syntheticGraph.getUsernames(), random);
+        final List<String> sampleShardNames = GraphEndpointBenchmark.sample(syntheticGraph.getShardNames(), random);
+        final List<String> samplePostIds = GraphEndpointBenchmark.sample(syntheticGraph.getTopLevelPostIds(), random);
+
+        final Map<String, Object> scaleReport = new LinkedHashMap<>();
+        scaleReport.put("numVertices", g.V().count().next());
+        scaleReport.put("numEdges", g.E().count().next());
+        scaleReport.put("getMyFeed", profile(sampleUsernames.size(), i -> feedController
+            .getAllPostsInFeed(sampleUsernames.get(i))
+            .flatMap(projectToPost(sampleUsernames.get(i)))));
+        scaleReport.put("getPopularShardPosts", profile(sampleShardNames.size(), i -> shardController
+            .getAllPostsInShard(sampleShardNames.get(i))
+            .flatMap(projectToPost(sampleUsernames.get(i)))));
+        scaleReport.put("projectToPostWithComments", profile(samplePostIds.size(), i -> g
+            .V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, samplePostIds.get(i))
+            .flatMap(projectToPost(sampleUsernames.get(i)))));
+        return scaleReport;
+    }
+
+    /**
+     * Profiles the traversal for each sample, and sums the counts and durations of each step over all of them.
+     */
+    private static Map<String, Object> profile(final int numSamples,
+                                               final Function<Integer, GraphTraversal<?, ?>> traversalForSample) {
+        // Steps are matched up by position, since their names include the sample's keys
+        final List<String> stepNames = new ArrayList<>();
+        final List<long[]> stepTotals = new ArrayList<>();
+        long totalDurationNanos = 0;
+        for (int i = 0; i < numSamples; i++) {
+            final TraversalMetrics traversalMetrics = traversalForSample.apply(i).profile().next();
+            totalDurationNanos += traversalMetrics.getDuration(TimeUnit.NANOSECONDS);
+            final List<? extends Metrics> stepMetrics = new ArrayList<>(traversalMetrics.getMetrics());
+            for (int j = 0; j < stepMetrics.size(); j++) {
+                final Metrics metrics = stepMetrics.get(j);
+                if (j == stepTotals.size()) {
+                    stepNames.add(metrics.getName());
+                    stepTotals.add(new long[3]);
+                }
+                final long[] totals = stepTotals.get(j);
+                totals[0] += countOrZero(metrics, TraversalMetrics.ELEMENT_COUNT_ID);
+                totals[1] += countOrZero(metrics, TraversalMetrics.TRAVERSER_COUNT_ID);
+                totals[2] += metrics.getDuration(TimeUnit.NANOSECONDS);
+            }
+        }
+
+        final List<Map<String, Object>> steps = new ArrayList<>();
+        for (int j = 0; j < stepTotals.size(); j++) {
+            final long[] totals = stepTotals.get(j);
+            final Map<String, Object> step = new LinkedHashMap<>();
+            step.put("step", stepNames.get(j));
+            step.put("elements", totals[0]);
+            step.put("traversers", totals[1]);
+            step.put("durationMillis", toMillis(totals[2]));
+            steps.add(step);
+        }
+
+        final Map<String, Object> traversalReport = new LinkedHashMap<>();
+        traversalReport.put("samples", numSamples);
+        traversalReport.put("durationMillis", toMillis(totalDurationNanos));
+        traversalReport.put("totalElements", steps.stream()
+            .collect(Collectors.summingLong(step -> (long) step.get("elements"))));
+        traversalReport.put("steps", steps);
+        return traversalReport;
+    }
+
+    private static long countOrZero(final Metrics metrics, final String countKey) {
+        final Long count = metrics.getCount(countKey);
+        return count == null ? 0 : count;
+    }
+
+    private static double toMillis(final long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,75 @@
+package com.pylon.pylonservice.model.domain;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pylon.pylonservice.benchmark.DomainFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Writing response bodies the way the controllers' message converter does, with an ObjectMapper built the same way
+ * Spring builds its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DomainSerializationBenchmark {
+    @Param({"25", "1000"})
+    private int listSize;
+
+    private ObjectMapper objectMapper;
+    private List<Post> posts;
+    private List<Shard> shards;
+    private List<Profile> profiles;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(0);
+        final Date now = new Date();
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        posts = IntStream.range(0, listSize)
+            .mapToObj(i -> new Post(DomainFixtures.graphPostMap(random, now)))
+            .collect(Collectors.toList());
+        shards = IntStream.range(0, listSize)
+            .mapToObj(i -> new Shard(DomainFixtures.graphShardMap(random, now)))
+            .collect(Collectors.toList());
+        profiles = IntStream.range(0, listSize)
+            .mapToObj(i -> new Profile(DomainFixtures.graphProfileMap(random, now)))
+            .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public byte[] serializePosts() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(posts);
+    }
+
+    @Benchmark
+    public byte[] serializeShards() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(shards);
+    }
+
+    @Benchmark
+    public byte[] serializeProfiles() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(profiles);
+    }
+}
@@ -0,0 +1,64 @@
+package com.pylon.pylonservice.model.domain;
+
+import com.pylon.pylonservice.benchmark.DomainFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The per-request work of the post list endpoints after the graph has answered: turning projection maps into Posts,
+ * and sorting them by popularity as /popular and the feeds do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostBenchmark {
+    @Param({"10000", "100000"})
+    private int numPosts;
+
+    private Date now;
+    private List<Map<String, Object>> graphPostMaps;
+    private List<Post> posts;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(0);
+        now = new Date();
+        graphPostMaps = IntStream.range(0, numPosts)
+            .mapToObj(i -> DomainFixtures.graphPostMap(random, now))
+            .collect(Collectors.toList());
+        posts = graphPostMaps.stream().map(Post::new).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Post> constructPosts() {
+        return graphPostMaps.stream().map(Post::new).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Post> sortPostsByPopularity() {
+        return posts.stream()
+            .sorted(Comparator.comparing((Post post) -> post.getPopularity(now)).reversed())
+            .collect(Collectors.toList());
+    }
+}
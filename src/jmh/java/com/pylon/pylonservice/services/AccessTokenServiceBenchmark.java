@@ -0,0 +1,58 @@
+package com.pylon.pylonservice.services;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every authenticated request parses its access token at least twice, once in the request filter and once in the
+ * controller, so parsing is on the path of nearly every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccessTokenServiceBenchmark {
+    private static final String JWT_SECRET =
+        "BenchmarkJwtSecretahfh8y78t675dryxctvugyigu7t6r75e6drytfuyg7tr67ftuygviuh7t8r6f7tucvyigu79t8r6fyvigu79t86f";
+
+    private AccessTokenService accessTokenService;
+    private UserDetails userDetails;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        accessTokenService = new AccessTokenService(JWT_SECRET);
+        userDetails = new User("benchmarkusername", "", List.of());
+        accessToken = accessTokenService.generateAccessTokenForUser(userDetails);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return accessTokenService.generateAccessTokenForUser(userDetails);
+    }
+
+    @Benchmark
+    public String getUsernameFromAccessToken() {
+        return accessTokenService.getUsernameFromAccessToken(accessToken);
+    }
+
+    @Benchmark
+    public boolean isAccessTokenValid() {
+        return accessTokenService.isAccessTokenValid(accessToken, userDetails);
+    }
+}
@@ -0,0 +1,61 @@
+package com.pylon.pylonservice.util;
+
+import com.pylon.pylonservice.benchmark.DomainFixtures;
+import com.pylon.pylonservice.model.domain.Post;
+import com.pylon.pylonservice.model.requests.GetPostsRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaginationUtilBenchmark {
+    private static final int PAGE_SIZE = 25;
+
+    @Param({"10000", "100000"})
+    private int numPosts;
+
+    private List<Post> posts;
+    private GetPostsRequest firstPage;
+    private GetPostsRequest lastPage;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(0);
+        final Date now = new Date();
+        posts = IntStream.range(0, numPosts)
+            .mapToObj(i -> new Post(DomainFixtures.graphPostMap(random, now)))
+            .collect(Collectors.toList());
+        firstPage = new GetPostsRequest(0, PAGE_SIZE);
+        lastPage = new GetPostsRequest(numPosts - PAGE_SIZE, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Post> paginateFirstPage() {
+        return PaginationUtil.paginatePosts(posts, firstPage);
+    }
+
+    @Benchmark
+    public List<Post> paginateLastPage() {
+        return PaginationUtil.paginatePosts(posts, lastPage);
+    }
+}
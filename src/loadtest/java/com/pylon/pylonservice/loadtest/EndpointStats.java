@@ -0,0 +1,59 @@
+package com.pylon.pylonservice.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latencies and outcomes of the requests to one endpoint. A request is an error if it failed to complete or its
+ * response wasn't a 2xx; errors are counted by status, with 0 standing for no response at all.
+ */
+final class EndpointStats {
+    private static final double[] REPORTED_PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+    private final AtomicLong numErrors = new AtomicLong();
+    private final Map<Integer, AtomicLong> numErrorsByStatus = new ConcurrentHashMap<>();
+
+    void record(final long latencyMicros, final int status) {
+        latencyHistogram.record(latencyMicros);
+        if (status < 200 || status >= 300) {
+            numErrors.incrementAndGet();
+            numErrorsByStatus.computeIfAbsent(status, key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    Map<String, Object> toReport(final double measuredSeconds) {
+        final long count = latencyHistogram.getCount();
+        final Map<String, Object> report = new LinkedHashMap<>();
+        report.put("requests", count);
+        report.put("throughputPerSecond", measuredSeconds > 0 ? count / measuredSeconds : 0);
+        report.put("errors", numErrors.get());
+        report.put("errorRate", count > 0 ? (double) numErrors.get() / count : 0);
+
+        final Map<String, Long> errorsByStatus = new LinkedHashMap<>();
+        numErrorsByStatus.forEach((status, numStatusErrors) -> errorsByStatus.put(
+            String.valueOf(status), numStatusErrors.get()
+        ));
+        report.put("errorsByStatus", errorsByStatus);
+
+        final Map<String, Double> latencyMillis = new LinkedHashMap<>();
+        latencyMillis.put("mean", latencyHistogram.getMeanMicros() / 1000.0);
+        for (final double percentile : REPORTED_PERCENTILES) {
+            latencyMillis.put(
+                "p" + percentileLabel(percentile),
+                latencyHistogram.getPercentileMicros(percentile) / 1000.0
+            );
+        }
+        latencyMillis.put("max", latencyHistogram.getMaxMicros() / 1000.0);
+        report.put("latencyMillis", latencyMillis);
+        return report;
+    }
+
+    private static String percentileLabel(final double percentile) {
+        return percentile == Math.floor(percentile)
+            ? String.valueOf((int) percentile)
+            : String.valueOf(percentile).replace(".", "_");
+    }
+}
@@ -0,0 +1,89 @@
+package com.pylon.pylonservice.loadtest;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free, fixed-size histogram of latencies in microseconds, so that a soak test's memory use doesn't grow with
+ * its length. Values below 128us are counted exactly; above that, every power of two is split into 64 buckets, so any
+ * percentile is reported at most 1/64 (about 1.6%) above the true value.
+ */
+final class LatencyHistogram {
+    private static final int EXACT_BUCKETS = 128;
+    private static final int SUB_BUCKETS_PER_POWER_OF_TWO = 64;
+    private static final int SUB_BUCKET_BITS = 6;
+    // Up to 2^40us, about twelve days, which no request will reach
+    private static final int MAX_EXPONENT = 40;
+    private static final int NUM_BUCKETS =
+        EXACT_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS - 1) * SUB_BUCKETS_PER_POWER_OF_TWO;
+
+    private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    void record(final long micros) {
+        final long value = Math.max(0, micros);
+        counts.incrementAndGet(bucketIndex(value));
+        totalCount.incrementAndGet();
+        totalMicros.addAndGet(value);
+        maxMicros.accumulateAndGet(value, Math::max);
+    }
+
+    long getCount() {
+        return totalCount.get();
+    }
+
+    double getMeanMicros() {
+        final long count = totalCount.get();
+        return count == 0 ? 0 : (double) totalMicros.get() / count;
+    }
+
+    long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    /**
+     * @param percentile Between 0 and 100.
+     *
+     * @return The highest value in the bucket the percentile falls in, or 0 if nothing was recorded.
+     */
+    long getPercentileMicros(final double percentile) {
+        final long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(bucketHighestValue(i), maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+
+    static int bucketIndex(final long value) {
+        if (value < EXACT_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = Math.min(MAX_EXPONENT - 1, 63 - Long.numberOfLeadingZeros(value));
+        final int shift = exponent - SUB_BUCKET_BITS;
+        final long subBucket = Math.min(SUB_BUCKETS_PER_POWER_OF_TWO * 2 - 1, value >> shift);
+        return EXACT_BUCKETS
+            + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS_PER_POWER_OF_TWO
+            + (int) (subBucket - SUB_BUCKETS_PER_POWER_OF_TWO);
+    }
+
+    static long bucketHighestValue(final int index) {
+        if (index < EXACT_BUCKETS) {
+            return index;
+        }
+        final int exponent = (index - EXACT_BUCKETS) / SUB_BUCKETS_PER_POWER_OF_TWO + SUB_BUCKET_BITS + 1;
+        final long subBucket = (index - EXACT_BUCKETS) % SUB_BUCKETS_PER_POWER_OF_TWO + SUB_BUCKETS_PER_POWER_OF_TWO;
+        final int shift = exponent - SUB_BUCKET_BITS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
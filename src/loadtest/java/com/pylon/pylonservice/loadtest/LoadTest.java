@@ -0,0 +1,273 @@
+package com.pylon.pylonservice.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Load and soak tests a running PylonService. A run has two phases:
+ *
+ * 1. Setup, which registers and authenticates users, creates shards, and has users follow users and shards and make a
+ *    few posts each, so that feeds and shards have something in them.
+ * 2. The workload, a weighted mix of {@link Operation}s by power-law picked users, run for a fixed duration after a
+ *    warmup whose requests aren't reported.
+ *
+ * The workload runs in one of two modes:
+ *
+ * closed - A fixed number of workers each send a request and wait for its response before sending the next. Finds the
+ *          throughput the service sustains at that concurrency, but, since a slow response delays every request
+ *          queued behind it, understates tail latency.
+ * open   - Requests are sent at a fixed rate regardless of how long responses take, and each request's latency is
+ *          measured from when it was scheduled to be sent rather than from when it was sent. Latencies then include
+ *          any time spent waiting behind slow responses, so tails are free of coordinated omission. Raising the rate
+ *          until latency climbs or errors appear finds the saturation point.
+ *
+ * Options are given as --name=value; see {@link #DEFAULT_OPTIONS} for the names and defaults. Writes a JSON report
+ * with throughput, error rates and latency percentiles per endpoint, for both phases.
+ */
+public final class LoadTest {
+    private static final Map<String, String> DEFAULT_OPTIONS = Map.ofEntries(
+        Map.entry("baseUrl", "http://localhost:8080"),
+        Map.entry("mode", "closed"),
+        Map.entry("users", "200"),
+        Map.entry("shards", "20"),
+        Map.entry("followsPerUser", "10"),
+        Map.entry("postsPerUser", "3"),
+        // Closed mode
+        Map.entry("concurrency", "32"),
+        // Open mode, in requests per second
+        Map.entry("rate", "200"),
+        Map.entry("maxOutstanding", "10000"),
+        Map.entry("warmupSeconds", "30"),
+        Map.entry("durationSeconds", "120"),
+        Map.entry("seed", "0"),
+        Map.entry("report", "target/loadtest-report.json")
+    );
+    private static final int SETUP_CONCURRENCY = 16;
+
+    private final Map<String, String> options;
+    private final Workload workload;
+    private final Random random;
+
+    private LoadTest(final Map<String, String> options) {
+        this.options = options;
+        this.random = new Random(getLong("seed"));
+        // Usernames and shardNames are unique per run, so runs can share a database
+        final String runId = Long.toString(System.currentTimeMillis() % 100_000_000L, 36);
+        this.workload = new Workload(
+            new PylonClient(options.get("baseUrl")), runId, getInt("users"), getInt("shards")
+        );
+    }
+
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        final Map<String, String> options = new LinkedHashMap<>(DEFAULT_OPTIONS);
+        for (final String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException(String.format("Expected --name=value but got %s", arg));
+            }
+            final String[] nameAndValue = arg.substring(2).split("=", 2);
+            if (!DEFAULT_OPTIONS.containsKey(nameAndValue[0])) {
+                throw new IllegalArgumentException(String.format("Unknown option %s", nameAndValue[0]));
+            }
+            options.put(nameAndValue[0], nameAndValue[1]);
+        }
+
+        new LoadTest(options).run();
+        // The HTTP client's threads would otherwise keep the JVM alive
+        System.exit(0);
+    }
+
+    private void run() throws IOException, InterruptedException {
+        final Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", options);
+        report.put("setup", setUp());
+
+        final String mode = options.get("mode");
+        final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+        final long measuredNanos;
+        if (mode.equals("closed")) {
+            measuredNanos = runClosedLoop(stats);
+        } else if (mode.equals("open")) {
+            measuredNanos = runOpenLoop(stats);
+        } else {
+            throw new IllegalArgumentException(String.format("Unknown mode %s", mode));
+        }
+        report.put("workload", toReport(stats, measuredNanos));
+
+        final File reportFile = new File(options.get("report"));
+        reportFile.getAbsoluteFile().getParentFile().mkdirs();
+        final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        objectMapper.writeValue(reportFile, report);
+        System.out.println(objectMapper.writeValueAsString(report.get("workload")));
+        System.out.println(String.format("Wrote load test report to %s", reportFile.getAbsolutePath()));
+    }
+
+    private Map<String, Object> setUp() throws InterruptedException {
+        final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+        final long startTime = System.nanoTime();
+        final List<String> usernames = workload.getUsernames();
+
+        runAll(stats, "register", usernames.size(), i -> workload.register(usernames.get(i)));
+        runAll(stats, "authenticate", usernames.size(), i -> workload.authenticate(usernames.get(i)));
+        log(String.format("Authenticated %d of %d users", workload.getNumAuthenticatedUsers(), usernames.size()));
+
+        runAll(stats, "createShard", workload.getShardNames().size(), i -> workload.createShard(i, random));
+        final int followsPerUser = getInt("followsPerUser");
+        runAll(stats, "followUser", usernames.size() * followsPerUser,
+            i -> workload.followUser(usernames.get(i / followsPerUser), new Random(random.nextLong())));
+        runAll(stats, "followShard", usernames.size() * followsPerUser / 2,
+            i -> workload.followShard(usernames.get(i * 2 / followsPerUser), new Random(random.nextLong())));
+        final int postsPerUser = getInt("postsPerUser");
+        runAll(stats, "createSeedPost", usernames.size() * postsPerUser,
+            i -> workload.createSeedPost(usernames.get(i / postsPerUser), new Random(random.nextLong())));
+
+        return toReport(stats, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Sends numRequests requests, SETUP_CONCURRENCY at a time.
+     */
+    private void runAll(final Map<String, EndpointStats> stats, final String endpoint, final int numRequests,
+                        final Function<Integer, CompletableFuture<HttpResponse<String>>> request)
+        throws InterruptedException {
+        log(String.format("Setting up: %d %s requests", numRequests, endpoint));
+        final Semaphore permits = new Semaphore(SETUP_CONCURRENCY);
+        for (int i = 0; i < numRequests; i++) {
+            permits.acquire();
+            final long startTime = System.nanoTime();
+            final int requestIndex = i;
+            send(() -> request.apply(requestIndex)).whenComplete((status, throwable) -> {
+                record(stats, endpoint, startTime, status);
+                permits.release();
+            });
+        }
+        permits.acquire(SETUP_CONCURRENCY);
+    }
+
+    private long runClosedLoop(final Map<String, EndpointStats> stats) throws InterruptedException {
+        final long warmupEndTime = System.nanoTime() + TimeUnit.SECONDS.toNanos(getLong("warmupSeconds"));
+        final long endTime = warmupEndTime + TimeUnit.SECONDS.toNanos(getLong("durationSeconds"));
+        log(String.format("Running closed loop with %d workers", getInt("concurrency")));
+
+        final List<Thread> workers = IntStream.range(0, getInt("concurrency"))
+            .mapToObj(i -> new Thread(() -> {
+                final Random workerRandom = new Random(random.nextLong());
+                while (System.nanoTime() < endTime) {
+                    final Operation operation = Operation.pick(workerRandom);
+                    final long startTime = System.nanoTime();
+                    final int status = send(() -> workload.execute(operation, workerRandom)).join();
+                    if (startTime >= warmupEndTime) {
+                        record(stats, operation.name(), startTime, status);
+                    }
+                }
+            }, "load-test-worker-" + i))
+            .collect(Collectors.toList());
+        workers.forEach(Thread::start);
+        for (final Thread worker : workers) {
+            worker.join();
+        }
+        return endTime - warmupEndTime;
+    }
+
+    private long runOpenLoop(final Map<String, EndpointStats> stats) throws InterruptedException {
+        final long intervalNanos = TimeUnit.SECONDS.toNanos(1) / getLong("rate");
+        final long startTime = System.nanoTime();
+        final long warmupEndTime = startTime + TimeUnit.SECONDS.toNanos(getLong("warmupSeconds"));
+        final long endTime = warmupEndTime + TimeUnit.SECONDS.toNanos(getLong("durationSeconds"));
+        final int maxOutstanding = getInt("maxOutstanding");
+        // Bounds memory if the service stops responding; scheduled times, and so latencies, are unaffected
+        final Semaphore outstanding = new Semaphore(maxOutstanding);
+        final AtomicLong numLateSends = new AtomicLong();
+        log(String.format("Running open loop at %s requests per second", options.get("rate")));
+
+        for (long i = 0; ; i++) {
+            final long scheduledTime = startTime + i * intervalNanos;
+            if (scheduledTime >= endTime) {
+                break;
+            }
+            final long waitNanos = scheduledTime - System.nanoTime();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            } else if (-waitNanos > intervalNanos) {
+                numLateSends.incrementAndGet();
+            }
+
+            outstanding.acquire();
+            final Operation operation = Operation.pick(random);
+            send(() -> workload.execute(operation, ThreadLocalRandom.current())).whenComplete((status, throwable) -> {
+                if (scheduledTime >= warmupEndTime) {
+                    record(stats, operation.name(), scheduledTime, status);
+                }
+                outstanding.release();
+            });
+        }
+        outstanding.acquire(maxOutstanding);
+
+        if (numLateSends.get() > 0) {
+            log(String.format(
+                "%d requests were sent more than one interval late; latencies still count from their scheduled time",
+                numLateSends.get()
+            ));
+        }
+        return endTime - warmupEndTime;
+    }
+
+    /**
+     * @return The response's status, or 0 if the request couldn't be sent or got no response.
+     */
+    private static CompletableFuture<Integer> send(final Supplier<CompletableFuture<HttpResponse<String>>> request) {
+        try {
+            return request.get()
+                .thenApply(HttpResponse::statusCode)
+                .exceptionally(throwable -> 0);
+        } catch (final RuntimeException e) {
+            return CompletableFuture.completedFuture(0);
+        }
+    }
+
+    private static void record(final Map<String, EndpointStats> stats, final String endpoint, final long startTime,
+                               final int status) {
+        final long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime);
+        stats.computeIfAbsent(endpoint, key -> new EndpointStats()).record(latencyMicros, status);
+    }
+
+    private static Map<String, Object> toReport(final Map<String, EndpointStats> stats, final long measuredNanos) {
+        final double measuredSeconds = measuredNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        final Map<String, Object> report = new LinkedHashMap<>();
+        report.put("measuredSeconds", measuredSeconds);
+        stats.keySet().stream()
+            .sorted()
+            .forEach(endpoint -> report.put(endpoint, stats.get(endpoint).toReport(measuredSeconds)));
+        return report;
+    }
+
+    private int getInt(final String name) {
+        return Integer.parseInt(options.get(name));
+    }
+
+    private long getLong(final String name) {
+        return Long.parseLong(options.get(name));
+    }
+
+    private static void log(final String message) {
+        System.out.println(message);
+    }
+}
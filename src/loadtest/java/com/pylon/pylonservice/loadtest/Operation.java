@@ -0,0 +1,45 @@
+package com.pylon.pylonservice.loadtest;
+
+import java.util.Random;
+
+/**
+ * The requests a simulated user makes, weighted by how often users make them. Reads dominate, as they do on the site.
+ */
+enum Operation {
+    GET_MY_FEED(45),
+    GET_POST(15),
+    GET_POPULAR_SHARD_POSTS(10),
+    GET_NEW_SHARD_POSTS(5),
+    UPVOTE_POST(12),
+    CREATE_COMMENT_POST(6),
+    CREATE_SHARD_POST(3),
+    CREATE_PROFILE_POST(1),
+    FOLLOW_USER(3);
+
+    private static final int TOTAL_WEIGHT = totalWeight();
+
+    private final int weight;
+
+    Operation(final int weight) {
+        this.weight = weight;
+    }
+
+    static Operation pick(final Random random) {
+        int remaining = random.nextInt(TOTAL_WEIGHT);
+        for (final Operation operation : values()) {
+            remaining -= operation.weight;
+            if (remaining < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Operation weights changed while picking");
+    }
+
+    private static int totalWeight() {
+        int totalWeight = 0;
+        for (final Operation operation : values()) {
+            totalWeight += operation.weight;
+        }
+        return totalWeight;
+    }
+}
@@ -0,0 +1,169 @@
+package com.pylon.pylonservice.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static com.pylon.pylonservice.constants.AuthenticationConstants.ACCESS_TOKEN_COOKIE_NAME;
+
+/**
+ * The endpoints the load test calls, as asynchronous requests, so that an open-loop run never waits on a response
+ * before sending its next request. Requests carry the calling user's access token cookie explicitly instead of through
+ * a cookie store, since every simulated user shares this one client.
+ */
+final class PylonClient {
+    // Cookies are only unscoped and sent over plain HTTP for requests from localhost
+    private static final String ORIGIN = "http://localhost";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+
+    PylonClient(final String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(REQUEST_TIMEOUT)
+            .build();
+    }
+
+    CompletableFuture<HttpResponse<String>> register(final String username, final String password,
+                                                     final String email) {
+        return post(null, "/register", Map.of("username", username, "password", password, "email", email));
+    }
+
+    CompletableFuture<HttpResponse<String>> authenticate(final String username, final String password) {
+        return post(null, "/authenticate", Map.of("usernameOrEmail", username, "password", password));
+    }
+
+    CompletableFuture<HttpResponse<String>> createShard(final String accessToken, final String shardName,
+                                                        final List<String> inheritedUsers) {
+        return post(accessToken, "/shard", Map.of(
+            "shardName", shardName,
+            "shardFriendlyName", shardName,
+            "shardAvatarFilename", "",
+            "shardBannerFilename", "",
+            "shardDescription", "A shard created by the load test",
+            "inheritedShardNames", List.of(),
+            "inheritedUsers", inheritedUsers
+        ));
+    }
+
+    CompletableFuture<HttpResponse<String>> followUser(final String accessToken, final String username) {
+        return put(accessToken, "/follow/user/" + username);
+    }
+
+    CompletableFuture<HttpResponse<String>> followShard(final String accessToken, final String shardName) {
+        return put(accessToken, "/follow/shard/" + shardName);
+    }
+
+    CompletableFuture<HttpResponse<String>> createShardPost(final String accessToken, final String shardName,
+                                                            final String postTitle, final String postBody) {
+        return post(accessToken, "/post/shard/" + shardName, topLevelPost(postTitle, postBody));
+    }
+
+    CompletableFuture<HttpResponse<String>> createProfilePost(final String accessToken, final String postTitle,
+                                                              final String postBody) {
+        return post(accessToken, "/post/profile", topLevelPost(postTitle, postBody));
+    }
+
+    CompletableFuture<HttpResponse<String>> createCommentPost(final String accessToken, final String parentPostId,
+                                                              final String postBody) {
+        return post(accessToken, "/post/comment/" + parentPostId, Map.of("postBody", postBody));
+    }
+
+    CompletableFuture<HttpResponse<String>> upvotePost(final String accessToken, final String postId) {
+        return put(accessToken, "/post/upvote/" + postId);
+    }
+
+    CompletableFuture<HttpResponse<String>> getMyFeed(final String accessToken, final int count) {
+        return get(accessToken, String.format("/myFeed?first=0&count=%d", count));
+    }
+
+    CompletableFuture<HttpResponse<String>> getPost(final String accessToken, final String postId) {
+        return get(accessToken, "/post/" + postId);
+    }
+
+    CompletableFuture<HttpResponse<String>> getPopularShardPosts(final String accessToken, final String shardName,
+                                                                 final int count) {
+        return get(accessToken, String.format("/shard/%s/posts/popular?first=0&count=%d", shardName, count));
+    }
+
+    CompletableFuture<HttpResponse<String>> getNewShardPosts(final String accessToken, final String shardName,
+                                                             final int count) {
+        return get(accessToken, String.format("/shard/%s/posts/new?first=0&count=%d", shardName, count));
+    }
+
+    /**
+     * @return The value of the access token cookie set by a response to /authenticate.
+     */
+    static Optional<String> getAccessToken(final HttpResponse<?> response) {
+        return response.headers().allValues("Set-Cookie").stream()
+            .filter(cookie -> cookie.startsWith(ACCESS_TOKEN_COOKIE_NAME + "="))
+            .map(cookie -> cookie.substring(ACCESS_TOKEN_COOKIE_NAME.length() + 1).split(";", 2)[0])
+            .findFirst();
+    }
+
+    /**
+     * @return The postId in the body of a response to one of the post creation endpoints.
+     */
+    Optional<String> getCreatedPostId(final HttpResponse<String> response) {
+        try {
+            return Optional.ofNullable(objectMapper.readTree(response.body()).path("postId").textValue());
+        } catch (final JsonProcessingException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Map<String, String> topLevelPost(final String postTitle, final String postBody) {
+        return Map.of("postTitle", postTitle, "postFilename", "", "postContentUrl", "", "postBody", postBody);
+    }
+
+    private CompletableFuture<HttpResponse<String>> get(final String accessToken, final String path) {
+        return send(request(accessToken, path).GET().build());
+    }
+
+    private CompletableFuture<HttpResponse<String>> put(final String accessToken, final String path) {
+        return send(request(accessToken, path).PUT(HttpRequest.BodyPublishers.noBody()).build());
+    }
+
+    private CompletableFuture<HttpResponse<String>> post(final String accessToken, final String path,
+                                                         final Object body) {
+        final byte[] bodyBytes;
+        try {
+            bodyBytes = objectMapper.writeValueAsBytes(body);
+        } catch (final JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return send(
+            request(accessToken, path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(bodyBytes))
+                .build()
+        );
+    }
+
+    private HttpRequest.Builder request(final String accessToken, final String path) {
+        final HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(REQUEST_TIMEOUT)
+            .header("Origin", ORIGIN);
+        if (accessToken != null) {
+            builder.header("Cookie", ACCESS_TOKEN_COOKIE_NAME + "=" + accessToken);
+        }
+        return builder;
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(final HttpRequest request) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
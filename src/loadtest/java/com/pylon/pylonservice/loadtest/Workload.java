@@ -0,0 +1,156 @@
+package com.pylon.pylonservice.loadtest;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * The simulated users, shards and posts of a load test run, and the requests they make. Which user acts, and which
+ * users, shards and posts they act on, follows a power law, so a few of each are hot, as on the site.
+ */
+final class Workload {
+    private static final String PASSWORD = "LoadTest1Password";
+    private static final int PAGE_SIZE = 25;
+    // Only the last posts created are kept as targets, so memory use doesn't grow over a soak test
+    private static final int MAX_TARGET_POSTS = 10_000;
+    private static final double POWER_LAW_EXPONENT = 2.1;
+
+    private final PylonClient pylonClient;
+    private final List<String> usernames = new ArrayList<>();
+    private final Map<String, String> accessTokens = new ConcurrentHashMap<>();
+    private final List<String> shardNames = new ArrayList<>();
+    private final AtomicReferenceArray<String> postIds = new AtomicReferenceArray<>(MAX_TARGET_POSTS);
+    private final AtomicLong numPosts = new AtomicLong();
+
+    Workload(final PylonClient pylonClient, final String runId, final int numUsers, final int numShards) {
+        this.pylonClient = pylonClient;
+        for (int i = 0; i < numUsers; i++) {
+            usernames.add(String.format("lt%su%d", runId, i));
+        }
+        for (int i = 0; i < numShards; i++) {
+            shardNames.add(String.format("lt%ss%d", runId, i));
+        }
+    }
+
+    List<String> getUsernames() {
+        return usernames;
+    }
+
+    List<String> getShardNames() {
+        return shardNames;
+    }
+
+    CompletableFuture<HttpResponse<String>> register(final String username) {
+        return pylonClient.register(username, PASSWORD, String.format("%s@loadtest.pylon.gg", username));
+    }
+
+    CompletableFuture<HttpResponse<String>> authenticate(final String username) {
+        return pylonClient.authenticate(username, PASSWORD).whenComplete((response, throwable) -> {
+            if (response != null) {
+                PylonClient.getAccessToken(response).ifPresent(accessToken -> accessTokens.put(username, accessToken));
+            }
+        });
+    }
+
+    /**
+     * Shard i is owned by user i, and inherits a few users picked by power law.
+     */
+    CompletableFuture<HttpResponse<String>> createShard(final int shardIndex, final Random random) {
+        final String ownerUsername = usernames.get(shardIndex % usernames.size());
+        final List<String> inheritedUsers = new ArrayList<>();
+        for (int i = 1 + random.nextInt(3); i > 0; i--) {
+            inheritedUsers.add(pick(usernames, random));
+        }
+        return pylonClient.createShard(accessTokens.get(ownerUsername), shardNames.get(shardIndex), inheritedUsers);
+    }
+
+    CompletableFuture<HttpResponse<String>> followUser(final String username, final Random random) {
+        return pylonClient.followUser(accessTokens.get(username), pick(usernames, random));
+    }
+
+    CompletableFuture<HttpResponse<String>> followShard(final String username, final Random random) {
+        return pylonClient.followShard(accessTokens.get(username), pick(shardNames, random));
+    }
+
+    CompletableFuture<HttpResponse<String>> execute(final Operation operation, final Random random) {
+        final String accessToken = accessTokens.get(pick(usernames, random));
+        switch (operation) {
+            case GET_MY_FEED:
+                return pylonClient.getMyFeed(accessToken, PAGE_SIZE);
+            case GET_POST:
+                return withTargetPost(random, postId -> pylonClient.getPost(accessToken, postId));
+            case GET_POPULAR_SHARD_POSTS:
+                return pylonClient.getPopularShardPosts(accessToken, pick(shardNames, random), PAGE_SIZE);
+            case GET_NEW_SHARD_POSTS:
+                return pylonClient.getNewShardPosts(accessToken, pick(shardNames, random), PAGE_SIZE);
+            case UPVOTE_POST:
+                return withTargetPost(random, postId -> pylonClient.upvotePost(accessToken, postId));
+            case CREATE_COMMENT_POST:
+                return withTargetPost(random, postId -> rememberPost(
+                    pylonClient.createCommentPost(accessToken, postId, "A comment from the load test")
+                ));
+            case CREATE_SHARD_POST:
+                return rememberPost(pylonClient.createShardPost(
+                    accessToken, pick(shardNames, random), "A load test post", "A post body from the load test"
+                ));
+            case CREATE_PROFILE_POST:
+                return rememberPost(pylonClient.createProfilePost(
+                    accessToken, "A load test post", "A post body from the load test"
+                ));
+            case FOLLOW_USER:
+                return pylonClient.followUser(accessToken, pick(usernames, random));
+            default:
+                throw new IllegalArgumentException(String.format("Unknown operation %s", operation));
+        }
+    }
+
+    CompletableFuture<HttpResponse<String>> createSeedPost(final String username, final Random random) {
+        final String accessToken = accessTokens.get(username);
+        return rememberPost(random.nextBoolean()
+            ? pylonClient.createShardPost(accessToken, pick(shardNames, random), "A seed post", "A seed post body")
+            : pylonClient.createProfilePost(accessToken, "A seed post", "A seed post body"));
+    }
+
+    int getNumAuthenticatedUsers() {
+        return accessTokens.size();
+    }
+
+    private CompletableFuture<HttpResponse<String>> rememberPost(
+        final CompletableFuture<HttpResponse<String>> createPostFuture) {
+        return createPostFuture.whenComplete((response, throwable) -> {
+            if (response != null && response.statusCode() == 201) {
+                pylonClient.getCreatedPostId(response).ifPresent(postId -> postIds.set(
+                    (int) (numPosts.getAndIncrement() % MAX_TARGET_POSTS), postId
+                ));
+            }
+        });
+    }
+
+    private CompletableFuture<HttpResponse<String>> withTargetPost(
+        final Random random,
+        final Function<String, CompletableFuture<HttpResponse<String>>> request) {
+        final long numKnownPosts = Math.min(numPosts.get(), MAX_TARGET_POSTS);
+        if (numKnownPosts == 0) {
+            return CompletableFuture.failedFuture(new IllegalStateException("No posts have been created yet"));
+        }
+        final String postId = postIds.get(powerLawIndex((int) numKnownPosts, random));
+        return postId == null
+            ? CompletableFuture.failedFuture(new IllegalStateException("Post not recorded yet"))
+            : request.apply(postId);
+    }
+
+    private static <T> T pick(final List<T> items, final Random random) {
+        return items.get(powerLawIndex(items.size(), random));
+    }
+
+    private static int powerLawIndex(final int size, final Random random) {
+        return (int) (size * Math.pow(random.nextDouble(), POWER_LAW_EXPONENT + 1.0));
+    }
+}
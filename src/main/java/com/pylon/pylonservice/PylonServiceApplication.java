@@ -3,9 +3,11 @@ package com.pylon.pylonservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.web.servlet.support.SpringBootServletInitializer;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import static java.security.Security.setProperty;
 
+@EnableScheduling
 @SpringBootApplication
 public class PylonServiceApplication extends SpringBootServletInitializer {
     public static void main(String[] args) {
@@ -0,0 +1,104 @@
+package com.pylon.pylonservice.beans;
+
+import com.pylon.pylonservice.services.MetricsService;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Log4j2
+@Component
+public class ExecutorBean {
+    private static final String DROPPED_SIDE_EFFECT_METRIC_NAME = "DroppedSideEffect";
+
+    @Bean(name = "imageProcessingExecutor")
+    public ExecutorService imageProcessingExecutor(
+        @Value("${image.processing.threads}") final int numThreads,
+        @Value("${image.processing.queue.capacity}") final int queueCapacity) {
+        // Bounded on both threads and queue so that a burst of uploads cannot exhaust memory with decoded images.
+        // Rejected work is dropped, leaving only the original image.
+        return new ThreadPoolExecutor(
+            numThreads,
+            numThreads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            namedDaemonThreadFactory("image-processing"),
+            (runnable, executor) -> log.warn("Image processing queue is full, dropping task")
+        );
+    }
+
+    @Bean(name = "sideEffectExecutor")
+    public ExecutorService sideEffectExecutor(
+        @Value("${side.effect.threads}") final int numThreads,
+        @Value("${side.effect.queue.capacity}") final int queueCapacity,
+        final MetricsService metricsService) {
+        // Runs best-effort work such as notifications off the request thread. A full queue drops the task rather than
+        // pushing the latency back onto the request, counting it so that lost notifications show up in the metrics.
+        return new ThreadPoolExecutor(
+            numThreads,
+            numThreads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            namedDaemonThreadFactory("side-effect"),
+            (runnable, executor) -> {
+                log.warn("Side effect queue is full, dropping task");
+                metricsService.addCountMetric(DROPPED_SIDE_EFFECT_METRIC_NAME);
+            }
+        );
+    }
+
+    @Bean(name = "notificationStreamExecutor")
+    public ExecutorService notificationStreamExecutor(
+        @Value("${notification.stream.threads}") final int numThreads,
+        @Value("${notification.stream.queue.capacity}") final int queueCapacity) {
+        // Writes queued Server-Sent Events to their streams, so that a client which stops reading blocks one of these
+        // threads rather than the thread publishing the notification. Rejection throws so that the events stay queued
+        // on their stream for a later attempt.
+        return new ThreadPoolExecutor(
+            numThreads,
+            numThreads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            namedDaemonThreadFactory("notification-stream"),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @Bean(name = "asyncRequestExecutor")
+    public ExecutorService asyncRequestExecutor(
+        @Value("${async.request.threads}") final int numThreads,
+        @Value("${async.request.queue.capacity}") final int queueCapacity) {
+        // Runs the graph queries of requests handled asynchronously, and the work on their results. Unlike the other
+        // executors, rejected work can't be dropped since a request is waiting on it, so rejection throws and the
+        // request fails fast instead.
+        return new ThreadPoolExecutor(
+            numThreads,
+            numThreads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            namedDaemonThreadFactory("async-request"),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    private static ThreadFactory namedDaemonThreadFactory(final String namePrefix) {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            final Thread thread =
+                new Thread(runnable, String.format("%s-%d", namePrefix, threadNumber.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -3,9 +3,11 @@ package com.pylon.pylonservice.beans.aws;
 import com.amazonaws.services.cloudwatch.AmazonCloudWatch;
 import com.amazonaws.services.cloudwatch.AmazonCloudWatchClientBuilder;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 @Component
+@Profile("!inmemory")
 public class CloudWatchBean {
     @Bean
     public AmazonCloudWatch amazonCloudWatch() {
@@ -1,20 +1,33 @@
 package com.pylon.pylonservice.beans.aws;
 
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.regions.DefaultAwsRegionProviderChain;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 @Component
 public class DynamoDbBean {
     @Bean
-    public AmazonDynamoDB amazonDynamoDB() {
+    @Profile("!inmemory")
+    public AmazonDynamoDB amazonDynamoDB(@Value("${dynamodb.endpoint}") final String endpoint) {
         // Credentials provided by the AWS_ACCESS_KEY_ID and AWS_SECRET_ACCESS_KEY environment variables.
         // Region provided by the AWS_REGION environment variable.
-        return AmazonDynamoDBClientBuilder.standard().build();
+        if (endpoint.isEmpty()) {
+            return AmazonDynamoDBClientBuilder.standard().build();
+        }
+
+        // DynamoDB Local, which accepts any credentials and region
+        return AmazonDynamoDBClientBuilder.standard()
+            .withEndpointConfiguration(
+                new AwsClientBuilder.EndpointConfiguration(endpoint, new DefaultAwsRegionProviderChain().getRegion())
+            )
+            .build();
     }
 
     @Bean
@@ -8,12 +8,14 @@ import org.apache.tinkerpop.gremlin.driver.remote.DriverRemoteConnection;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 import static com.pylon.pylonservice.constants.EnvironmentConstants.LOCAL_ENVIRONMENT_NAME;
 import static org.apache.tinkerpop.gremlin.process.traversal.AnonymousTraversalSource.traversal;
 
 @Component
+@Profile("!inmemory")
 public class NeptuneBean {
     @Bean(name = "writerCluster")
     public Cluster writerCluster(@Value("${neptune.writer.endpoint}") final String writerEndpoint,
@@ -1,16 +1,31 @@
 package com.pylon.pylonservice.beans.aws;
 
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.regions.DefaultAwsRegionProviderChain;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 @Component
+@Profile("!inmemory")
 public class S3Bean {
     @Bean
-    public AmazonS3 amazonS3() {
+    public AmazonS3 amazonS3(@Value("${s3.endpoint}") final String endpoint) {
         // Credentials provided by the AWS_ACCESS_KEY_ID and AWS_SECRET_ACCESS_KEY environment variables.
         // Region provided by the AWS_REGION environment variable.
-        return AmazonS3ClientBuilder.defaultClient();
+        if (endpoint.isEmpty()) {
+            return AmazonS3ClientBuilder.defaultClient();
+        }
+
+        // A local S3 stand-in such as MinIO or LocalStack, which typically only supports path-style bucket addressing
+        return AmazonS3ClientBuilder.standard()
+            .withEndpointConfiguration(
+                new AwsClientBuilder.EndpointConfiguration(endpoint, new DefaultAwsRegionProviderChain().getRegion())
+            )
+            .withPathStyleAccessEnabled(true)
+            .build();
     }
 }
@@ -3,9 +3,11 @@ package com.pylon.pylonservice.beans.aws;
 import com.amazonaws.services.simpleemail.AmazonSimpleEmailService;
 import com.amazonaws.services.simpleemail.AmazonSimpleEmailServiceClientBuilder;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 @Component
+@Profile("!inmemory")
 public class SimpleEmailServiceBean {
     @Bean
     public AmazonSimpleEmailService amazonSimpleEmailService() {
@@ -0,0 +1,205 @@
+package com.pylon.pylonservice.beans.inmemory;
+
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.model.CopyObjectResult;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsResult;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.util.IOUtils;
+import lombok.AllArgsConstructor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps S3 objects in memory, for the calls the service makes. Presigned upload urls are generated, but point nowhere,
+ * so images can only be uploaded through /image.
+ */
+class InMemoryAmazonS3 extends AbstractAmazonS3 {
+    private static final String PRESIGNED_URL_FORMAT = "http://localhost/in-memory-s3/%s/%s";
+    private static final int DEFAULT_MAX_KEYS = 1000;
+
+    private final Map<String, NavigableMap<String, StoredObject>> buckets = new ConcurrentHashMap<>();
+
+    @AllArgsConstructor
+    private static class StoredObject {
+        final byte[] content;
+        final ObjectMetadata metadata;
+    }
+
+    @Override
+    public PutObjectResult putObject(final PutObjectRequest putObjectRequest) {
+        final byte[] content;
+        try (final InputStream inputStream = putObjectRequest.getInputStream()) {
+            content = IOUtils.toByteArray(inputStream);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        final ObjectMetadata metadata = putObjectRequest.getMetadata() == null
+            ? new ObjectMetadata()
+            : putObjectRequest.getMetadata().clone();
+        store(putObjectRequest.getBucketName(), putObjectRequest.getKey(), content, metadata);
+        return new PutObjectResult();
+    }
+
+    @Override
+    public S3Object getObject(final String bucketName, final String key) {
+        return getObject(new GetObjectRequest(bucketName, key));
+    }
+
+    @Override
+    public S3Object getObject(final GetObjectRequest getObjectRequest) {
+        final StoredObject storedObject = get(getObjectRequest.getBucketName(), getObjectRequest.getKey());
+
+        byte[] content = storedObject.content;
+        final long[] range = getObjectRequest.getRange();
+        if (range != null) {
+            final int end = (int) Math.min(content.length, range[1] + 1);
+            content = Arrays.copyOfRange(content, (int) Math.min(range[0], end), end);
+        }
+
+        final S3Object s3Object = new S3Object();
+        s3Object.setBucketName(getObjectRequest.getBucketName());
+        s3Object.setKey(getObjectRequest.getKey());
+        s3Object.setObjectMetadata(storedObject.metadata.clone());
+        s3Object.setObjectContent(new ByteArrayInputStream(content));
+        return s3Object;
+    }
+
+    @Override
+    public ObjectMetadata getObjectMetadata(final String bucketName, final String key) {
+        return get(bucketName, key).metadata.clone();
+    }
+
+    @Override
+    public boolean doesObjectExist(final String bucketName, final String objectName) {
+        return bucket(bucketName).containsKey(objectName);
+    }
+
+    @Override
+    public CopyObjectResult copyObject(final CopyObjectRequest copyObjectRequest) {
+        final StoredObject source = get(copyObjectRequest.getSourceBucketName(), copyObjectRequest.getSourceKey());
+        final ObjectMetadata metadata = copyObjectRequest.getNewObjectMetadata() == null
+            ? source.metadata.clone()
+            : copyObjectRequest.getNewObjectMetadata().clone();
+        store(copyObjectRequest.getDestinationBucketName(), copyObjectRequest.getDestinationKey(), source.content,
+            metadata);
+
+        final CopyObjectResult copyObjectResult = new CopyObjectResult();
+        copyObjectResult.setLastModifiedDate(metadata.getLastModified());
+        return copyObjectResult;
+    }
+
+    @Override
+    public void deleteObject(final String bucketName, final String key) {
+        bucket(bucketName).remove(key);
+    }
+
+    @Override
+    public DeleteObjectsResult deleteObjects(final DeleteObjectsRequest deleteObjectsRequest) {
+        final NavigableMap<String, StoredObject> bucket = bucket(deleteObjectsRequest.getBucketName());
+        deleteObjectsRequest.getKeys().forEach(keyVersion -> bucket.remove(keyVersion.getKey()));
+        return new DeleteObjectsResult(List.of());
+    }
+
+    @Override
+    public ListObjectsV2Result listObjectsV2(final ListObjectsV2Request listObjectsV2Request) {
+        final String bucketName = listObjectsV2Request.getBucketName();
+        final String prefix = listObjectsV2Request.getPrefix() == null ? "" : listObjectsV2Request.getPrefix();
+        final int maxKeys = listObjectsV2Request.getMaxKeys() == null
+            ? DEFAULT_MAX_KEYS
+            : listObjectsV2Request.getMaxKeys();
+
+        // The continuation token is the last key of the previous page
+        final NavigableMap<String, StoredObject> bucket = bucket(bucketName);
+        final NavigableMap<String, StoredObject> remaining = listObjectsV2Request.getContinuationToken() == null
+            ? bucket.tailMap(prefix, true)
+            : bucket.tailMap(listObjectsV2Request.getContinuationToken(), false);
+        final List<Map.Entry<String, StoredObject>> matching = remaining.entrySet().stream()
+            .takeWhile(entry -> entry.getKey().startsWith(prefix))
+            .limit(maxKeys + 1L)
+            .collect(Collectors.toList());
+        final List<Map.Entry<String, StoredObject>> page = matching.subList(0, Math.min(maxKeys, matching.size()));
+
+        final ListObjectsV2Result listObjectsV2Result = new ListObjectsV2Result();
+        listObjectsV2Result.setBucketName(bucketName);
+        listObjectsV2Result.setPrefix(listObjectsV2Request.getPrefix());
+        listObjectsV2Result.setMaxKeys(maxKeys);
+        listObjectsV2Result.setKeyCount(page.size());
+        page.forEach(entry -> listObjectsV2Result.getObjectSummaries().add(toSummary(bucketName, entry)));
+        listObjectsV2Result.setTruncated(matching.size() > maxKeys);
+        if (listObjectsV2Result.isTruncated()) {
+            listObjectsV2Result.setNextContinuationToken(page.get(page.size() - 1).getKey());
+        }
+        return listObjectsV2Result;
+    }
+
+    @Override
+    public URL generatePresignedUrl(final GeneratePresignedUrlRequest generatePresignedUrlRequest) {
+        try {
+            return new URL(String.format(
+                PRESIGNED_URL_FORMAT,
+                generatePresignedUrlRequest.getBucketName(),
+                generatePresignedUrlRequest.getKey()
+            ));
+        } catch (final MalformedURLException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private void store(final String bucketName, final String key, final byte[] content,
+                       final ObjectMetadata metadata) {
+        metadata.setContentLength(content.length);
+        metadata.setLastModified(new Date());
+        bucket(bucketName).put(key, new StoredObject(content, metadata));
+    }
+
+    private StoredObject get(final String bucketName, final String key) {
+        final StoredObject storedObject = bucket(bucketName).get(key);
+        if (storedObject == null) {
+            final AmazonS3Exception amazonS3Exception = new AmazonS3Exception(
+                String.format("No object with key %s in bucket %s", key, bucketName)
+            );
+            amazonS3Exception.setStatusCode(404);
+            amazonS3Exception.setErrorCode("NoSuchKey");
+            throw amazonS3Exception;
+        }
+        return storedObject;
+    }
+
+    private NavigableMap<String, StoredObject> bucket(final String bucketName) {
+        return buckets.computeIfAbsent(bucketName, key -> new ConcurrentSkipListMap<>());
+    }
+
+    private static S3ObjectSummary toSummary(final String bucketName, final Map.Entry<String, StoredObject> entry) {
+        final S3ObjectSummary s3ObjectSummary = new S3ObjectSummary();
+        s3ObjectSummary.setBucketName(bucketName);
+        s3ObjectSummary.setKey(entry.getKey());
+        s3ObjectSummary.setSize(entry.getValue().content.length);
+        s3ObjectSummary.setLastModified(entry.getValue().metadata.getLastModified());
+        return s3ObjectSummary;
+    }
+}
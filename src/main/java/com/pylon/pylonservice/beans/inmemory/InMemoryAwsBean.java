@@ -0,0 +1,52 @@
+package com.pylon.pylonservice.beans.inmemory;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.cloudwatch.AmazonCloudWatch;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.simpleemail.AmazonSimpleEmailService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Replaces the AWS clients when the inmemory profile is active, so that the service needs no AWS account, credentials
+ * or region. CloudWatch metrics are dropped, S3 objects are kept in memory and emails are logged instead of sent.
+ * DynamoDB is the one service with no in-memory stand-in; it is expected to be DynamoDB Local at dynamodb.endpoint.
+ */
+@Component
+@Profile("inmemory")
+public class InMemoryAwsBean {
+    // DynamoDB Local accepts any credentials and region
+    private static final String LOCAL_REGION = "local";
+    private static final String LOCAL_CREDENTIAL = "local";
+
+    @Bean
+    public AmazonCloudWatch amazonCloudWatch() {
+        return new NoOpAmazonCloudWatch();
+    }
+
+    @Bean
+    public AmazonS3 amazonS3() {
+        return new InMemoryAmazonS3();
+    }
+
+    @Bean
+    public AmazonSimpleEmailService amazonSimpleEmailService() {
+        return new LoggingAmazonSimpleEmailService();
+    }
+
+    @Bean
+    public AmazonDynamoDB amazonDynamoDB(@Value("${dynamodb.endpoint}") final String endpoint) {
+        return AmazonDynamoDBClientBuilder.standard()
+            .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(endpoint, LOCAL_REGION))
+            .withCredentials(
+                new AWSStaticCredentialsProvider(new BasicAWSCredentials(LOCAL_CREDENTIAL, LOCAL_CREDENTIAL))
+            )
+            .build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.pylon.pylonservice.beans.inmemory;
+
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import static com.pylon.pylonservice.constants.GraphConstants.POST_ID_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_NAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_USERNAME_PROPERTY;
+
+/**
+ * Replaces Neptune with an embedded TinkerGraph when the inmemory profile is active, so that the service can run, and
+ * be tested, without a gremlin-server. The reader and writer share the one graph, so reads see writes immediately,
+ * which Neptune's replicas don't guarantee. The graph starts empty and is lost on shutdown.
+ */
+@Component
+@Profile("inmemory")
+public class InMemoryGraphBean {
+    @Bean(destroyMethod = "close")
+    public TinkerGraph tinkerGraph() {
+        final TinkerGraph tinkerGraph = TinkerGraph.open();
+        // The unique keys every lookup starts from, which Neptune indexes by itself
+        tinkerGraph.createIndex(USER_USERNAME_PROPERTY, Vertex.class);
+        tinkerGraph.createIndex(SHARD_NAME_PROPERTY, Vertex.class);
+        tinkerGraph.createIndex(POST_ID_PROPERTY, Vertex.class);
+        return tinkerGraph;
+    }
+
+    @Bean(name = "writer")
+    public GraphTraversalSource writer(final TinkerGraph tinkerGraph) {
+        return tinkerGraph.traversal();
+    }
+
+    @Bean(name = "reader")
+    public GraphTraversalSource reader(final TinkerGraph tinkerGraph) {
+        return tinkerGraph.traversal();
+    }
+}
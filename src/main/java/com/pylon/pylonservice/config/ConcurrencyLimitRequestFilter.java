@@ -0,0 +1,173 @@
+package com.pylon.pylonservice.config;
+
+import com.pylon.pylonservice.enums.EndpointGroup;
+import com.pylon.pylonservice.services.AdaptiveConcurrencyLimit;
+import com.pylon.pylonservice.services.ConcurrencyLimitService;
+import com.pylon.pylonservice.services.MetricsService;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sheds load per {@link EndpointGroup}: a request beyond its group's adaptive concurrency limit is answered with a fast
+ * 503 and a Retry-After instead of waiting for a request thread. Requests handled asynchronously hold their group's
+ * concurrency until their response completes, not just until their request thread is released.
+ */
+@Component
+public class ConcurrencyLimitRequestFilter extends OncePerRequestFilter {
+    private static final String REJECTED_METRIC_NAME_FORMAT = "%sConcurrencyLimitRejected";
+    // Long lived, or admitted elsewhere
+    private static final List<EndpointRule> UNLIMITED_ENDPOINTS = List.of(
+        new EndpointRule(HttpMethod.GET, "/notifications/stream", null),
+        new EndpointRule(HttpMethod.POST, "/image", null)
+    );
+    // The first matching rule wins, and endpoints matching none are in EndpointGroup.DEFAULT
+    private static final List<EndpointRule> ENDPOINT_RULES = List.of(
+        new EndpointRule(HttpMethod.GET, "/myFeed", EndpointGroup.EXPENSIVE),
+        new EndpointRule(HttpMethod.GET, "/all/**", EndpointGroup.EXPENSIVE),
+        new EndpointRule(HttpMethod.GET, "/popular/**", EndpointGroup.EXPENSIVE),
+        new EndpointRule(HttpMethod.GET, "/batch/**", EndpointGroup.EXPENSIVE),
+        new EndpointRule(HttpMethod.GET, "/search/*", EndpointGroup.EXPENSIVE),
+        new EndpointRule(HttpMethod.GET, "/shard/*/posts/**", EndpointGroup.EXPENSIVE),
+        new EndpointRule(HttpMethod.GET, "/profile/*/posts/**", EndpointGroup.EXPENSIVE),
+        new EndpointRule(HttpMethod.GET, "/user/*/submitted", EndpointGroup.EXPENSIVE),
+        new EndpointRule(HttpMethod.GET, "/user/*/upvoted", EndpointGroup.EXPENSIVE),
+        new EndpointRule(HttpMethod.GET, "/health", EndpointGroup.CHEAP),
+        new EndpointRule(HttpMethod.GET, "/post/*", EndpointGroup.CHEAP),
+        new EndpointRule(HttpMethod.GET, "/search/*/typeahead", EndpointGroup.CHEAP),
+        new EndpointRule(HttpMethod.POST, "/authenticate", EndpointGroup.CHEAP),
+        new EndpointRule(HttpMethod.POST, "/refresh", EndpointGroup.CHEAP),
+        new EndpointRule(HttpMethod.POST, "/register", EndpointGroup.CHEAP),
+        new EndpointRule(HttpMethod.POST, "/logout", EndpointGroup.CHEAP)
+    );
+
+    private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+
+    @Autowired
+    private ConcurrencyLimitService concurrencyLimitService;
+    @Autowired
+    private MetricsService metricsService;
+    @Value("${concurrency.limit.enabled}")
+    private boolean isConcurrencyLimitEnabled;
+    @Value("${concurrency.limit.retry.after.seconds}")
+    private long retryAfterSeconds;
+
+    @AllArgsConstructor
+    private static class EndpointRule {
+        final HttpMethod method;
+        final String pathPattern;
+        final EndpointGroup endpointGroup;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return !isConcurrencyLimitEnabled
+            || HttpMethod.OPTIONS.matches(request.getMethod())
+            || UNLIMITED_ENDPOINTS.stream().anyMatch(endpointRule -> matches(endpointRule, request));
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+                                    final HttpServletResponse response,
+                                    final FilterChain chain) throws ServletException, IOException {
+        final EndpointGroup endpointGroup = getEndpointGroup(request);
+        final AdaptiveConcurrencyLimit limit = concurrencyLimitService.getLimit(endpointGroup);
+
+        if (!limit.tryAcquire()) {
+            metricsService.addCountMetric(String.format(REJECTED_METRIC_NAME_FORMAT, endpointGroup.getMetricName()));
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+
+        final Release release = new Release(limit, response, System.nanoTime());
+        try {
+            chain.doFilter(request, response);
+        } catch (final IOException | ServletException | RuntimeException e) {
+            release.release(true);
+            throw e;
+        }
+
+        if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(release);
+        } else {
+            release.release(false);
+        }
+    }
+
+    private EndpointGroup getEndpointGroup(final HttpServletRequest request) {
+        return ENDPOINT_RULES.stream()
+            .filter(endpointRule -> matches(endpointRule, request))
+            .map(endpointRule -> endpointRule.endpointGroup)
+            .findFirst()
+            .orElse(EndpointGroup.DEFAULT);
+    }
+
+    private boolean matches(final EndpointRule endpointRule, final HttpServletRequest request) {
+        return endpointRule.method.matches(request.getMethod())
+            && antPathMatcher.match(endpointRule.pathPattern, request.getServletPath());
+    }
+
+    /**
+     * Releases a request's concurrency exactly once, when the request is done, counting server errors and async
+     * timeouts as signs of overload.
+     */
+    private static class Release implements AsyncListener {
+        private final AdaptiveConcurrencyLimit limit;
+        private final HttpServletResponse response;
+        private final long startTime;
+        private final AtomicBoolean isReleased = new AtomicBoolean();
+
+        Release(final AdaptiveConcurrencyLimit limit, final HttpServletResponse response, final long startTime) {
+            this.limit = limit;
+            this.response = response;
+            this.startTime = startTime;
+        }
+
+        void release(final boolean didFail) {
+            if (isReleased.compareAndSet(false, true)) {
+                limit.release(
+                    System.nanoTime() - startTime,
+                    didFail || response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value()
+                );
+            }
+        }
+
+        @Override
+        public void onComplete(final AsyncEvent event) {
+            release(false);
+        }
+
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+            release(true);
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+            release(true);
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) {
+            // Stays registered for the request's next async cycle, if it has one
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.pylon.pylonservice.config;
+
+import com.pylon.pylonservice.model.tables.IdempotencyRecord;
+import com.pylon.pylonservice.services.IdempotencyService;
+import com.pylon.pylonservice.services.MetricsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Makes retried writes safe for clients which send an Idempotency-Key header. The first request with a key is
+ * executed and its successful response stored; later requests with the same key, from the same user, to the same
+ * endpoint, are answered with the stored response without being executed. A later request whose body differs from
+ * the first's is a client reusing a key for a different write, and is rejected. Bodies over 1 MB are rejected with
+ * 413 Payload Too Large rather than buffered.
+ */
+@Component
+public class IdempotencyRequestFilter extends OncePerRequestFilter {
+    public static final String IDEMPOTENCY_KEY_HEADER_NAME = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER_NAME = "Idempotent-Replayed";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+    private static final List<String> IDEMPOTENT_PATH_PATTERNS = List.of("/post/**", "/follow/**", "/shard");
+    private static final String IDEMPOTENT_REPLAY_METRIC_NAME = "IdempotentReplay";
+    private static final String IDEMPOTENT_CONFLICT_METRIC_NAME = "IdempotentConflict";
+    private static final String IDEMPOTENT_MISMATCH_METRIC_NAME = "IdempotentMismatch";
+    private static final String REQUEST_BODY_HASH_ALGORITHM = "SHA-256";
+    // Bodies are buffered whole to be hashed, and no idempotent endpoint takes anything near this size
+    private static final int MAX_REQUEST_BODY_SIZE_BYTES = 1024 * 1024;
+
+    private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+    @Autowired
+    private MetricsService metricsService;
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        if (request.getHeader(IDEMPOTENCY_KEY_HEADER_NAME) == null) {
+            return true;
+        }
+        if (!HttpMethod.POST.matches(request.getMethod()) && !HttpMethod.PUT.matches(request.getMethod())) {
+            return true;
+        }
+        return IDEMPOTENT_PATH_PATTERNS.stream()
+            .noneMatch(pattern -> antPathMatcher.match(pattern, request.getServletPath()));
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+                                    final HttpServletResponse response,
+                                    final FilterChain chain) throws ServletException, IOException {
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails)) {
+            // Left to be rejected as unauthenticated
+            chain.doFilter(request, response);
+            return;
+        }
+
+        final String idempotencyKeyHeader = request.getHeader(IDEMPOTENCY_KEY_HEADER_NAME);
+        if (idempotencyKeyHeader.isBlank() || idempotencyKeyHeader.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+
+        // Scoped so that one key cannot replay another user's response or the response of another endpoint
+        final String idempotencyKey = String.format(
+            "%s#%s#%s#%s",
+            ((UserDetails) authentication.getPrincipal()).getUsername().toLowerCase(),
+            request.getMethod(),
+            request.getServletPath(),
+            idempotencyKeyHeader
+        );
+
+        // Read up front to hash it, so the rest of the chain reads the buffered copy. Content-Length may be absent or
+        // wrong, so the read itself stops one byte past the limit too
+        if (request.getContentLengthLong() > MAX_REQUEST_BODY_SIZE_BYTES) {
+            response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            return;
+        }
+        final byte[] body = request.getInputStream().readNBytes(MAX_REQUEST_BODY_SIZE_BYTES + 1);
+        if (body.length > MAX_REQUEST_BODY_SIZE_BYTES) {
+            response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            return;
+        }
+        final CachedBodyRequestWrapper requestWrapper = new CachedBodyRequestWrapper(request, body);
+        final String requestBodyHash = hash(body);
+
+        final Optional<IdempotencyRecord> existingRecord = idempotencyService.claim(idempotencyKey, requestBodyHash);
+        if (existingRecord.isPresent()) {
+            if (!requestBodyHash.equals(existingRecord.get().getRequestBodyHash())) {
+                metricsService.addCountMetric(IDEMPOTENT_MISMATCH_METRIC_NAME);
+                response.setStatus(HttpStatus.UNPROCESSABLE_ENTITY.value());
+            } else if (existingRecord.get().isComplete()) {
+                metricsService.addCountMetric(IDEMPOTENT_REPLAY_METRIC_NAME);
+                replay(existingRecord.get(), response);
+            } else {
+                metricsService.addCountMetric(IDEMPOTENT_CONFLICT_METRIC_NAME);
+                response.setStatus(HttpStatus.CONFLICT.value());
+            }
+            return;
+        }
+
+        final ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        boolean isSuccessful = false;
+        try {
+            chain.doFilter(requestWrapper, responseWrapper);
+            isSuccessful = HttpStatus.valueOf(responseWrapper.getStatus()).is2xxSuccessful();
+        } finally {
+            // Only successes are remembered, since a failed request may well succeed when retried
+            if (isSuccessful) {
+                idempotencyService.complete(
+                    idempotencyKey,
+                    requestBodyHash,
+                    responseWrapper.getStatus(),
+                    responseWrapper.getContentType(),
+                    responseWrapper.getContentAsByteArray()
+                );
+            } else {
+                idempotencyService.release(idempotencyKey, requestBodyHash);
+            }
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    private static String hash(final byte[] body) {
+        try {
+            return Base64.getEncoder().encodeToString(
+                MessageDigest.getInstance(REQUEST_BODY_HASH_ALGORITHM).digest(body)
+            );
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void replay(final IdempotencyRecord record,
+                               final HttpServletResponse response) throws IOException {
+        response.setStatus(record.getResponseStatus());
+        response.setHeader(IDEMPOTENT_REPLAYED_HEADER_NAME, Boolean.TRUE.toString());
+        if (record.getResponseContentType() != null) {
+            response.setContentType(record.getResponseContentType());
+        }
+        if (record.getResponseBody() != null) {
+            response.setContentLength(record.getResponseBody().length);
+            response.getOutputStream().write(record.getResponseBody());
+        }
+    }
+
+    /**
+     * Serves the already read request body to whoever reads the request next.
+     */
+    private static class CachedBodyRequestWrapper extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequestWrapper(final HttpServletRequest request, final byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            final ByteArrayInputStream inputStream = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return inputStream.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(final ReadListener readListener) {
+                    // The whole body is already in memory, so it is all available at once
+                    try {
+                        readListener.onDataAvailable();
+                        readListener.onAllDataRead();
+                    } catch (final IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return inputStream.read();
+                }
+
+                @Override
+                public int read(final byte[] buffer, final int offset, final int length) {
+                    return inputStream.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            final String characterEncoding = getCharacterEncoding() == null
+                ? StandardCharsets.UTF_8.name()
+                : getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(), characterEncoding));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.pylon.pylonservice.config;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+import com.pylon.pylonservice.services.MetricsService;
+import com.pylon.pylonservice.services.UploadAdmissionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Admits image uploads before their body is read, so that a rejected upload costs neither the transfer nor the
+ * memory and disk the multipart parser would spend on it.
+ */
+@Component
+public class UploadAdmissionRequestFilter extends OncePerRequestFilter {
+    private static final String IMAGE_UPLOAD_PATH = "/image";
+    private static final String UPLOAD_ADMISSION_WAIT_METRIC_NAME = "UploadAdmissionWait";
+    private static final String UPLOAD_REJECTED_METRIC_NAME = "UploadRejected";
+    private static final String UPLOAD_IN_FLIGHT_BYTES_METRIC_NAME = "UploadInFlightBytes";
+
+    @Autowired
+    private MetricsService metricsService;
+    @Autowired
+    private UploadAdmissionService uploadAdmissionService;
+    @Value("${spring.servlet.multipart.max-request-size}")
+    private DataSize maxRequestSize;
+    @Value("${image.upload.retry.after.seconds}")
+    private long retryAfterSeconds;
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || !IMAGE_UPLOAD_PATH.equals(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request,
+                                    final HttpServletResponse response,
+                                    final FilterChain chain) throws ServletException, IOException {
+        // Chunked uploads have no declared length, so they are charged the largest size the parser would accept
+        final long contentLength = request.getContentLengthLong();
+        final long uploadSizeBytes = contentLength < 0
+            ? maxRequestSize.toBytes()
+            : Long.min(contentLength, maxRequestSize.toBytes());
+
+        final long startTime = System.nanoTime();
+        boolean isAdmitted;
+        try {
+            isAdmitted = uploadAdmissionService.tryAdmit(uploadSizeBytes);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            isAdmitted = false;
+        }
+        metricsService.addLatencyMetric(UPLOAD_ADMISSION_WAIT_METRIC_NAME, System.nanoTime() - startTime);
+
+        if (!isAdmitted) {
+            metricsService.addCountMetric(UPLOAD_REJECTED_METRIC_NAME);
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+
+        try {
+            metricsService.addGaugeMetric(
+                UPLOAD_IN_FLIGHT_BYTES_METRIC_NAME, uploadAdmissionService.getInFlightBytes(), StandardUnit.Bytes
+            );
+            chain.doFilter(request, response);
+        } finally {
+            uploadAdmissionService.release(uploadSizeBytes);
+        }
+    }
+}
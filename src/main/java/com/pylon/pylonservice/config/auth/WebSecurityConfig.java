@@ -1,5 +1,9 @@
 package com.pylon.pylonservice.config.auth;
 
+import com.pylon.pylonservice.config.ConcurrencyLimitRequestFilter;
+import com.pylon.pylonservice.config.IdempotencyRequestFilter;
+import com.pylon.pylonservice.config.UploadAdmissionRequestFilter;
+import com.pylon.pylonservice.controller.AllController;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -49,6 +53,12 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     private CSRFProtectionRequestFilter csrfProtectionRequestFilter;
     @Autowired
+    private UploadAdmissionRequestFilter uploadAdmissionRequestFilter;
+    @Autowired
+    private IdempotencyRequestFilter idempotencyRequestFilter;
+    @Autowired
+    private ConcurrencyLimitRequestFilter concurrencyLimitRequestFilter;
+    @Autowired
     private PasswordEncoder passwordEncoder;
     @Autowired
     public void configureGlobal(AuthenticationManagerBuilder auth) throws Exception {
@@ -78,8 +88,11 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
             "Authorization",
             "Cache-Control",
             "Content-Type",
+            IdempotencyRequestFilter.IDEMPOTENCY_KEY_HEADER_NAME,
             "X-Requested-With"
         ));
+        // Response headers other than the CORS-safelisted ones are hidden from scripts unless exposed
+        configuration.setExposedHeaders(Arrays.asList(AllController.NEXT_CURSOR_HEADER_NAME));
         final UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
         return source;
@@ -104,10 +117,12 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
                 ).permitAll()
                 .antMatchers(HttpMethod.GET,
                     "/all/**",
+                    "/batch/**",
                     "/health",
                     "/popular/**",
                     "/post/**",
                     "/profile/**",
+                    "/search/**",
                     "/shard/**",
                     "/user/**"
                 ).permitAll()
@@ -118,6 +133,12 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
             // Add a filter to validate the tokens with every request
             .addFilterBefore(accessTokenRequestFilter, UsernamePasswordAuthenticationFilter.class)
             .addFilterBefore(csrfProtectionRequestFilter, CsrfFilter.class)
+            // Shed load beyond each endpoint group's concurrency limit before any work is spent on the request
+            .addFilterBefore(concurrencyLimitRequestFilter, AccessTokenRequestFilter.class)
+            // Turn away uploads beyond capacity before their body is read
+            .addFilterAfter(uploadAdmissionRequestFilter, AccessTokenRequestFilter.class)
+            // Answer retried writes from their stored response, which needs the caller to already be authenticated
+            .addFilterAfter(idempotencyRequestFilter, AccessTokenRequestFilter.class)
             // A hack so that the real logout url can be /logout
             .logout().logoutUrl("/defaultLogout");
     }
@@ -71,6 +71,9 @@ public final class GraphConstants {
     public static final String POST_FILENAME_PROPERTY = "postFilename";
     public static final String POST_CONTENT_URL_PROPERTY = "postContentUrl";
     public static final  String POST_BODY_PROPERTY = "postBody";
+    public static final String POST_NUM_LIKES_PROPERTY = "postNumLikes"; // count of upvote edges, set by VoteBuffer
+    public static final String POST_IS_TOP_LEVEL_PROPERTY = "postIsTopLevel"; // false if a comment on another Post
+    public static final String POST_TOP_LEVEL_POST_ID_PROPERTY = "postTopLevelPostId"; // root of its comment tree
 
     /*
      * Miscellaneous
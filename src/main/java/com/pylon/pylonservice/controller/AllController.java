@@ -1,14 +1,14 @@
 package com.pylon.pylonservice.controller;
 
+import com.pylon.pylonservice.enums.RecentItemType;
 import com.pylon.pylonservice.model.domain.Post;
 import com.pylon.pylonservice.model.domain.Profile;
 import com.pylon.pylonservice.model.domain.Shard;
-import com.pylon.pylonservice.model.requests.GetPostsRequest;
-import com.pylon.pylonservice.pojo.PageRange;
+import com.pylon.pylonservice.pojo.RecentItemPage;
 import com.pylon.pylonservice.services.AccessTokenService;
 import com.pylon.pylonservice.services.MetricsService;
+import com.pylon.pylonservice.services.RecentItemService;
 import io.jsonwebtoken.ExpiredJwtException;
-import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -16,34 +16,42 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CookieValue;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.pylon.pylonservice.constants.AuthenticationConstants.ACCESS_TOKEN_COOKIE_NAME;
-import static com.pylon.pylonservice.constants.GraphConstants.COMMON_CREATED_AT_PROPERTY;
 import static com.pylon.pylonservice.constants.GraphConstants.INVALID_USERNAME_VALUE;
-import static com.pylon.pylonservice.constants.GraphConstants.POST_COMMENT_ON_POST_EDGE_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_ID_PROPERTY;
 import static com.pylon.pylonservice.constants.GraphConstants.POST_VERTEX_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_NAME_PROPERTY;
 import static com.pylon.pylonservice.constants.GraphConstants.SHARD_VERTEX_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_USERNAME_PROPERTY;
 import static com.pylon.pylonservice.constants.GraphConstants.USER_VERTEX_LABEL;
 import static com.pylon.pylonservice.model.domain.Post.projectToPost;
 import static com.pylon.pylonservice.model.domain.Profile.projectToProfile;
 import static com.pylon.pylonservice.model.domain.Shard.projectToShard;
-import static com.pylon.pylonservice.util.PaginationUtil.getPageRange;
-import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.has;
-import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.out;
-import static org.apache.tinkerpop.gremlin.process.traversal.Order.desc;
-import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.outE;
-
+import static org.apache.tinkerpop.gremlin.process.traversal.P.within;
+
+/**
+ * Lists every Shard, Profile or top level Post, newest first, a page at a time. Pages come from the
+ * {@link RecentItemService} index, so only the items on the page are read from the graph.
+ *
+ * Every endpoint takes an optional cursor, the X-Next-Cursor header of the previous page's response, and an optional
+ * count of items per page. The header is absent on the last page.
+ */
 @RestController
 public class AllController {
+    public static final String NEXT_CURSOR_HEADER_NAME = "X-Next-Cursor";
     private static final String GET_ALL_SHARDS_METRIC_NAME = "GetAllShards";
     private static final String GET_ALL_PROFILES_METRIC_NAME = "GetAllProfiles";
     private static final String GET_ALL_POSTS_METRIC_NAME = "GetAllPosts";
+    private static final int DEFAULT_PAGE_SIZE = 25;
+    private static final int MAX_PAGE_SIZE = 100;
 
     @Qualifier("reader")
     @Autowired
@@ -52,10 +60,25 @@ public class AllController {
     private AccessTokenService accessTokenService;
     @Autowired
     private MetricsService metricsService;
-
+    @Autowired
+    private RecentItemService recentItemService;
+
+    /**
+     * Call to retrieve a page of Shards, newest first.
+     *
+     * @param accessToken A cookie with name "accessToken"
+     * @param cursor The X-Next-Cursor header of the previous page, if any.
+     * @param count The number of Shards per page, at most 100.
+     *
+     * @return HTTP 200 OK - If the Shards were retrieved successfully. Body is an array of {@link Shard}.
+     *         HTTP 401 Unauthorized - If the accessToken is expired.
+     *         HTTP 422 Unprocessable Entity - If the cursor or count isn't valid.
+     */
     @GetMapping("/all/shards/new")
     public ResponseEntity<?> getAllShards(
-        @CookieValue(name = ACCESS_TOKEN_COOKIE_NAME, required = false) final String accessToken) {
+        @CookieValue(name = ACCESS_TOKEN_COOKIE_NAME, required = false) final String accessToken,
+        @RequestParam(name = "cursor", required = false) final String cursor,
+        @RequestParam(name = "count", required = false) final Integer count) {
         final long startTime = System.nanoTime();
         metricsService.addCountMetric(GET_ALL_SHARDS_METRIC_NAME);
 
@@ -68,25 +91,44 @@ public class AllController {
             return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
         }
 
-        final List<Shard> allShards = rG.V()
-            .hasLabel(SHARD_VERTEX_LABEL)
-            .order().by(COMMON_CREATED_AT_PROPERTY, desc)
+        final RecentItemPage recentItemPage;
+        try {
+            recentItemPage = getRecentItemPage(RecentItemType.SHARD, cursor, null, count);
+        } catch (final IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+
+        final Map<String, Shard> shards = rG
+            .V().has(SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, within(recentItemPage.getItemIds()))
             .flatMap(projectToShard(callingUsernameLowercase))
             .toList()
             .stream()
             .map(Shard::new)
-            .collect(Collectors.toList());
+            .collect(Collectors.toMap(Shard::getShardName, Function.identity(), (a, b) -> a));
 
-        final ResponseEntity<?> responseEntity = ResponseEntity.ok().body(allShards);
+        final ResponseEntity<?> responseEntity = toPageResponse(recentItemPage, shards);
 
         metricsService.addSuccessMetric(GET_ALL_SHARDS_METRIC_NAME);
         metricsService.addLatencyMetric(GET_ALL_SHARDS_METRIC_NAME, System.nanoTime() - startTime);
         return responseEntity;
     }
 
+    /**
+     * Call to retrieve a page of Users' public profile data, newest first.
+     *
+     * @param accessToken A cookie with name "accessToken"
+     * @param cursor The X-Next-Cursor header of the previous page, if any.
+     * @param count The number of Profiles per page, at most 100.
+     *
+     * @return HTTP 200 OK - If the Profiles were retrieved successfully. Body is an array of {@link Profile}.
+     *         HTTP 401 Unauthorized - If the accessToken is expired.
+     *         HTTP 422 Unprocessable Entity - If the cursor or count isn't valid.
+     */
     @GetMapping("/all/profiles/new")
     public ResponseEntity<?> getAllProfiles(
-        @CookieValue(name = ACCESS_TOKEN_COOKIE_NAME, required = false) final String accessToken) {
+        @CookieValue(name = ACCESS_TOKEN_COOKIE_NAME, required = false) final String accessToken,
+        @RequestParam(name = "cursor", required = false) final String cursor,
+        @RequestParam(name = "count", required = false) final Integer count) {
         final long startTime = System.nanoTime();
         metricsService.addCountMetric(GET_ALL_PROFILES_METRIC_NAME);
 
@@ -99,41 +141,50 @@ public class AllController {
             return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
         }
 
-        final List<Profile> allProfiles = rG.V()
-            .hasLabel(USER_VERTEX_LABEL)
-            .order().by(COMMON_CREATED_AT_PROPERTY, desc)
+        final RecentItemPage recentItemPage;
+        try {
+            recentItemPage = getRecentItemPage(RecentItemType.PROFILE, cursor, null, count);
+        } catch (final IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+
+        final Map<String, Profile> profiles = rG
+            .V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, within(recentItemPage.getItemIds()))
             .flatMap(projectToProfile(callingUsernameLowercase))
             .toList()
             .stream()
             .map(Profile::new)
-            .collect(Collectors.toList());
+            .collect(Collectors.toMap(Profile::getUsername, Function.identity(), (a, b) -> a));
 
-        final ResponseEntity<?> responseEntity = ResponseEntity.ok().body(allProfiles);
+        final ResponseEntity<?> responseEntity = toPageResponse(recentItemPage, profiles);
 
         metricsService.addSuccessMetric(GET_ALL_PROFILES_METRIC_NAME);
         metricsService.addLatencyMetric(GET_ALL_PROFILES_METRIC_NAME, System.nanoTime() - startTime);
         return responseEntity;
     }
 
+    /**
+     * Call to retrieve a page of top level Posts, newest first.
+     *
+     * @param accessToken A cookie with name "accessToken"
+     * @param cursor The X-Next-Cursor header of the previous page, if any.
+     * @param firstPostToReturn How many Posts to skip, at most 1000 and only without a cursor. Kept for clients paging
+     *                          by offset; prefer the cursor, which doesn't shift as Posts are created.
+     * @param count The number of Posts per page, at most 100.
+     *
+     * @return HTTP 200 OK - If the Posts were retrieved successfully. Body is an array of {@link Post}.
+     *         HTTP 401 Unauthorized - If the accessToken is expired.
+     *         HTTP 422 Unprocessable Entity - If the cursor, first or count isn't valid.
+     */
     @GetMapping("/all/posts/new")
     public ResponseEntity<?> getAllPosts(
         @CookieValue(name = ACCESS_TOKEN_COOKIE_NAME, required = false) final String accessToken,
+        @RequestParam(name = "cursor", required = false) final String cursor,
         @RequestParam(name = "first", required = false) final Integer firstPostToReturn,
-        @RequestParam(name = "count", required = false) final Integer countPostsToReturn) {
+        @RequestParam(name = "count", required = false) final Integer count) {
         final long startTime = System.nanoTime();
         metricsService.addCountMetric(GET_ALL_POSTS_METRIC_NAME);
 
-        final GetPostsRequest getPostsRequest;
-        if (firstPostToReturn == null || countPostsToReturn == null) {
-            getPostsRequest = null;
-        } else {
-            getPostsRequest = new GetPostsRequest(firstPostToReturn, countPostsToReturn);
-        }
-
-        if (getPostsRequest != null && !getPostsRequest.isValid()) {
-            return new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY);
-        }
-
         final String callingUsernameLowercase;
         try {
             callingUsernameLowercase = accessTokenService.getUsernameFromAccessTokenOrDefaultIfNull(
@@ -143,22 +194,56 @@ public class AllController {
             return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
         }
 
-        final PageRange pageRange = getPageRange(getPostsRequest);
-        final List<Post> posts = rG.V()
-            .hasLabel(POST_VERTEX_LABEL)
-            .filter(outE(POST_COMMENT_ON_POST_EDGE_LABEL).count().is(0))
-            .order().by(COMMON_CREATED_AT_PROPERTY, desc)
-            .range(pageRange.getLow(), pageRange.getHigh())
+        final RecentItemPage recentItemPage;
+        try {
+            recentItemPage = getRecentItemPage(RecentItemType.POST, cursor, firstPostToReturn, count);
+        } catch (final IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+
+        final Map<String, Post> posts = rG
+            .V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, within(recentItemPage.getItemIds()))
             .flatMap(projectToPost(callingUsernameLowercase))
             .toList()
             .stream()
             .map(Post::new)
-            .collect(Collectors.toList());
+            .collect(Collectors.toMap(Post::getPostId, Function.identity(), (a, b) -> a));
 
-        final ResponseEntity<?> responseEntity = ResponseEntity.ok().body(posts);
+        final ResponseEntity<?> responseEntity = toPageResponse(recentItemPage, posts);
 
         metricsService.addSuccessMetric(GET_ALL_POSTS_METRIC_NAME);
         metricsService.addLatencyMetric(GET_ALL_POSTS_METRIC_NAME, System.nanoTime() - startTime);
         return responseEntity;
     }
+
+    /**
+     * @throws IllegalArgumentException If the cursor, numToSkip or count isn't valid.
+     */
+    private RecentItemPage getRecentItemPage(final RecentItemType itemType, final String cursor,
+                                             final Integer numToSkip, final Integer count) {
+        final int pageSize = count == null ? DEFAULT_PAGE_SIZE : count;
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE || (numToSkip != null && numToSkip < 0)) {
+            throw new IllegalArgumentException(
+                String.format("Invalid page of %s items after %s", pageSize, numToSkip)
+            );
+        }
+        return recentItemService.getPage(itemType, cursor, numToSkip == null ? 0 : numToSkip, pageSize);
+    }
+
+    /**
+     * @return The items in the page's order, leaving out any which are indexed but no longer in the graph.
+     */
+    private static <T> ResponseEntity<?> toPageResponse(final RecentItemPage recentItemPage,
+                                                        final Map<String, T> itemsById) {
+        final List<T> items = recentItemPage.getItemIds().stream()
+            .filter(itemsById::containsKey)
+            .map(itemsById::get)
+            .collect(Collectors.toList());
+
+        final ResponseEntity.BodyBuilder bodyBuilder = ResponseEntity.ok();
+        if (recentItemPage.getNextCursor() != null) {
+            bodyBuilder.header(NEXT_CURSOR_HEADER_NAME, recentItemPage.getNextCursor());
+        }
+        return bodyBuilder.body(items);
+    }
 }
@@ -0,0 +1,233 @@
+package com.pylon.pylonservice.controller;
+
+import com.pylon.pylonservice.model.domain.Post;
+import com.pylon.pylonservice.model.domain.Profile;
+import com.pylon.pylonservice.model.domain.Shard;
+import com.pylon.pylonservice.services.AccessTokenService;
+import com.pylon.pylonservice.services.MetricsService;
+import com.pylon.pylonservice.services.VoteBuffer;
+import io.jsonwebtoken.ExpiredJwtException;
+import lombok.extern.log4j.Log4j2;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CookieValue;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.pylon.pylonservice.constants.AuthenticationConstants.ACCESS_TOKEN_COOKIE_NAME;
+import static com.pylon.pylonservice.constants.GraphConstants.INVALID_USERNAME_VALUE;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_ID_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_VERTEX_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_NAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_VERTEX_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_USERNAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_VERTEX_LABEL;
+import static com.pylon.pylonservice.model.domain.Post.projectToPost;
+import static com.pylon.pylonservice.model.domain.Profile.projectToProfile;
+import static com.pylon.pylonservice.model.domain.Shard.projectToShard;
+import static org.apache.tinkerpop.gremlin.process.traversal.P.within;
+
+/**
+ * Lookups of many Shards, Profiles or Posts at once, so that clients rendering a list can fetch every item in a single
+ * round-trip instead of calling /shard/{shardName}, /profile/{username} or /post/{postId} once per item. Each lookup
+ * is resolved with one traversal.
+ */
+@Log4j2
+@RestController
+public class BatchController {
+    private static final String BATCH_GET_SHARDS_METRIC_NAME = "BatchGetShards";
+    private static final String BATCH_GET_PROFILES_METRIC_NAME = "BatchGetProfiles";
+    private static final String BATCH_GET_POSTS_METRIC_NAME = "BatchGetPosts";
+
+    static final int MAX_BATCH_SIZE = 100;
+
+    @Qualifier("reader")
+    @Autowired
+    private GraphTraversalSource rG;
+    @Autowired
+    private AccessTokenService accessTokenService;
+    @Autowired
+    private MetricsService metricsService;
+    @Autowired
+    private VoteBuffer voteBuffer;
+
+    /**
+     * Call to retrieve several Shards at once.
+     *
+     * @param accessToken A cookie with name "accessToken"
+     * @param shardNames A comma separated list of at most 100 shardNames.
+     *
+     * @return HTTP 200 OK - If the Shards were retrieved successfully. Body is a map of shardName to
+     *                       {@link com.pylon.pylonservice.model.domain.Shard Shard}. shardNames which don't exist are
+     *                       omitted from the map.
+     *         HTTP 400 Bad Request - If more than 100 shardNames were requested.
+     *         HTTP 401 Unauthorized - If the accessToken is expired.
+     */
+    @GetMapping(value = "/batch/shards")
+    public ResponseEntity<?> getShards(
+        @CookieValue(name = ACCESS_TOKEN_COOKIE_NAME, required = false) final String accessToken,
+        @RequestParam final List<String> shardNames) {
+        final long startTime = System.nanoTime();
+        metricsService.addCountMetric(BATCH_GET_SHARDS_METRIC_NAME);
+
+        final Set<String> shardNamesLowercase = toLowercaseSet(shardNames);
+        if (shardNamesLowercase.size() > MAX_BATCH_SIZE) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        final String callingUsernameLowercase;
+        try {
+            callingUsernameLowercase = accessTokenService.getUsernameFromAccessTokenOrDefaultIfNull(
+                accessToken, INVALID_USERNAME_VALUE
+            );
+        } catch (final ExpiredJwtException e) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+
+        final Map<String, Shard> shards = inRequestedOrder(
+            shardNamesLowercase,
+            rG
+                .V().has(SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, within(shardNamesLowercase))
+                .flatMap(projectToShard(callingUsernameLowercase))
+                .toList()
+                .stream()
+                .map(Shard::new)
+                .collect(Collectors.toMap(Shard::getShardName, Function.identity(), (a, b) -> a))
+        );
+
+        final ResponseEntity<?> responseEntity = ResponseEntity.ok().body(shards);
+
+        metricsService.addSuccessMetric(BATCH_GET_SHARDS_METRIC_NAME);
+        metricsService.addLatencyMetric(BATCH_GET_SHARDS_METRIC_NAME, System.nanoTime() - startTime);
+        return responseEntity;
+    }
+
+    /**
+     * Call to retrieve several Users' public profile data at once.
+     *
+     * @param accessToken A cookie with name "accessToken"
+     * @param usernames A comma separated list of at most 100 usernames.
+     *
+     * @return HTTP 200 OK - If the profiles were retrieved successfully. Body is a map of username to
+     *                       {@link com.pylon.pylonservice.model.domain.Profile Profile}. usernames which don't exist
+     *                       are omitted from the map.
+     *         HTTP 400 Bad Request - If more than 100 usernames were requested.
+     *         HTTP 401 Unauthorized - If the accessToken is expired.
+     */
+    @GetMapping(value = "/batch/profiles")
+    public ResponseEntity<?> getProfiles(
+        @CookieValue(name = ACCESS_TOKEN_COOKIE_NAME, required = false) final String accessToken,
+        @RequestParam final List<String> usernames) {
+        final long startTime = System.nanoTime();
+        metricsService.addCountMetric(BATCH_GET_PROFILES_METRIC_NAME);
+
+        final Set<String> usernamesLowercase = toLowercaseSet(usernames);
+        if (usernamesLowercase.size() > MAX_BATCH_SIZE) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        final String callingUsernameLowercase;
+        try {
+            callingUsernameLowercase = accessTokenService.getUsernameFromAccessTokenOrDefaultIfNull(
+                accessToken, INVALID_USERNAME_VALUE
+            );
+        } catch (final ExpiredJwtException e) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+
+        final Map<String, Profile> profiles = inRequestedOrder(
+            usernamesLowercase,
+            rG
+                .V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, within(usernamesLowercase))
+                .flatMap(projectToProfile(callingUsernameLowercase))
+                .toList()
+                .stream()
+                .map(Profile::new)
+                .collect(Collectors.toMap(Profile::getUsername, Function.identity(), (a, b) -> a))
+        );
+
+        final ResponseEntity<?> responseEntity = ResponseEntity.ok().body(profiles);
+
+        metricsService.addSuccessMetric(BATCH_GET_PROFILES_METRIC_NAME);
+        metricsService.addLatencyMetric(BATCH_GET_PROFILES_METRIC_NAME, System.nanoTime() - startTime);
+        return responseEntity;
+    }
+
+    /**
+     * Call to retrieve several Posts at once. Comments on the Posts are not included.
+     *
+     * @param accessToken A cookie with name "accessToken"
+     * @param postIds A comma separated list of at most 100 postIds.
+     *
+     * @return HTTP 200 OK - If the Posts were retrieved successfully. Body is a map of postId to
+     *                       {@link com.pylon.pylonservice.model.domain.Post Post}. postIds which don't exist are
+     *                       omitted from the map.
+     *         HTTP 400 Bad Request - If more than 100 postIds were requested.
+     *         HTTP 401 Unauthorized - If the accessToken is expired.
+     */
+    @GetMapping(value = "/batch/posts")
+    public ResponseEntity<?> getPosts(
+        @CookieValue(name = ACCESS_TOKEN_COOKIE_NAME, required = false) final String accessToken,
+        @RequestParam final List<String> postIds) {
+        final long startTime = System.nanoTime();
+        metricsService.addCountMetric(BATCH_GET_POSTS_METRIC_NAME);
+
+        final Set<String> uniquePostIds = new LinkedHashSet<>(postIds);
+        if (uniquePostIds.size() > MAX_BATCH_SIZE) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        final String callingUsernameLowercase;
+        try {
+            callingUsernameLowercase = accessTokenService.getUsernameFromAccessTokenOrDefaultIfNull(
+                accessToken, INVALID_USERNAME_VALUE
+            );
+        } catch (final ExpiredJwtException e) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+
+        final Map<String, Post> posts = inRequestedOrder(
+            uniquePostIds,
+            rG
+                .V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, within(uniquePostIds))
+                .flatMap(projectToPost(callingUsernameLowercase))
+                .toList()
+                .stream()
+                .map(Post::new)
+                .collect(Collectors.toMap(Post::getPostId, Function.identity(), (a, b) -> a))
+        );
+        posts.values().forEach(post -> voteBuffer.applyPendingVotes(post, callingUsernameLowercase));
+
+        final ResponseEntity<?> responseEntity = ResponseEntity.ok().body(posts);
+
+        metricsService.addSuccessMetric(BATCH_GET_POSTS_METRIC_NAME);
+        metricsService.addLatencyMetric(BATCH_GET_POSTS_METRIC_NAME, System.nanoTime() - startTime);
+        return responseEntity;
+    }
+
+    private static Set<String> toLowercaseSet(final List<String> values) {
+        return values.stream()
+            .map(String::toLowerCase)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private static <T> Map<String, T> inRequestedOrder(final Set<String> requestedKeys, final Map<String, T> found) {
+        final Map<String, T> ordered = new LinkedHashMap<>();
+        requestedKeys.stream()
+            .filter(found::containsKey)
+            .forEach(key -> ordered.put(key, found.get(key)));
+        return ordered;
+    }
+}
@@ -3,8 +3,12 @@ package com.pylon.pylonservice.controller;
 import com.pylon.pylonservice.model.domain.Post;
 import com.pylon.pylonservice.model.requests.GetPostsRequest;
 import com.pylon.pylonservice.services.AccessTokenService;
+import com.pylon.pylonservice.services.AsyncTraversalService;
 import com.pylon.pylonservice.services.MetricsService;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
@@ -18,6 +22,7 @@ import org.springframework.web.bind.annotation.RestController;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static com.pylon.pylonservice.constants.AuthenticationConstants.ACCESS_TOKEN_COOKIE_NAME;
@@ -44,6 +49,8 @@ public class FeedController {
     private AccessTokenService accessTokenService;
     @Autowired
     private MetricsService metricsService;
+    @Autowired
+    private AsyncTraversalService asyncTraversalService;
 
     /**
      * Call to retrieve a User's personalized feed.
@@ -52,9 +59,10 @@ public class FeedController {
      *
      * @return HTTP 200 OK - If the Shard was retrieved successfully.
      *         HTTP 401 Unauthorized - If the User isn't authenticated.
+     *         HTTP 503 Service Unavailable - If async request execution is enabled and its executor is full.
      */
     @GetMapping(value = "/myFeed")
-    public ResponseEntity<?> getMyFeed(
+    public CompletableFuture<ResponseEntity<?>> getMyFeed(
         @CookieValue(name = ACCESS_TOKEN_COOKIE_NAME) final String accessToken,
         @RequestParam(name = "first", required = false) final Integer firstPostToReturn,
         @RequestParam(name = "count", required = false) final Integer countPostsToReturn) {
@@ -69,30 +77,37 @@ public class FeedController {
         }
 
         if (getPostsRequest != null && !getPostsRequest.isValid()) {
-            return new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY));
         }
 
         final String username = accessTokenService.getUsernameFromAccessToken(accessToken);
 
-        final Date now = new Date();
-        final List<Post> posts = rG
+        return asyncTraversalService
+            .submit(getAllPostsInFeed(username).flatMap(projectToPost(username)), Traversal::toList)
+            .<ResponseEntity<?>>thenApply(graphPosts -> {
+                final Date now = new Date();
+                final List<Post> posts = graphPosts.stream()
+                    .map(Post::new)
+                    .sorted(Comparator.comparing((Post post) -> post.getPopularity(now)).reversed())
+                    .collect(Collectors.toList());
+
+                final ResponseEntity<?> responseEntity =
+                    ResponseEntity.ok().body(paginatePosts(posts, getPostsRequest));
+
+                metricsService.addSuccessMetric(GET_MY_FEED_METRIC_NAME);
+                metricsService.addLatencyMetric(GET_MY_FEED_METRIC_NAME, System.nanoTime() - startTime);
+                return responseEntity;
+            })
+            .exceptionally(AsyncTraversalService::serviceUnavailableIfRejected);
+    }
+
+    GraphTraversal<Vertex, Vertex> getAllPostsInFeed(final String username) {
+        return rG
             .V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, username)
             .out(USER_FOLLOWS_USER_EDGE_LABEL, USER_FOLLOWS_SHARD_EDGE_LABEL)
             .emit()
             .repeat(out(SHARD_INHERITS_USER_EDGE_LABEL, SHARD_INHERITS_SHARD_EDGE_LABEL).simplePath())
             .in(POST_POSTED_IN_USER_EDGE_LABEL, POST_POSTED_IN_SHARD_EDGE_LABEL)
-            .dedup()
-            .flatMap(projectToPost(username))
-            .toList()
-            .stream()
-            .map(Post::new)
-            .sorted(Comparator.comparing((Post post) -> post.getPopularity(now)).reversed())
-            .collect(Collectors.toList());
-
-        final ResponseEntity<?> responseEntity = ResponseEntity.ok().body(paginatePosts(posts, getPostsRequest));
-
-        metricsService.addSuccessMetric(GET_MY_FEED_METRIC_NAME);
-        metricsService.addLatencyMetric(GET_MY_FEED_METRIC_NAME, System.nanoTime() - startTime);
-        return responseEntity;
+            .dedup();
     }
 }
@@ -6,8 +6,10 @@ import com.pylon.pylonservice.services.MetricsService;
 import com.pylon.pylonservice.services.NotificationService;
 import lombok.extern.log4j.Log4j2;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.T;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CookieValue;
@@ -25,10 +27,10 @@ import static com.pylon.pylonservice.constants.GraphConstants.USER_FOLLOWS_SHARD
 import static com.pylon.pylonservice.constants.GraphConstants.USER_FOLLOWS_USER_EDGE_LABEL;
 import static com.pylon.pylonservice.constants.GraphConstants.USER_USERNAME_PROPERTY;
 import static com.pylon.pylonservice.constants.GraphConstants.USER_VERTEX_LABEL;
+import static com.pylon.pylonservice.util.EdgeIdUtil.getEdgeId;
+import static com.pylon.pylonservice.util.EdgeIdUtil.getLegacyEdges;
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.V;
-import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.addE;
-import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.inV;
-import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.outE;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.unfold;
 
 @Log4j2
 @RestController
@@ -50,6 +52,8 @@ public class FollowController {
     private MetricsService metricsService;
     @Autowired
     private NotificationService notificationService;
+    @Value("${graph.edge.id.legacy.lookup.enabled}")
+    private boolean isLegacyEdgeLookupEnabled;
 
     /**
      * Call to add a follow relationship from the calling User to the User with username {usernameToFollow}.
@@ -78,17 +82,24 @@ public class FollowController {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
 
-        wG
-            .V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, followerUsername)
-            .coalesce(
-                outE(USER_FOLLOWS_USER_EDGE_LABEL).filter(
-                    inV().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, usernameToFollowLowercase)
-                ),
-                addE(USER_FOLLOWS_USER_EDGE_LABEL).to(
-                    V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, usernameToFollowLowercase)
+        final String edgeId = getEdgeId(USER_FOLLOWS_USER_EDGE_LABEL, followerUsername, usernameToFollowLowercase);
+        // Until the EdgeIdBackfillRunner has run, a follow may only exist as an edge without its id
+        final boolean isFollowedByLegacyEdge = isLegacyEdgeLookupEnabled && getLegacyEdges(
+            wG, USER_FOLLOWS_USER_EDGE_LABEL, followerUsername,
+            USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, usernameToFollowLowercase
+        ).hasNext();
+        if (!isFollowedByLegacyEdge) {
+            wG
+                .E(edgeId).fold()
+                .coalesce(
+                    unfold(),
+                    V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, followerUsername)
+                        .addE(USER_FOLLOWS_USER_EDGE_LABEL)
+                        .to(V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, usernameToFollowLowercase))
+                        .property(T.id, edgeId)
                 )
-            )
-            .iterate();
+                .iterate();
+        }
 
         try {
             sendProfileFollowNotification(usernameToFollow, followerUsername);
@@ -129,17 +140,23 @@ public class FollowController {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
 
-        wG
-            .V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, followerUsername)
-            .coalesce(
-                outE(USER_FOLLOWS_SHARD_EDGE_LABEL).filter(
-                    inV().has(SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, shardNameToFollowLowercase)
-                ),
-                addE(USER_FOLLOWS_SHARD_EDGE_LABEL).to(
-                    V().has(SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, shardNameToFollowLowercase)
+        final String edgeId = getEdgeId(USER_FOLLOWS_SHARD_EDGE_LABEL, followerUsername, shardNameToFollowLowercase);
+        final boolean isFollowedByLegacyEdge = isLegacyEdgeLookupEnabled && getLegacyEdges(
+            wG, USER_FOLLOWS_SHARD_EDGE_LABEL, followerUsername,
+            SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, shardNameToFollowLowercase
+        ).hasNext();
+        if (!isFollowedByLegacyEdge) {
+            wG
+                .E(edgeId).fold()
+                .coalesce(
+                    unfold(),
+                    V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, followerUsername)
+                        .addE(USER_FOLLOWS_SHARD_EDGE_LABEL)
+                        .to(V().has(SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, shardNameToFollowLowercase))
+                        .property(T.id, edgeId)
                 )
-            )
-            .iterate();
+                .iterate();
+        }
 
         final ResponseEntity<?> responseEntity = new ResponseEntity<>(HttpStatus.OK);
 
@@ -171,12 +188,13 @@ public class FollowController {
         }
 
         wG
-            .V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, followerUsername)
-            .outE(USER_FOLLOWS_USER_EDGE_LABEL).where(
-                inV().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, usernameToUnfollowLowercase)
-            )
+            .E(getEdgeId(USER_FOLLOWS_USER_EDGE_LABEL, followerUsername, usernameToUnfollowLowercase))
             .drop()
             .iterate();
+        if (isLegacyEdgeLookupEnabled) {
+            getLegacyEdges(wG, USER_FOLLOWS_USER_EDGE_LABEL, followerUsername,
+                USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, usernameToUnfollowLowercase).drop().iterate();
+        }
 
         final ResponseEntity<?> responseEntity = new ResponseEntity<>(HttpStatus.OK);
 
@@ -208,12 +226,13 @@ public class FollowController {
         }
 
         wG
-            .V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, followerUsername)
-            .outE(USER_FOLLOWS_SHARD_EDGE_LABEL).where(
-                inV().has(SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, shardNameToUnfollowLowercase)
-            )
+            .E(getEdgeId(USER_FOLLOWS_SHARD_EDGE_LABEL, followerUsername, shardNameToUnfollowLowercase))
             .drop()
             .iterate();
+        if (isLegacyEdgeLookupEnabled) {
+            getLegacyEdges(wG, USER_FOLLOWS_SHARD_EDGE_LABEL, followerUsername,
+                SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, shardNameToUnfollowLowercase).drop().iterate();
+        }
 
         final ResponseEntity<?> responseEntity = new ResponseEntity<>(HttpStatus.OK);
 
@@ -1,11 +1,25 @@
 package com.pylon.pylonservice.controller;
 
+import com.amazonaws.HttpMethod;
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.CannedAccessControlList;
+import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.util.IOUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pylon.pylonservice.model.requests.image.ConfirmImageUploadRequest;
+import com.pylon.pylonservice.model.requests.image.CreateImageUploadRequest;
 import com.pylon.pylonservice.model.responses.ImageUploadResponse;
+import com.pylon.pylonservice.model.responses.ImageUploadUrlResponse;
 import com.pylon.pylonservice.services.AccessTokenService;
+import com.pylon.pylonservice.services.ImageProcessingService;
 import com.pylon.pylonservice.services.MetricsService;
 import lombok.extern.log4j.Log4j2;
 import org.apache.tika.Tika;
@@ -15,15 +29,23 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.CookieValue;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
-import java.io.FileOutputStream;
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Date;
 import java.util.Map;
 import java.util.UUID;
 
@@ -37,6 +59,17 @@ import static org.apache.tinkerpop.gremlin.structure.VertexProperty.Cardinality.
 @RestController
 public class ImageController {
     private static final String IMAGE_METRIC_NAME = "Image";
+    private static final String CREATE_IMAGE_UPLOAD_METRIC_NAME = "CreateImageUpload";
+    private static final String CONFIRM_IMAGE_UPLOAD_METRIC_NAME = "ConfirmImageUpload";
+    private static final int SNIFF_BUFFER_SIZE_BYTES = 64 * 1024;
+    private static final String CACHE_CONTROL = "max-age=31536000";
+    private static final String CONTENT_HASH_ALGORITHM = "SHA-256";
+    // Kept well below the orphaned image grace period so that entries rarely outlive a collected object. Uploads
+    // still fall back to storing the image again when one does.
+    private static final Duration STORED_IMAGE_INDEX_TTL = Duration.ofHours(1);
+    private static final long STORED_IMAGE_INDEX_MAX_SIZE = 100_000;
+    // Signed into the presigned URL, so that only the user who requested it can confirm the upload
+    private static final String UPLOADER_USER_METADATA_KEY = "uploader";
     private static final Map<String, String> MIME_TYPE_TO_FILE_EXTENSION_MAPPING = Map.of(
         "image/png", "png",
         "image/jpeg", "jpg",
@@ -51,15 +84,27 @@ public class ImageController {
     @Autowired
     private GraphTraversalSource wG;
     @Autowired
+    private ImageProcessingService imageProcessingService;
+    @Autowired
     private MetricsService metricsService;
     @Autowired
     private Tika tika;
 
+    private final Cache<String, Boolean> storedImageFilenames = Caffeine.newBuilder()
+        .expireAfterWrite(STORED_IMAGE_INDEX_TTL)
+        .maximumSize(STORED_IMAGE_INDEX_MAX_SIZE)
+        .build();
     private final String imageBucketName;
+    private final Duration uploadUrlExpiration;
+    private final DataSize maxImageSize;
 
     ImageController(@Value("${environment.name}") final String environmentName,
-                    @Value("${image.bucket.name}") final String imageBucketName) {
+                    @Value("${image.bucket.name}") final String imageBucketName,
+                    @Value("${image.upload.url.expiration.minutes}") final long uploadUrlExpirationMinutes,
+                    @Value("${spring.servlet.multipart.max-file-size}") final DataSize maxImageSize) {
         this.imageBucketName = String.format("%s-%s", environmentName, imageBucketName);
+        this.uploadUrlExpiration = Duration.ofMinutes(uploadUrlExpirationMinutes);
+        this.maxImageSize = maxImageSize;
     }
 
     /**
@@ -69,8 +114,17 @@ public class ImageController {
      *
      * @return HTTP 201 Created - If the image was uploaded successfully. Returns a response with body like
      *                            {
-     *                                "filename": "a88fed16-330a-4b64-a704-eb9c81e33e10.png"
+     *                                "filename": "a88fed16-330a-4b64-a704-eb9c81e33e10.png",
+     *                                "variantFilenames": [
+     *                                    "a88fed16-330a-4b64-a704-eb9c81e33e10_128.png",
+     *                                    "a88fed16-330a-4b64-a704-eb9c81e33e10_256.png",
+     *                                    "a88fed16-330a-4b64-a704-eb9c81e33e10_512.png",
+     *                                    "a88fed16-330a-4b64-a704-eb9c81e33e10_1024.png"
+     *                                ]
      *                            }
+     *                            Variants are generated asynchronously and may not exist for a few seconds. Gifs
+     *                            have no variants. The filename is derived from the content, so uploading an
+     *                            identical image returns the existing filename without storing it again.
      *         HTTP 422 Unprocessable Entity - If the submitted file is not of supported type.
      */
     @PostMapping(value = "/image")
@@ -90,32 +144,67 @@ public class ImageController {
             return new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY);
         }
 
-        final String tikaDetectedFileExtension;
+        final MessageDigest messageDigest;
         try {
-            tikaDetectedFileExtension = MIME_TYPE_TO_FILE_EXTENSION_MAPPING.get(tika.detect(multipartFile.getBytes()));
+            messageDigest = MessageDigest.getInstance(CONTENT_HASH_ALGORITHM);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        // The first pass sniffs the type and hashes the content. The digest sits below the buffer, so the prefix
+        // Tika reads and resets is only hashed once.
+        final String tikaDetectedMimeType;
+        try (final InputStream inputStream = new BufferedInputStream(
+            new DigestInputStream(multipartFile.getInputStream(), messageDigest), SNIFF_BUFFER_SIZE_BYTES)) {
+            tikaDetectedMimeType = tika.detect(inputStream);
+            inputStream.transferTo(OutputStream.nullOutputStream());
         } catch (final IOException e) {
             return new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY);
         }
 
-        if (!fileExtension.equals(tikaDetectedFileExtension)) {
+        if (!fileExtension.equals(MIME_TYPE_TO_FILE_EXTENSION_MAPPING.get(tikaDetectedMimeType))) {
             return new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY);
         }
 
-        final String filename = String.format("%s.%s", UUID.randomUUID().toString(), fileExtension);
-        final File file = new File(filename);
+        // Identical content maps to the same key. A name based UUID keeps keys matching the filename format that
+        // every other request validates against.
+        final String filename = String.format(
+            "%s.%s", UUID.nameUUIDFromBytes(messageDigest.digest()).toString(), fileExtension
+        );
+
+        boolean isNewImage = !isImageStored(filename);
+        boolean areVariantsStored = true;
         try {
-            final FileOutputStream fos = new FileOutputStream(file);
-            fos.write(multipartFile.getBytes());
-            fos.close();
-
-            final ObjectMetadata objectMetadata = new ObjectMetadata();
-            objectMetadata.setCacheControl("max-age=31536000");
-            amazonS3.putObject(
-                new PutObjectRequest(imageBucketName, filename, file)
-                    .withCannedAcl(CannedAccessControlList.PublicRead)
-                    .withMetadata(objectMetadata)
-            );
+            if (!isNewImage) {
+                // Restart the orphaned image grace period, since the new uploader may not have referenced it yet
+                try {
+                    touchImage(filename, tikaDetectedMimeType);
+                } catch (final AmazonS3Exception e) {
+                    if (e.getStatusCode() != HttpStatus.NOT_FOUND.value()) {
+                        throw e;
+                    }
+                    // Collected since this node cached it as stored
+                    storedImageFilenames.invalidate(filename);
+                    isNewImage = true;
+                }
+            }
 
+            if (isNewImage) {
+                // The second pass streams the content to S3
+                try (final InputStream inputStream = multipartFile.getInputStream()) {
+                    final ObjectMetadata objectMetadata = createPublicImageMetadata(tikaDetectedMimeType);
+                    objectMetadata.setContentLength(multipartFile.getSize());
+                    amazonS3.putObject(
+                        new PutObjectRequest(imageBucketName, filename, inputStream, objectMetadata)
+                            .withCannedAcl(CannedAccessControlList.PublicRead)
+                    );
+                }
+                storedImageFilenames.put(filename, true);
+            } else {
+                areVariantsStored = touchVariants(filename, tikaDetectedMimeType);
+            }
+
+            // Each user holds their own reference to the shared object
             wG.V()
                 .has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, username)
                 .property(set, USER_UPLOADED_IMAGES_PROPERTY, filename)
@@ -123,13 +212,16 @@ public class ImageController {
         } catch (final Exception e) {
             log.error(e);
             throw new RuntimeException(e);
-        } finally {
-            file.delete();
+        }
+
+        if (isNewImage || !areVariantsStored) {
+            imageProcessingService.generateVariantsAsync(filename);
         }
 
         final ResponseEntity<?> responseEntity = new ResponseEntity<>(
             ImageUploadResponse.builder()
                 .filename(filename)
+                .variantFilenames(ImageProcessingService.getVariantFilenames(filename))
                 .build(),
             HttpStatus.CREATED
         );
@@ -138,4 +230,215 @@ public class ImageController {
         metricsService.addLatencyMetric(IMAGE_METRIC_NAME, System.nanoTime() - startTime);
         return responseEntity;
     }
+
+    /**
+     * Call to start a direct upload of an image to S3, so that the image bytes never pass through this service. The
+     * client PUTs the image to the returned uploadUrl, sending every header in uploadHeaders, before expiresAt. It
+     * then calls /image/upload/confirm with the returned filename.
+     *
+     * @param createImageUploadRequest A request body like
+     *                                 {
+     *                                     "contentType": "image/png"
+     *                                 }
+     *                                 contentType must be one of image/png, image/jpeg, or image/gif.
+     *
+     * @return HTTP 200 OK - If the upload URL was created successfully. Returns a response with body like
+     *                       {
+     *                           "filename": "a88fed16-330a-4b64-a704-eb9c81e33e10.png",
+     *                           "uploadUrl": "https://...",
+     *                           "uploadHeaders": {
+     *                               "Content-Type": "image/png",
+     *                               "x-amz-meta-uploader": "username"
+     *                           },
+     *                           "expiresAt": "2020-08-01T00:05:00.000+00:00"
+     *                       }
+     *         HTTP 400 Bad Request - If the request is invalid.
+     */
+    @PostMapping(value = "/image/upload")
+    public ResponseEntity<?> createImageUpload(
+        @CookieValue(name = ACCESS_TOKEN_COOKIE_NAME) final String accessToken,
+        @RequestBody final CreateImageUploadRequest createImageUploadRequest) {
+        final long startTime = System.nanoTime();
+        metricsService.addCountMetric(CREATE_IMAGE_UPLOAD_METRIC_NAME);
+
+        final String username = accessTokenService.getUsernameFromAccessToken(accessToken);
+
+        if (!createImageUploadRequest.isValid()) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        final String filename = String.format(
+            "%s.%s",
+            UUID.randomUUID().toString(),
+            MIME_TYPE_TO_FILE_EXTENSION_MAPPING.get(createImageUploadRequest.getContentType())
+        );
+        final Date expiresAt = new Date(System.currentTimeMillis() + uploadUrlExpiration.toMillis());
+        final String uploaderHeader = Headers.S3_USER_METADATA_PREFIX + UPLOADER_USER_METADATA_KEY;
+
+        final GeneratePresignedUrlRequest generatePresignedUrlRequest =
+            new GeneratePresignedUrlRequest(imageBucketName, filename, HttpMethod.PUT)
+                .withExpiration(expiresAt)
+                .withContentType(createImageUploadRequest.getContentType());
+        generatePresignedUrlRequest.putCustomRequestHeader(uploaderHeader, username);
+
+        final ResponseEntity<?> responseEntity = ResponseEntity.ok().body(
+            ImageUploadUrlResponse.builder()
+                .filename(filename)
+                .uploadUrl(amazonS3.generatePresignedUrl(generatePresignedUrlRequest).toString())
+                .uploadHeaders(Map.of(
+                    Headers.CONTENT_TYPE, createImageUploadRequest.getContentType(),
+                    uploaderHeader, username
+                ))
+                .expiresAt(expiresAt)
+                .build()
+        );
+
+        metricsService.addSuccessMetric(CREATE_IMAGE_UPLOAD_METRIC_NAME);
+        metricsService.addLatencyMetric(CREATE_IMAGE_UPLOAD_METRIC_NAME, System.nanoTime() - startTime);
+        return responseEntity;
+    }
+
+    /**
+     * Call to confirm an image uploaded through a URL from /image/upload. Only the first bytes of the object are read
+     * to validate its type. Objects which fail validation are deleted.
+     *
+     * @param confirmImageUploadRequest A request body like
+     *                                  {
+     *                                      "filename": "a88fed16-330a-4b64-a704-eb9c81e33e10.png"
+     *                                  }
+     *
+     * @return HTTP 201 Created - If the image was confirmed successfully. Returns the same body as /image.
+     *         HTTP 400 Bad Request - If the request is invalid.
+     *         HTTP 403 Forbidden - If the image was uploaded through a URL issued to another user.
+     *         HTTP 404 Not Found - If no image was uploaded under filename.
+     *         HTTP 422 Unprocessable Entity - If the uploaded file is too large or its content does not match the
+     *                                         type it was uploaded as.
+     */
+    @PostMapping(value = "/image/upload/confirm")
+    public ResponseEntity<?> confirmImageUpload(
+        @CookieValue(name = ACCESS_TOKEN_COOKIE_NAME) final String accessToken,
+        @RequestBody final ConfirmImageUploadRequest confirmImageUploadRequest) {
+        final long startTime = System.nanoTime();
+        metricsService.addCountMetric(CONFIRM_IMAGE_UPLOAD_METRIC_NAME);
+
+        final String username = accessTokenService.getUsernameFromAccessToken(accessToken);
+
+        if (!confirmImageUploadRequest.isValid()) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        final String filename = confirmImageUploadRequest.getFilename();
+
+        final ObjectMetadata uploadedObjectMetadata;
+        try {
+            uploadedObjectMetadata = amazonS3.getObjectMetadata(imageBucketName, filename);
+        } catch (final AmazonS3Exception e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND.value()) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            throw e;
+        }
+
+        if (!username.equals(uploadedObjectMetadata.getUserMetaDataOf(UPLOADER_USER_METADATA_KEY))) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+
+        if (uploadedObjectMetadata.getContentLength() > maxImageSize.toBytes()
+            || !isUploadedContentOfFileExtension(filename)) {
+            amazonS3.deleteObject(imageBucketName, filename);
+            return new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+
+        // Presigned uploads are private and carry whatever headers the client sent, so the object is copied onto
+        // itself server side to make it public and set the same headers as /image uploads
+        final ObjectMetadata objectMetadata = createPublicImageMetadata(uploadedObjectMetadata.getContentType());
+        objectMetadata.addUserMetadata(UPLOADER_USER_METADATA_KEY, username);
+        amazonS3.copyObject(
+            new CopyObjectRequest(imageBucketName, filename, imageBucketName, filename)
+                .withNewObjectMetadata(objectMetadata)
+                .withCannedAccessControlList(CannedAccessControlList.PublicRead)
+        );
+
+        wG.V()
+            .has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, username)
+            .property(set, USER_UPLOADED_IMAGES_PROPERTY, filename)
+            .iterate();
+
+        imageProcessingService.generateVariantsAsync(filename);
+
+        final ResponseEntity<?> responseEntity = new ResponseEntity<>(
+            ImageUploadResponse.builder()
+                .filename(filename)
+                .variantFilenames(ImageProcessingService.getVariantFilenames(filename))
+                .build(),
+            HttpStatus.CREATED
+        );
+
+        metricsService.addSuccessMetric(CONFIRM_IMAGE_UPLOAD_METRIC_NAME);
+        metricsService.addLatencyMetric(CONFIRM_IMAGE_UPLOAD_METRIC_NAME, System.nanoTime() - startTime);
+        return responseEntity;
+    }
+
+    private static ObjectMetadata createPublicImageMetadata(final String mimeType) {
+        final ObjectMetadata objectMetadata = new ObjectMetadata();
+        objectMetadata.setCacheControl(CACHE_CONTROL);
+        objectMetadata.setContentType(mimeType);
+        return objectMetadata;
+    }
+
+    /**
+     * Copies an image onto itself, which restarts its orphaned image grace period.
+     */
+    private void touchImage(final String filename, final String mimeType) {
+        amazonS3.copyObject(
+            new CopyObjectRequest(imageBucketName, filename, imageBucketName, filename)
+                .withNewObjectMetadata(createPublicImageMetadata(mimeType))
+                .withCannedAccessControlList(CannedAccessControlList.PublicRead)
+        );
+    }
+
+    /**
+     * @return false if a variant of filename is missing, e.g. because its generation was dropped or is still queued,
+     *         so that the variants should be generated again.
+     */
+    private boolean touchVariants(final String filename, final String mimeType) {
+        for (final String variantFilename : ImageProcessingService.getVariantFilenames(filename)) {
+            try {
+                touchImage(variantFilename, mimeType);
+            } catch (final AmazonS3Exception e) {
+                if (e.getStatusCode() != HttpStatus.NOT_FOUND.value()) {
+                    throw e;
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isImageStored(final String filename) {
+        if (storedImageFilenames.getIfPresent(filename) != null) {
+            return true;
+        }
+
+        final boolean isStored = amazonS3.doesObjectExist(imageBucketName, filename);
+        if (isStored) {
+            storedImageFilenames.put(filename, true);
+        }
+        return isStored;
+    }
+
+    private boolean isUploadedContentOfFileExtension(final String filename) {
+        final GetObjectRequest getObjectRequest = new GetObjectRequest(imageBucketName, filename)
+            .withRange(0, SNIFF_BUFFER_SIZE_BYTES - 1);
+
+        try (final S3Object s3Object = amazonS3.getObject(getObjectRequest)) {
+            final String tikaDetectedFileExtension = MIME_TYPE_TO_FILE_EXTENSION_MAPPING.get(
+                tika.detect(IOUtils.toByteArray(s3Object.getObjectContent()))
+            );
+            return filename.endsWith("." + tikaDetectedFileExtension);
+        } catch (final IOException e) {
+            log.error(String.format("Failed to read uploaded image %s", filename), e);
+            return false;
+        }
+    }
 }
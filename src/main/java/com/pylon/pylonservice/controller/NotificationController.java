@@ -2,12 +2,15 @@ package com.pylon.pylonservice.controller;
 
 import com.pylon.pylonservice.model.domain.notification.Notification;
 import com.pylon.pylonservice.model.requests.ReadNotificationsRequest;
+import com.pylon.pylonservice.model.responses.UnreadNotificationCountResponse;
 import com.pylon.pylonservice.services.AccessTokenService;
 import com.pylon.pylonservice.services.MetricsService;
 import com.pylon.pylonservice.services.NotificationService;
+import com.pylon.pylonservice.services.NotificationStreamService;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CookieValue;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,8 +18,11 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import static com.pylon.pylonservice.constants.AuthenticationConstants.ACCESS_TOKEN_COOKIE_NAME;
@@ -25,13 +31,18 @@ import static com.pylon.pylonservice.constants.AuthenticationConstants.ACCESS_TO
 @RestController
 public class NotificationController {
     private static final String GET_NOTIFICATIONS_METRIC_NAME = "GetNotifications";
+    private static final String STREAM_NOTIFICATIONS_METRIC_NAME = "StreamNotifications";
+    private static final String GET_UNREAD_NOTIFICATION_COUNT_METRIC_NAME = "GetUnreadNotificationCount";
     private static final String READ_NOTIFICATIONS_METRIC_NAME = "ReadNotifications";
+    private static final String READ_ALL_NOTIFICATIONS_METRIC_NAME = "ReadAllNotifications";
     @Autowired
     private AccessTokenService accessTokenService;
     @Autowired
     private MetricsService metricsService;
     @Autowired
     private NotificationService notificationService;
+    @Autowired
+    private NotificationStreamService notificationStreamService;
 
     /**
      * Call to retrieve all notifications for the calling user.
@@ -58,14 +69,68 @@ public class NotificationController {
         return responseEntity;
     }
 
+    /**
+     * Call to open a Server-Sent Events stream of new notifications for the calling user. Each notification is sent
+     * as a "notification" event as soon as it is created, replacing polling of /notifications/all. The stream times
+     * out after a while and is expected to be reopened by the client.
+     *
+     * @param accessToken A cookie with name "accessToken"
+     *
+     * @return HTTP 200 OK - A text/event-stream of notifications.
+     */
+    @GetMapping(value = "/notifications/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotifications(@CookieValue(name = ACCESS_TOKEN_COOKIE_NAME) final String accessToken) {
+        final long startTime = System.nanoTime();
+        metricsService.addCountMetric(STREAM_NOTIFICATIONS_METRIC_NAME);
+
+        final String callingUsernameLowercase = accessTokenService.getUsernameFromAccessToken(accessToken);
+
+        final SseEmitter emitter = notificationStreamService.openStream(callingUsernameLowercase);
+
+        metricsService.addSuccessMetric(STREAM_NOTIFICATIONS_METRIC_NAME);
+        metricsService.addLatencyMetric(STREAM_NOTIFICATIONS_METRIC_NAME, System.nanoTime() - startTime);
+        return emitter;
+    }
+
+    /**
+     * Call to retrieve the number of unread notifications for the calling user. Intended for frequent badge polling,
+     * so the count may lag behind by a few seconds.
+     *
+     * @param accessToken A cookie with name "accessToken"
+     *
+     * @return HTTP 200 OK - If the unread notification count was retrieved successfully.
+     */
+    @GetMapping(value = "/notifications/unread/count")
+    public ResponseEntity<?> getUnreadNotificationCount(
+        @CookieValue(name = ACCESS_TOKEN_COOKIE_NAME) final String accessToken) {
+        final long startTime = System.nanoTime();
+        metricsService.addCountMetric(GET_UNREAD_NOTIFICATION_COUNT_METRIC_NAME);
+
+        final String callingUsernameLowercase = accessTokenService.getUsernameFromAccessToken(accessToken);
+
+        final ResponseEntity<?> responseEntity = ResponseEntity.ok().body(
+            UnreadNotificationCountResponse.builder()
+                .numUnread(notificationService.getUnreadCount(callingUsernameLowercase))
+                .build()
+        );
+
+        metricsService.addSuccessMetric(GET_UNREAD_NOTIFICATION_COUNT_METRIC_NAME);
+        metricsService.addLatencyMetric(GET_UNREAD_NOTIFICATION_COUNT_METRIC_NAME, System.nanoTime() - startTime);
+        return responseEntity;
+    }
+
     /**
      * Call to mark notifications as read.
      *
      * @param accessToken A cookie with name "accessToken"
+     * @param readNotificationsRequest A request body containing the notificationIds to mark as read.
      *
-     * @return HTTP 200 OK - If the notifications were marked as read successfully.
+     * @return HTTP 200 OK - If the notifications were marked as read successfully. Body is a set of the
+     *                       {@link Notification}s, as read.
+     *         HTTP 400 Bad Request - If no notificationIds were provided.
      *         HTTP 401 Unauthorized - If the User isn't authenticated.
-     *         HTTP 403 Forbidden - If the User is attempting to read a notification for another user.
+     *         HTTP 403 Forbidden - If the User is attempting to read a notification which doesn't exist or belongs to
+     *                              another user. None of the notifications are marked as read.
      */
     @PutMapping(value = "/notifications/read")
     public ResponseEntity<?> readNotifications(
@@ -76,21 +141,53 @@ public class NotificationController {
 
         final String callingUsernameLowercase = accessTokenService.getUsernameFromAccessToken(accessToken);
 
-        final Set<Notification> notifications =
-            notificationService.loadNotifications(readNotificationsRequest.getNotificationIds());
+        if (readNotificationsRequest.getNotificationIds() == null) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
 
-        if (!notifications.stream()
-            .allMatch(notification -> notification.getToUsername().equals(callingUsernameLowercase))) {
+        final Optional<Set<Notification>> notifications = notificationService.markNotificationsRead(
+            callingUsernameLowercase, readNotificationsRequest.getNotificationIds()
+        );
+        if (notifications.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.FORBIDDEN);
         }
 
-        notifications.forEach(notification -> notification.setRead(true));
-        notificationService.notifyBatch(notifications);
-
-        final ResponseEntity<?> responseEntity = ResponseEntity.ok().body(notifications);
+        final ResponseEntity<?> responseEntity = ResponseEntity.ok().body(notifications.get());
 
         metricsService.addSuccessMetric(READ_NOTIFICATIONS_METRIC_NAME);
         metricsService.addLatencyMetric(READ_NOTIFICATIONS_METRIC_NAME, System.nanoTime() - startTime);
         return responseEntity;
     }
+
+    /**
+     * Call to mark all of the calling user's notifications as read.
+     *
+     * @param accessToken A cookie with name "accessToken"
+     * @param upToTimestamp Optional epoch milliseconds. Only notifications created at or before this time are marked
+     *                      as read, so that notifications which arrived after the client last rendered are kept.
+     *                      Defaults to the current time.
+     *
+     * @return HTTP 200 OK - If the notifications were marked as read successfully.
+     *         HTTP 401 Unauthorized - If the User isn't authenticated.
+     */
+    @PutMapping(value = "/notifications/readAll")
+    public ResponseEntity<?> readAllNotifications(
+        @CookieValue(name = ACCESS_TOKEN_COOKIE_NAME) final String accessToken,
+        @RequestParam(required = false) final Long upToTimestamp) {
+        final long startTime = System.nanoTime();
+        metricsService.addCountMetric(READ_ALL_NOTIFICATIONS_METRIC_NAME);
+
+        final String callingUsernameLowercase = accessTokenService.getUsernameFromAccessToken(accessToken);
+
+        notificationService.markAllNotificationsRead(
+            callingUsernameLowercase,
+            upToTimestamp == null ? new Date() : new Date(upToTimestamp)
+        );
+
+        final ResponseEntity<?> responseEntity = new ResponseEntity<>(HttpStatus.OK);
+
+        metricsService.addSuccessMetric(READ_ALL_NOTIFICATIONS_METRIC_NAME);
+        metricsService.addLatencyMetric(READ_ALL_NOTIFICATIONS_METRIC_NAME, System.nanoTime() - startTime);
+        return responseEntity;
+    }
 }
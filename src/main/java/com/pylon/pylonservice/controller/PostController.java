@@ -1,14 +1,17 @@
 package com.pylon.pylonservice.controller;
 
+import com.pylon.pylonservice.enums.RecentItemType;
 import com.pylon.pylonservice.model.domain.Post;
 import com.pylon.pylonservice.model.domain.notification.PostCommentNotification;
-import com.pylon.pylonservice.model.domain.notification.PostLikeNotification;
 import com.pylon.pylonservice.model.requests.post.CreateCommentPostRequest;
 import com.pylon.pylonservice.model.requests.post.CreateTopLevelPostRequest;
 import com.pylon.pylonservice.model.responses.CreatePostResponse;
 import com.pylon.pylonservice.services.AccessTokenService;
 import com.pylon.pylonservice.services.MetricsService;
 import com.pylon.pylonservice.services.NotificationService;
+import com.pylon.pylonservice.services.RecentItemService;
+import com.pylon.pylonservice.services.SearchIndexService;
+import com.pylon.pylonservice.services.VoteBuffer;
 import io.jsonwebtoken.ExpiredJwtException;
 import lombok.extern.log4j.Log4j2;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
@@ -28,12 +31,14 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
@@ -45,24 +50,23 @@ import static com.pylon.pylonservice.constants.GraphConstants.POST_COMMENT_ON_PO
 import static com.pylon.pylonservice.constants.GraphConstants.POST_CONTENT_URL_PROPERTY;
 import static com.pylon.pylonservice.constants.GraphConstants.POST_ID_PROPERTY;
 import static com.pylon.pylonservice.constants.GraphConstants.POST_FILENAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_IS_TOP_LEVEL_PROPERTY;
 import static com.pylon.pylonservice.constants.GraphConstants.POST_POSTED_IN_SHARD_EDGE_LABEL;
 import static com.pylon.pylonservice.constants.GraphConstants.POST_POSTED_IN_USER_EDGE_LABEL;
 import static com.pylon.pylonservice.constants.GraphConstants.POST_TITLE_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_TOP_LEVEL_POST_ID_PROPERTY;
 import static com.pylon.pylonservice.constants.GraphConstants.POST_VERTEX_LABEL;
 import static com.pylon.pylonservice.constants.GraphConstants.SHARD_NAME_PROPERTY;
 import static com.pylon.pylonservice.constants.GraphConstants.SHARD_VERTEX_LABEL;
 import static com.pylon.pylonservice.constants.GraphConstants.USER_SUBMITTED_POST_EDGE_LABEL;
-import static com.pylon.pylonservice.constants.GraphConstants.USER_UPVOTED_POST_EDGE_LABEL;
 import static com.pylon.pylonservice.constants.GraphConstants.USER_USERNAME_PROPERTY;
 import static com.pylon.pylonservice.constants.GraphConstants.USER_VERTEX_LABEL;
 import static com.pylon.pylonservice.model.domain.Post.projectToPost;
-import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.V;
-import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.addE;
+import static com.pylon.pylonservice.model.domain.Post.traverseToTopLevelPostId;
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.addV;
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.flatMap;
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.in;
-import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.inV;
-import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.outE;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.select;
 import static org.apache.tinkerpop.gremlin.structure.VertexProperty.Cardinality.single;
 
 @Log4j2
@@ -76,6 +80,8 @@ public class PostController {
     private static final String CREATE_PROFILE_POST_METRIC_NAME = "CreateProfilePost";
     private static final String CREATE_COMMENT_POST_METRIC_NAME = "CreateCommentPost";
 
+    private static final String PARENT_POST_SUBMITTER_USERNAME = "parentPostSubmitterUsername";
+
     @Qualifier("writer")
     @Autowired
     private GraphTraversalSource wG;
@@ -88,6 +94,15 @@ public class PostController {
     private MetricsService metricsService;
     @Autowired
     private NotificationService notificationService;
+    @Qualifier("sideEffectExecutor")
+    @Autowired
+    private ExecutorService sideEffectExecutor;
+    @Autowired
+    private VoteBuffer voteBuffer;
+    @Autowired
+    private RecentItemService recentItemService;
+    @Autowired
+    private SearchIndexService searchIndexService;
 
     /**
      * Call to retrieve a Post.
@@ -127,6 +142,7 @@ public class PostController {
         } catch (final NoSuchElementException | IllegalStateException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        voteBuffer.applyPendingVotes(post, callingUsernameLowercase);
 
         final ResponseEntity<?> responseEntity = ResponseEntity.ok().body(post);
 
@@ -172,6 +188,7 @@ public class PostController {
         }
 
         final Post root = convertTreeToPostWithNestedComments(postAndComments);
+        voteBuffer.applyPendingVotes(root, callingUsernameLowercase);
 
         final ResponseEntity<?> responseEntity = ResponseEntity.ok().body(root.getComments());
 
@@ -181,7 +198,8 @@ public class PostController {
     }
 
     /**
-     * Call for the calling User to upvote a Post.
+     * Call for the calling User to upvote a Post. The upvote is buffered and written to the graph shortly after, but is
+     * reflected in the calling User's own reads of the Post immediately.
      *
      * @param accessToken A cookie with name "accessToken"
      * @param postId A String containing the postId of the Post to upvote.
@@ -201,27 +219,7 @@ public class PostController {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
 
-        wG
-            .V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, username)
-            .coalesce(
-                outE(USER_UPVOTED_POST_EDGE_LABEL).filter(
-                    inV().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, postId)
-                ),
-                addE(USER_UPVOTED_POST_EDGE_LABEL).to(
-                    V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, postId)
-                )
-            )
-            .iterate();
-
-        try {
-            sendPostLikeNotification(postId, username);
-        } catch (final Exception e) {
-            log.error(String.format(
-                "Failed to send post like notification for postId %s and fromUsername %s",
-                postId,
-                username
-            ));
-        }
+        voteBuffer.recordVote(postId, username, true);
 
         final ResponseEntity<?> responseEntity = new ResponseEntity<>(HttpStatus.OK);
 
@@ -252,13 +250,7 @@ public class PostController {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
 
-        wG
-            .V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, username)
-            .outE(USER_UPVOTED_POST_EDGE_LABEL).where(
-                inV().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, postId)
-            )
-            .drop()
-            .iterate();
+        voteBuffer.recordVote(postId, username, false);
 
         final ResponseEntity<?> responseEntity = new ResponseEntity<>(HttpStatus.OK);
 
@@ -294,17 +286,22 @@ public class PostController {
         final String username = accessTokenService.getUsernameFromAccessToken(accessToken);
 
         final String postId = UUID.randomUUID().toString();
+        final Date createdAt = new Date();
 
+        // The user and shard are both matched before anything is written, so a missing shard creates nothing
         final Optional<Edge> result = wG
+            .V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, username).as("user")
             .V().has(SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, shardNameLowercase).as("shard")
-            .flatMap(addTopLevelPost(createTopLevelPostRequest, postId)).as("post")
+            .flatMap(addTopLevelPost(createTopLevelPostRequest, postId, createdAt)).as("post")
             .addE(POST_POSTED_IN_SHARD_EDGE_LABEL).from("post").to("shard")
-            .flatMap(relateUserToPost(username))
+            .addE(USER_SUBMITTED_POST_EDGE_LABEL).from("user").to("post")
             .tryNext();
 
         if (result.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        recentItemService.record(RecentItemType.POST, postId, createdAt);
+        searchIndexService.indexPost(postId, createTopLevelPostRequest.getPostTitle());
 
         final ResponseEntity<?> responseEntity = new ResponseEntity<>(
             CreatePostResponse.builder()
@@ -341,17 +338,20 @@ public class PostController {
         final String username = accessTokenService.getUsernameFromAccessToken(accessToken);
 
         final String postId = UUID.randomUUID().toString();
+        final Date createdAt = new Date();
 
         final Optional<Edge> result = wG
             .V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, username).as("user")
-            .flatMap(addTopLevelPost(createTopLevelPostRequest, postId)).as("post")
+            .flatMap(addTopLevelPost(createTopLevelPostRequest, postId, createdAt)).as("post")
             .addE(POST_POSTED_IN_USER_EDGE_LABEL).from("post").to("user")
-            .flatMap(relateUserToPost(username))
+            .addE(USER_SUBMITTED_POST_EDGE_LABEL).from("user").to("post")
             .tryNext();
 
         if (result.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        recentItemService.record(RecentItemType.POST, postId, createdAt);
+        searchIndexService.indexPost(postId, createTopLevelPostRequest.getPostTitle());
 
         final ResponseEntity<?> responseEntity = new ResponseEntity<>(
             CreatePostResponse.builder()
@@ -391,18 +391,33 @@ public class PostController {
         final String username = accessTokenService.getUsernameFromAccessToken(accessToken);
 
         final String postId = UUID.randomUUID().toString();
-        final Optional<Edge> result = wG
+        // The user and parent post are both matched before anything is written, and the parent post's author is
+        // returned by the same traversal so that no second round-trip is needed to address the notification. The
+        // comment shares its parent's top level post.
+        final Optional<Map<String, Object>> result = wG
+            .V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, username).as("user")
             .V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, parentPostId).as("parentPost")
-            .flatMap(addCommentPost(createCommentPostRequest, postId)).as("post")
+            .map(traverseToTopLevelPostId()).as("topLevelPostId")
+            .flatMap(addCommentPost(createCommentPostRequest, postId))
+            .property(single, POST_TOP_LEVEL_POST_ID_PROPERTY, select("topLevelPostId")).as("post")
             .addE(POST_COMMENT_ON_POST_EDGE_LABEL).from("post").to("parentPost")
-            .flatMap(relateUserToPost(username))
+            .addE(USER_SUBMITTED_POST_EDGE_LABEL).from("user").to("post")
+            .select("parentPost")
+            .project(PARENT_POST_SUBMITTER_USERNAME)
+                .by(in(USER_SUBMITTED_POST_EDGE_LABEL).values(USER_USERNAME_PROPERTY).fold())
             .tryNext();
 
         if (result.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
 
-        sendPostCommentNotification(parentPostId, postId, username);
+        // Folded from values(USER_USERNAME_PROPERTY), so a list of usernames
+        @SuppressWarnings("unchecked")
+        final Collection<String> parentPostSubmitterUsernames =
+            (Collection<String>) result.get().get(PARENT_POST_SUBMITTER_USERNAME);
+        parentPostSubmitterUsernames.forEach(toUsername -> sideEffectExecutor.execute(
+            () -> sendPostCommentNotification(toUsername, parentPostId, postId, username)
+        ));
 
         final ResponseEntity<?> responseEntity = new ResponseEntity<>(
             CreatePostResponse.builder()
@@ -417,14 +432,17 @@ public class PostController {
     }
 
     private GraphTraversal<Object, Vertex> addTopLevelPost(final CreateTopLevelPostRequest createTopLevelPostRequest,
-                                                           final String postId) {
+                                                           final String postId,
+                                                           final Date createdAt) {
         return addV(POST_VERTEX_LABEL)
             .property(single, POST_ID_PROPERTY, postId)
             .property(single, POST_TITLE_PROPERTY, createTopLevelPostRequest.getPostTitle())
             .property(single, POST_FILENAME_PROPERTY, createTopLevelPostRequest.getPostFilename())
             .property(single, POST_CONTENT_URL_PROPERTY, createTopLevelPostRequest.getPostContentUrl())
             .property(single, POST_BODY_PROPERTY, createTopLevelPostRequest.getPostBody())
-            .property(single, COMMON_CREATED_AT_PROPERTY, new Date());
+            .property(single, POST_IS_TOP_LEVEL_PROPERTY, true)
+            .property(single, POST_TOP_LEVEL_POST_ID_PROPERTY, postId)
+            .property(single, COMMON_CREATED_AT_PROPERTY, createdAt);
     }
 
     private GraphTraversal<Object, Vertex> addCommentPost(final CreateCommentPostRequest createCommentPostRequest,
@@ -432,45 +450,15 @@ public class PostController {
         return addV(POST_VERTEX_LABEL)
             .property(single, POST_ID_PROPERTY, postId)
             .property(single, POST_BODY_PROPERTY, createCommentPostRequest.getPostBody())
+            .property(single, POST_IS_TOP_LEVEL_PROPERTY, false)
             .property(single, COMMON_CREATED_AT_PROPERTY, new Date());
     }
 
-    // Invoking traversals MUST contain a vertex with label "post"
-    private GraphTraversal<Object, Edge> relateUserToPost(final String username) {
-        return V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, username).as("user")
-            .addE(USER_SUBMITTED_POST_EDGE_LABEL).from("user").to("post");
-    }
-
-    private void sendPostLikeNotification(final String postId,
-                                          final String fromUsername) {
-        final String toUsername = (String) rG
-            .V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, postId)
-            .in(USER_SUBMITTED_POST_EDGE_LABEL)
-            .values(USER_USERNAME_PROPERTY)
-            .next();
-
-        notificationService.notify(
-            PostLikeNotification.builder()
-                .notificationId(UUID.randomUUID().toString())
-                .toUsername(toUsername)
-                .createdAt(new Date())
-                .fromUsername(fromUsername)
-                .isRead(false)
-                .postId(postId)
-                .build()
-        );
-    }
-
-    private void sendPostCommentNotification(final String parentPostId,
+    private void sendPostCommentNotification(final String toUsername,
+                                             final String parentPostId,
                                              final String postId,
                                              final String fromUsername) {
         try {
-            final String toUsername = (String) rG
-                .V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, parentPostId)
-                .in(USER_SUBMITTED_POST_EDGE_LABEL)
-                .values(USER_USERNAME_PROPERTY)
-                .next();
-
             notificationService.notify(
                 PostCommentNotification.builder()
                     .notificationId(UUID.randomUUID().toString())
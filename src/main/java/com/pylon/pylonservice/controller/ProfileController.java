@@ -7,8 +7,10 @@ import com.pylon.pylonservice.model.requests.UpdateProfileRequest;
 import com.pylon.pylonservice.pojo.PageRange;
 import com.pylon.pylonservice.services.AccessTokenService;
 import com.pylon.pylonservice.services.MetricsService;
+import com.pylon.pylonservice.services.SearchIndexService;
 import io.jsonwebtoken.ExpiredJwtException;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.T;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
@@ -52,11 +54,14 @@ import static com.pylon.pylonservice.constants.GraphConstants.USER_WEBSITE_URL_P
 import static com.pylon.pylonservice.constants.GraphConstants.USER_YOUTUBE_URL_PROPERTY;
 import static com.pylon.pylonservice.model.domain.Post.projectToPost;
 import static com.pylon.pylonservice.model.domain.Profile.projectToSingleProfile;
+import static com.pylon.pylonservice.util.EdgeIdUtil.getEdgeId;
 import static com.pylon.pylonservice.util.PaginationUtil.getPageRange;
 import static com.pylon.pylonservice.util.PaginationUtil.paginatePosts;
 import static org.apache.tinkerpop.gremlin.process.traversal.Order.desc;
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.V;
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.addE;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.coalesce;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.hasId;
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.outE;
 import static org.apache.tinkerpop.gremlin.structure.VertexProperty.Cardinality.single;
 
@@ -80,6 +85,8 @@ public class ProfileController {
     private AccessTokenService accessTokenService;
     @Autowired
     private MetricsService metricsService;
+    @Autowired
+    private SearchIndexService searchIndexService;
 
     /**
      * Call to retrieve a User's public profile data.
@@ -326,6 +333,7 @@ public class ProfileController {
             .property(single, USER_DISCORD_URL_PROPERTY, updateProfileRequest.getUserDiscordUrl())
             .property(single, USER_WEBSITE_URL_PROPERTY, updateProfileRequest.getUserWebsiteUrl())
             .iterate();
+        searchIndexService.indexProfile(usernameLowercase, updateProfileRequest.getUserFriendlyName());
 
         final ResponseEntity<?> responseEntity = new ResponseEntity<>(HttpStatus.OK);
 
@@ -367,12 +375,16 @@ public class ProfileController {
             return new ResponseEntity<>(HttpStatus.FORBIDDEN);
         }
 
+        final String pinnedPostEdgeId = getEdgeId(USER_PINNED_POST_EDGE_LABEL, username, postId);
         wG
             .V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, username)
-            .sideEffect(outE(USER_PINNED_POST_EDGE_LABEL).drop())
+            .sideEffect(outE(USER_PINNED_POST_EDGE_LABEL).not(hasId(pinnedPostEdgeId)).drop())
             .sideEffect(
-                addE(USER_PINNED_POST_EDGE_LABEL).to(
-                    V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, postId)
+                coalesce(
+                    outE(USER_PINNED_POST_EDGE_LABEL).hasId(pinnedPostEdgeId),
+                    addE(USER_PINNED_POST_EDGE_LABEL)
+                        .to(V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, postId))
+                        .property(T.id, pinnedPostEdgeId)
                 )
             )
             .iterate();
@@ -3,11 +3,14 @@ package com.pylon.pylonservice.controller;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTransactionWriteExpression;
 import com.amazonaws.services.dynamodbv2.datamodeling.TransactionWriteRequest;
+import com.pylon.pylonservice.enums.RecentItemType;
 import com.pylon.pylonservice.model.requests.auth.RegisterRequest;
 import com.pylon.pylonservice.model.responses.RegisterResponse;
 import com.pylon.pylonservice.model.tables.EmailUser;
 import com.pylon.pylonservice.model.tables.User;
 import com.pylon.pylonservice.services.MetricsService;
+import com.pylon.pylonservice.services.RecentItemService;
+import com.pylon.pylonservice.services.SearchIndexService;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -54,6 +57,10 @@ public class RegisterController {
     private PasswordEncoder passwordEncoder;
     @Autowired
     private MetricsService metricsService;
+    @Autowired
+    private RecentItemService recentItemService;
+    @Autowired
+    private SearchIndexService searchIndexService;
 
     /**
      * Call to register a User.
@@ -106,12 +113,13 @@ public class RegisterController {
             );
         }
 
+        final Date createdAt = new Date();
         wG
             .addV(USER_VERTEX_LABEL)
             .property(single, USER_USERNAME_PROPERTY, usernameLowercase)
             .property(single, USER_FRIENDLY_NAME_PROPERTY, usernameLowercase)
             .property(single, USER_VERIFIED_PROPERTY, false)
-            .property(single, COMMON_CREATED_AT_PROPERTY, new Date())
+            .property(single, COMMON_CREATED_AT_PROPERTY, createdAt)
             .property(single, USER_AVATAR_FILENAME_PROPERTY, EMPTY_STRING)
             .property(single, USER_BANNER_FILENAME_PROPERTY, EMPTY_STRING)
             .property(single, USER_BIO_PROPERTY, EMPTY_STRING)
@@ -126,6 +134,8 @@ public class RegisterController {
             .iterate();
 
         persistUser(usernameLowercase, emailLowercase, passwordEncoder.encode(registerRequest.getPassword()));
+        recentItemService.record(RecentItemType.PROFILE, usernameLowercase, createdAt);
+        searchIndexService.indexProfile(usernameLowercase, usernameLowercase);
 
         final ResponseEntity<?> responseEntity = new ResponseEntity<>(
             HttpStatus.CREATED
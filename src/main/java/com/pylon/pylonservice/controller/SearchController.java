@@ -0,0 +1,277 @@
+package com.pylon.pylonservice.controller;
+
+import com.pylon.pylonservice.enums.SearchItemType;
+import com.pylon.pylonservice.model.domain.Post;
+import com.pylon.pylonservice.model.domain.Profile;
+import com.pylon.pylonservice.model.domain.Shard;
+import com.pylon.pylonservice.pojo.SearchResult;
+import com.pylon.pylonservice.services.AccessTokenService;
+import com.pylon.pylonservice.services.MetricsService;
+import com.pylon.pylonservice.services.SearchIndexService;
+import com.pylon.pylonservice.services.VoteBuffer;
+import io.jsonwebtoken.ExpiredJwtException;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CookieValue;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.pylon.pylonservice.constants.AuthenticationConstants.ACCESS_TOKEN_COOKIE_NAME;
+import static com.pylon.pylonservice.constants.GraphConstants.INVALID_USERNAME_VALUE;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_ID_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_VERTEX_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_NAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_VERTEX_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_USERNAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_VERTEX_LABEL;
+import static com.pylon.pylonservice.model.domain.Post.projectToPost;
+import static com.pylon.pylonservice.model.domain.Profile.projectToProfile;
+import static com.pylon.pylonservice.model.domain.Shard.projectToShard;
+import static org.apache.tinkerpop.gremlin.process.traversal.P.within;
+
+/**
+ * Finds Shards, Profiles or top level Posts by name or text, from the {@link SearchIndexService} index. Only the
+ * matching items are read from the graph, and typeahead reads no graph at all.
+ *
+ * A query matches the items containing each of its words, the last of which may be incomplete, ignoring case and
+ * punctuation. Items whose name is the query come first.
+ */
+@RestController
+public class SearchController {
+    private static final String SEARCH_SHARDS_METRIC_NAME = "SearchShards";
+    private static final String SEARCH_PROFILES_METRIC_NAME = "SearchProfiles";
+    private static final String SEARCH_POSTS_METRIC_NAME = "SearchPosts";
+    private static final String SEARCH_TYPEAHEAD_METRIC_NAME = "SearchTypeahead";
+    private static final Map<String, SearchItemType> PATH_TO_SEARCH_ITEM_TYPE = Map.of(
+        "shards", SearchItemType.SHARD,
+        "profiles", SearchItemType.PROFILE,
+        "posts", SearchItemType.POST
+    );
+    private static final int MAX_QUERY_LENGTH = 100;
+    private static final int DEFAULT_SEARCH_COUNT = 25;
+    private static final int MAX_SEARCH_COUNT = 100;
+    private static final int DEFAULT_TYPEAHEAD_COUNT = 10;
+    private static final int MAX_TYPEAHEAD_COUNT = 25;
+
+    @Qualifier("reader")
+    @Autowired
+    private GraphTraversalSource rG;
+    @Autowired
+    private AccessTokenService accessTokenService;
+    @Autowired
+    private MetricsService metricsService;
+    @Autowired
+    private SearchIndexService searchIndexService;
+    @Autowired
+    private VoteBuffer voteBuffer;
+
+    /**
+     * Call to find Shards by shardName, friendly name or description.
+     *
+     * @param accessToken A cookie with name "accessToken"
+     * @param query The words to search for, at most 100 characters.
+     * @param count The most Shards to return, at most 100.
+     *
+     * @return HTTP 200 OK - If the search succeeded. Body is an array of {@link Shard}, best match first.
+     *         HTTP 401 Unauthorized - If the accessToken is expired.
+     *         HTTP 422 Unprocessable Entity - If the query or count isn't valid.
+     */
+    @GetMapping("/search/shards")
+    public ResponseEntity<?> searchShards(
+        @CookieValue(name = ACCESS_TOKEN_COOKIE_NAME, required = false) final String accessToken,
+        @RequestParam(name = "query") final String query,
+        @RequestParam(name = "count", required = false) final Integer count) {
+        final long startTime = System.nanoTime();
+        metricsService.addCountMetric(SEARCH_SHARDS_METRIC_NAME);
+
+        if (!isValid(query, count, MAX_SEARCH_COUNT)) {
+            return new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+
+        final String callingUsernameLowercase;
+        try {
+            callingUsernameLowercase = accessTokenService.getUsernameFromAccessTokenOrDefaultIfNull(
+                accessToken, INVALID_USERNAME_VALUE
+            );
+        } catch (final ExpiredJwtException e) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+
+        final List<String> shardNames = searchIndexService.getIndex(SearchItemType.SHARD)
+            .search(query, count == null ? DEFAULT_SEARCH_COUNT : count);
+        final Map<String, Shard> shards = rG
+            .V().has(SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, within(shardNames))
+            .flatMap(projectToShard(callingUsernameLowercase))
+            .toList()
+            .stream()
+            .map(Shard::new)
+            .collect(Collectors.toMap(Shard::getShardName, Function.identity(), (a, b) -> a));
+
+        final ResponseEntity<?> responseEntity = ResponseEntity.ok().body(inMatchedOrder(shardNames, shards));
+
+        metricsService.addSuccessMetric(SEARCH_SHARDS_METRIC_NAME);
+        metricsService.addLatencyMetric(SEARCH_SHARDS_METRIC_NAME, System.nanoTime() - startTime);
+        return responseEntity;
+    }
+
+    /**
+     * Call to find Users' public profile data by username or friendly name.
+     *
+     * @param accessToken A cookie with name "accessToken"
+     * @param query The words to search for, at most 100 characters.
+     * @param count The most Profiles to return, at most 100.
+     *
+     * @return HTTP 200 OK - If the search succeeded. Body is an array of {@link Profile}, best match first.
+     *         HTTP 401 Unauthorized - If the accessToken is expired.
+     *         HTTP 422 Unprocessable Entity - If the query or count isn't valid.
+     */
+    @GetMapping("/search/profiles")
+    public ResponseEntity<?> searchProfiles(
+        @CookieValue(name = ACCESS_TOKEN_COOKIE_NAME, required = false) final String accessToken,
+        @RequestParam(name = "query") final String query,
+        @RequestParam(name = "count", required = false) final Integer count) {
+        final long startTime = System.nanoTime();
+        metricsService.addCountMetric(SEARCH_PROFILES_METRIC_NAME);
+
+        if (!isValid(query, count, MAX_SEARCH_COUNT)) {
+            return new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+
+        final String callingUsernameLowercase;
+        try {
+            callingUsernameLowercase = accessTokenService.getUsernameFromAccessTokenOrDefaultIfNull(
+                accessToken, INVALID_USERNAME_VALUE
+            );
+        } catch (final ExpiredJwtException e) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+
+        final List<String> usernames = searchIndexService.getIndex(SearchItemType.PROFILE)
+            .search(query, count == null ? DEFAULT_SEARCH_COUNT : count);
+        final Map<String, Profile> profiles = rG
+            .V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, within(usernames))
+            .flatMap(projectToProfile(callingUsernameLowercase))
+            .toList()
+            .stream()
+            .map(Profile::new)
+            .collect(Collectors.toMap(Profile::getUsername, Function.identity(), (a, b) -> a));
+
+        final ResponseEntity<?> responseEntity = ResponseEntity.ok().body(inMatchedOrder(usernames, profiles));
+
+        metricsService.addSuccessMetric(SEARCH_PROFILES_METRIC_NAME);
+        metricsService.addLatencyMetric(SEARCH_PROFILES_METRIC_NAME, System.nanoTime() - startTime);
+        return responseEntity;
+    }
+
+    /**
+     * Call to find top level Posts by title.
+     *
+     * @param accessToken A cookie with name "accessToken"
+     * @param query The words to search for, at most 100 characters.
+     * @param count The most Posts to return, at most 100.
+     *
+     * @return HTTP 200 OK - If the search succeeded. Body is an array of {@link Post}, best match first.
+     *         HTTP 401 Unauthorized - If the accessToken is expired.
+     *         HTTP 422 Unprocessable Entity - If the query or count isn't valid.
+     */
+    @GetMapping("/search/posts")
+    public ResponseEntity<?> searchPosts(
+        @CookieValue(name = ACCESS_TOKEN_COOKIE_NAME, required = false) final String accessToken,
+        @RequestParam(name = "query") final String query,
+        @RequestParam(name = "count", required = false) final Integer count) {
+        final long startTime = System.nanoTime();
+        metricsService.addCountMetric(SEARCH_POSTS_METRIC_NAME);
+
+        if (!isValid(query, count, MAX_SEARCH_COUNT)) {
+            return new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+
+        final String callingUsernameLowercase;
+        try {
+            callingUsernameLowercase = accessTokenService.getUsernameFromAccessTokenOrDefaultIfNull(
+                accessToken, INVALID_USERNAME_VALUE
+            );
+        } catch (final ExpiredJwtException e) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+
+        final List<String> postIds = searchIndexService.getIndex(SearchItemType.POST)
+            .search(query, count == null ? DEFAULT_SEARCH_COUNT : count);
+        final Map<String, Post> posts = rG
+            .V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, within(postIds))
+            .flatMap(projectToPost(callingUsernameLowercase))
+            .toList()
+            .stream()
+            .map(Post::new)
+            .collect(Collectors.toMap(Post::getPostId, Function.identity(), (a, b) -> a));
+        posts.values().forEach(post -> voteBuffer.applyPendingVotes(post, callingUsernameLowercase));
+
+        final ResponseEntity<?> responseEntity = ResponseEntity.ok().body(inMatchedOrder(postIds, posts));
+
+        metricsService.addSuccessMetric(SEARCH_POSTS_METRIC_NAME);
+        metricsService.addLatencyMetric(SEARCH_POSTS_METRIC_NAME, System.nanoTime() - startTime);
+        return responseEntity;
+    }
+
+    /**
+     * Call to complete a partially typed name of a Shard, Profile or Post, such as when choosing the Shards and Users
+     * a Shard inherits. Only names are matched: shardNames and friendly names of Shards, usernames and friendly names
+     * of Profiles, and titles of Posts.
+     *
+     * @param itemTypes One of "shards", "profiles" or "posts".
+     * @param query The words typed so far, at most 100 characters.
+     * @param count The most items to return, at most 25.
+     *
+     * @return HTTP 200 OK - If the search succeeded. Body is an array of {@link SearchResult}, best match first.
+     *         HTTP 404 Not Found - If itemTypes isn't one of the above.
+     *         HTTP 422 Unprocessable Entity - If the query or count isn't valid.
+     */
+    @GetMapping("/search/{itemTypes}/typeahead")
+    public ResponseEntity<?> typeahead(@PathVariable final String itemTypes,
+                                       @RequestParam(name = "query") final String query,
+                                       @RequestParam(name = "count", required = false) final Integer count) {
+        final long startTime = System.nanoTime();
+        metricsService.addCountMetric(SEARCH_TYPEAHEAD_METRIC_NAME);
+
+        final SearchItemType itemType = PATH_TO_SEARCH_ITEM_TYPE.get(itemTypes);
+        if (itemType == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        if (!isValid(query, count, MAX_TYPEAHEAD_COUNT)) {
+            return new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+
+        final List<SearchResult> searchResults = searchIndexService.getIndex(itemType)
+            .typeahead(query, count == null ? DEFAULT_TYPEAHEAD_COUNT : count);
+
+        final ResponseEntity<?> responseEntity = ResponseEntity.ok().body(searchResults);
+
+        metricsService.addSuccessMetric(SEARCH_TYPEAHEAD_METRIC_NAME);
+        metricsService.addLatencyMetric(SEARCH_TYPEAHEAD_METRIC_NAME, System.nanoTime() - startTime);
+        return responseEntity;
+    }
+
+    private static boolean isValid(final String query, final Integer count, final int maxCount) {
+        return query.length() <= MAX_QUERY_LENGTH && (count == null || (count > 0 && count <= maxCount));
+    }
+
+    /**
+     * @return The items in the order they matched, leaving out any which are indexed but no longer in the graph.
+     */
+    private static <T> List<T> inMatchedOrder(final List<String> itemIds, final Map<String, T> itemsById) {
+        return itemIds.stream()
+            .filter(itemsById::containsKey)
+            .map(itemsById::get)
+            .collect(Collectors.toList());
+    }
+}
@@ -1,5 +1,6 @@
 package com.pylon.pylonservice.controller;
 
+import com.pylon.pylonservice.enums.RecentItemType;
 import com.pylon.pylonservice.model.domain.Post;
 import com.pylon.pylonservice.model.domain.Profile;
 import com.pylon.pylonservice.model.domain.Shard;
@@ -11,13 +12,18 @@ import com.pylon.pylonservice.model.requests.shard.CreateShardRequest;
 import com.pylon.pylonservice.model.requests.shard.UpdateShardRequest;
 import com.pylon.pylonservice.pojo.PageRange;
 import com.pylon.pylonservice.services.AccessTokenService;
+import com.pylon.pylonservice.services.AsyncTraversalService;
 import com.pylon.pylonservice.services.MetricsService;
 import com.pylon.pylonservice.services.NotificationService;
+import com.pylon.pylonservice.services.RecentItemService;
+import com.pylon.pylonservice.services.SearchIndexService;
 import io.jsonwebtoken.ExpiredJwtException;
 import lombok.extern.log4j.Log4j2;
 import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -32,13 +38,17 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static com.pylon.pylonservice.constants.AuthenticationConstants.ACCESS_TOKEN_COOKIE_NAME;
@@ -64,10 +74,13 @@ import static com.pylon.pylonservice.model.domain.Post.projectToPost;
 import static com.pylon.pylonservice.model.domain.Profile.projectToProfile;
 import static com.pylon.pylonservice.model.domain.Shard.projectToShard;
 import static com.pylon.pylonservice.model.domain.Shard.projectToSingleShard;
+import static com.pylon.pylonservice.util.EdgeIdUtil.getEdgeId;
 import static com.pylon.pylonservice.util.PaginationUtil.getPageRange;
 import static com.pylon.pylonservice.util.PaginationUtil.paginatePosts;
 import static org.apache.tinkerpop.gremlin.process.traversal.Order.desc;
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.V;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.in;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.inV;
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.out;
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.outE;
 import static org.apache.tinkerpop.gremlin.structure.VertexProperty.Cardinality.single;
@@ -82,6 +95,10 @@ public class ShardController {
     private static final String CREATE_SHARD_METRIC_NAME = "CreateShard";
     private static final String UPDATE_SHARD_METRIC_NAME = "UpdateShard";
 
+    private static final String OWNER_USERNAMES = "ownerUsernames";
+    private static final String INHERITED_SHARD_NAMES = "inheritedShardNames";
+    private static final String INHERITED_USERNAMES = "inheritedUsernames";
+
     @Qualifier("writer")
     @Autowired
     private GraphTraversalSource wG;
@@ -94,6 +111,12 @@ public class ShardController {
     private MetricsService metricsService;
     @Autowired
     private NotificationService notificationService;
+    @Autowired
+    private AsyncTraversalService asyncTraversalService;
+    @Autowired
+    private RecentItemService recentItemService;
+    @Autowired
+    private SearchIndexService searchIndexService;
 
     /**
      * Call to retrieve a Shard.
@@ -257,9 +280,10 @@ public class ShardController {
      * @return HTTP 200 OK - If the Posts in the Shard were retrieved successfully. Body is an array of
      *                       {@link Post}.
      *         HTTP 404 Not Found - If the Shard doesn't exist.
+     *         HTTP 503 Service Unavailable - If async request execution is enabled and its executor is full.
      */
     @GetMapping(value = "/shard/{shardName}/posts/new")
-    public ResponseEntity<?> getNewShardPosts(
+    public CompletableFuture<ResponseEntity<?>> getNewShardPosts(
         @CookieValue(name = ACCESS_TOKEN_COOKIE_NAME, required = false) final String accessToken,
         @PathVariable final String shardName,
         @RequestParam(name = "first", required = false) final Integer firstPostToReturn,
@@ -275,7 +299,7 @@ public class ShardController {
         }
 
         if (getPostsRequest != null && !getPostsRequest.isValid()) {
-            return new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY));
         }
 
         final String callingUsernameLowercase;
@@ -284,29 +308,31 @@ public class ShardController {
                 accessToken, INVALID_USERNAME_VALUE
             );
         } catch (final ExpiredJwtException e) {
-            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.UNAUTHORIZED));
         }
 
         final String shardNameLowercase = shardName.toLowerCase();
-        if (!rG.V().has(SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, shardNameLowercase).hasNext()) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
-
         final PageRange pageRange = getPageRange(getPostsRequest);
-        final List<Post> posts = getAllPostsInShard(shardNameLowercase)
-            .order().by(COMMON_CREATED_AT_PROPERTY, desc)
-            .range(pageRange.getLow(), pageRange.getHigh())
-            .flatMap(projectToPost(callingUsernameLowercase))
-            .toList()
-            .stream()
-            .map(Post::new)
-            .collect(Collectors.toList());
+        return whenShardExists(shardNameLowercase, () -> asyncTraversalService
+            .submit(
+                getAllPostsInShard(shardNameLowercase)
+                    .order().by(COMMON_CREATED_AT_PROPERTY, desc)
+                    .range(pageRange.getLow(), pageRange.getHigh())
+                    .flatMap(projectToPost(callingUsernameLowercase)),
+                Traversal::toList
+            )
+            .<ResponseEntity<?>>thenApply(graphPosts -> {
+                final List<Post> posts = graphPosts.stream()
+                    .map(Post::new)
+                    .collect(Collectors.toList());
 
-        final ResponseEntity<?> responseEntity = ResponseEntity.ok().body(posts);
+                final ResponseEntity<?> responseEntity = ResponseEntity.ok().body(posts);
 
-        metricsService.addSuccessMetric(GET_SHARD_POSTS_METRIC_NAME);
-        metricsService.addLatencyMetric(GET_SHARD_POSTS_METRIC_NAME, System.nanoTime() - startTime);
-        return responseEntity;
+                metricsService.addSuccessMetric(GET_SHARD_POSTS_METRIC_NAME);
+                metricsService.addLatencyMetric(GET_SHARD_POSTS_METRIC_NAME, System.nanoTime() - startTime);
+                return responseEntity;
+            })
+        );
     }
 
     /**
@@ -318,9 +344,10 @@ public class ShardController {
      * @return HTTP 200 OK - If the Posts in the Shard were retrieved successfully. Body is an array of
      *                       {@link Post}.
      *         HTTP 404 Not Found - If the Shard doesn't exist.
+     *         HTTP 503 Service Unavailable - If async request execution is enabled and its executor is full.
      */
     @GetMapping(value = "/shard/{shardName}/posts/popular")
-    public ResponseEntity<?> getPopularShardPosts(
+    public CompletableFuture<ResponseEntity<?>> getPopularShardPosts(
         @CookieValue(name = ACCESS_TOKEN_COOKIE_NAME, required = false) final String accessToken,
         @PathVariable final String shardName,
         @RequestParam(name = "first", required = false) final Integer firstPostToReturn,
@@ -336,7 +363,7 @@ public class ShardController {
         }
 
         if (getPostsRequest != null && !getPostsRequest.isValid()) {
-            return new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.UNPROCESSABLE_ENTITY));
         }
 
         final String callingUsernameLowercase;
@@ -345,28 +372,28 @@ public class ShardController {
                 accessToken, INVALID_USERNAME_VALUE
             );
         } catch (final ExpiredJwtException e) {
-            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.UNAUTHORIZED));
         }
 
         final String shardNameLowercase = shardName.toLowerCase();
-        if (!rG.V().has(SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, shardNameLowercase).hasNext()) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
-
-        final Date now = new Date();
-        final List<Post> posts = getAllPostsInShard(shardNameLowercase)
-            .flatMap(projectToPost(callingUsernameLowercase))
-            .toList()
-            .stream()
-            .map(Post::new)
-            .sorted(Comparator.comparing((Post post) -> post.getPopularity(now)).reversed())
-            .collect(Collectors.toList());
-
-        final ResponseEntity<?> responseEntity = ResponseEntity.ok().body(paginatePosts(posts, getPostsRequest));
-
-        metricsService.addSuccessMetric(GET_SHARD_POSTS_METRIC_NAME);
-        metricsService.addLatencyMetric(GET_SHARD_POSTS_METRIC_NAME, System.nanoTime() - startTime);
-        return responseEntity;
+        return whenShardExists(shardNameLowercase, () -> asyncTraversalService
+            .submit(getAllPostsInShard(shardNameLowercase).flatMap(projectToPost(callingUsernameLowercase)),
+                Traversal::toList)
+            .<ResponseEntity<?>>thenApply(graphPosts -> {
+                final Date now = new Date();
+                final List<Post> posts = graphPosts.stream()
+                    .map(Post::new)
+                    .sorted(Comparator.comparing((Post post) -> post.getPopularity(now)).reversed())
+                    .collect(Collectors.toList());
+
+                final ResponseEntity<?> responseEntity =
+                    ResponseEntity.ok().body(paginatePosts(posts, getPostsRequest));
+
+                metricsService.addSuccessMetric(GET_SHARD_POSTS_METRIC_NAME);
+                metricsService.addLatencyMetric(GET_SHARD_POSTS_METRIC_NAME, System.nanoTime() - startTime);
+                return responseEntity;
+            })
+        );
     }
 
     /**
@@ -405,6 +432,7 @@ public class ShardController {
         if (rG.V().has(SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, shardNameLowercase).hasNext()) {
             return new ResponseEntity<>(HttpStatus.CONFLICT);
         } else {
+            final Date createdAt = new Date();
             wG
                 .addV(SHARD_VERTEX_LABEL)
                     .property(single, SHARD_NAME_PROPERTY, shardNameLowercase)
@@ -416,7 +444,7 @@ public class ShardController {
                         single, SHARD_FEATURED_IMAGE_FILENAME_PROPERTY, ""
                     )
                     .property(single, SHARD_FEATURED_IMAGE_LINK_PROPERTY, "")
-                    .property(single, COMMON_CREATED_AT_PROPERTY, new Date())
+                    .property(single, COMMON_CREATED_AT_PROPERTY, createdAt)
                     .as("newShard")
                 .sideEffect(
                     V()
@@ -435,7 +463,12 @@ public class ShardController {
                     .as("user")
                     .addE(USER_OWNS_SHARD_EDGE_LABEL).from("user").to("newShard")
                     .addE(USER_FOLLOWS_SHARD_EDGE_LABEL).from("user").to("newShard")
+                        .property(T.id, getEdgeId(USER_FOLLOWS_SHARD_EDGE_LABEL, username, shardNameLowercase))
                 .iterate();
+            recentItemService.record(RecentItemType.SHARD, shardNameLowercase, createdAt);
+            searchIndexService.indexShard(
+                shardNameLowercase, createShardRequest.getShardFriendlyName(), createShardRequest.getShardDescription()
+            );
         }
 
         final ResponseEntity<?> responseEntity = new ResponseEntity<>(HttpStatus.CREATED);
@@ -469,18 +502,20 @@ public class ShardController {
         }
 
         final String shardNameLowercase = updateShardRequest.getShardName().toLowerCase();
-        if (!rG.V().has(SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, shardNameLowercase).hasNext()) {
+        // The owner and the current inheritance, which newly included Shards and Users are notified relative to
+        final Optional<Map<String, Object>> shardInheritance = rG
+            .V().has(SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, shardNameLowercase)
+            .project(OWNER_USERNAMES, INHERITED_SHARD_NAMES, INHERITED_USERNAMES)
+                .by(in(USER_OWNS_SHARD_EDGE_LABEL).values(USER_USERNAME_PROPERTY).fold())
+                .by(out(SHARD_INHERITS_SHARD_EDGE_LABEL).values(SHARD_NAME_PROPERTY).fold())
+                .by(out(SHARD_INHERITS_USER_EDGE_LABEL).values(USER_USERNAME_PROPERTY).fold())
+            .tryNext();
+        if (shardInheritance.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
 
-        final String shardOwnerUsername = (String) rG
-            .V().has(SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, shardNameLowercase)
-            .in(USER_OWNS_SHARD_EDGE_LABEL)
-            .values(USER_USERNAME_PROPERTY)
-            .next();
-
         final String callingUsernameLowercase = accessTokenService.getUsernameFromAccessToken(accessToken);
-        if (!shardOwnerUsername.equals(callingUsernameLowercase)) {
+        if (!((Collection<String>) shardInheritance.get().get(OWNER_USERNAMES)).contains(callingUsernameLowercase)) {
             return new ResponseEntity<>(HttpStatus.FORBIDDEN);
         }
 
@@ -493,41 +528,37 @@ public class ShardController {
             .map(String::toLowerCase)
             .collect(Collectors.toSet());
 
-        Set<String> currentlyIncludedShardNames = rG
-            .V().has(SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, shardNameLowercase)
-            .out(SHARD_INHERITS_SHARD_EDGE_LABEL)
-            .values(SHARD_NAME_PROPERTY)
-            .toSet()
-            .stream()
-            .map(shardName -> (String) shardName)
-            .collect(Collectors.toSet());
-        Set<String> currentlyIncludedUsernames = rG
-            .V().has(SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, shardNameLowercase)
-            .out(SHARD_INHERITS_USER_EDGE_LABEL)
-            .values(USER_USERNAME_PROPERTY)
-            .toSet()
-            .stream()
-            .map(username -> (String) username)
-            .collect(Collectors.toSet());
+        final Set<String> currentlyIncludedShardNames =
+            new HashSet<>((Collection<String>) shardInheritance.get().get(INHERITED_SHARD_NAMES));
+        final Set<String> currentlyIncludedUsernames =
+            new HashSet<>((Collection<String>) shardInheritance.get().get(INHERITED_USERNAMES));
 
+        // Only the inheritance edges which change are dropped or added. The change is worked out against the writer
+        // rather than the read above, which may lag, so that an edge is never duplicated.
         wG
             .V().has(SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, shardNameLowercase).as("shard")
             .sideEffect(
-                outE(SHARD_INHERITS_SHARD_EDGE_LABEL).drop()
+                outE(SHARD_INHERITS_SHARD_EDGE_LABEL)
+                    .where(inV().has(SHARD_NAME_PROPERTY, P.without(inheritedShardNamesLowercase)))
+                    .drop()
             )
             .sideEffect(
-                outE(SHARD_INHERITS_USER_EDGE_LABEL).drop()
+                outE(SHARD_INHERITS_USER_EDGE_LABEL)
+                    .where(inV().has(USER_USERNAME_PROPERTY, P.without(inheritedUsersLowercase)))
+                    .drop()
             )
             .sideEffect(
                 V()
                     .hasLabel(SHARD_VERTEX_LABEL)
                     .has(SHARD_NAME_PROPERTY, P.within(inheritedShardNamesLowercase))
+                    .not(in(SHARD_INHERITS_SHARD_EDGE_LABEL).where(P.eq("shard")))
                     .addE(SHARD_INHERITS_SHARD_EDGE_LABEL).from("shard")
             )
             .sideEffect(
                 V()
                     .hasLabel(USER_VERTEX_LABEL)
                     .has(USER_USERNAME_PROPERTY, P.within(inheritedUsersLowercase))
+                    .not(in(SHARD_INHERITS_USER_EDGE_LABEL).where(P.eq("shard")))
                     .addE(SHARD_INHERITS_USER_EDGE_LABEL).from("shard")
             )
             .property(single, SHARD_FRIENDLY_NAME_PROPERTY, updateShardRequest.getShardFriendlyName())
@@ -539,6 +570,9 @@ public class ShardController {
             )
             .property(single, SHARD_FEATURED_IMAGE_LINK_PROPERTY, updateShardRequest.getShardFeaturedImageLink())
             .iterate();
+        searchIndexService.indexShard(
+            shardNameLowercase, updateShardRequest.getShardFriendlyName(), updateShardRequest.getShardDescription()
+        );
 
         try {
             sendShardUpdateNotifications(
@@ -575,29 +609,26 @@ public class ShardController {
         Set<String> newlyIncludedProfileUsernames = new HashSet<>(inheritedUsersLowercase);
         newlyIncludedProfileUsernames.removeAll(currentlyIncludedUsernames);
 
-        final Set<Shard> newlyIncludedShards = rG
-            .V().has(SHARD_NAME_PROPERTY, P.within(newlyIncludedShardNames))
-            .flatMap(projectToShard(callingUsernameLowercase))
-            .toSet()
-            .stream()
-            .map(Shard::new)
-            .collect(Collectors.toSet());
+        final List<Map<String, Object>> newlyIncludedShards = rG
+            .V().has(SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, P.within(newlyIncludedShardNames))
+            .project(SHARD_NAME_PROPERTY, OWNER_USERNAMES)
+                .by(SHARD_NAME_PROPERTY)
+                .by(in(USER_OWNS_SHARD_EDGE_LABEL).values(USER_USERNAME_PROPERTY).fold())
+            .toList();
 
         final Set<Notification> notifications = new HashSet<>();
-        notifications.addAll(
-            newlyIncludedShards.stream()
-                .map(
-                    shard ->
-                        OwnedShardInclusionNotification.builder()
-                            .notificationId(UUID.randomUUID().toString())
-                            .toUsername(shard.getOwnerUsername())
-                            .createdAt(new Date())
-                            .fromUsername(callingUsernameLowercase)
-                            .isRead(false)
-                            .includedShardName(shard.getShardName())
-                            .includingShardName(shardNameLowercase)
-                            .build()
-                ).collect(Collectors.toSet())
+        newlyIncludedShards.forEach(shard ->
+            ((Collection<String>) shard.get(OWNER_USERNAMES)).forEach(ownerUsername -> notifications.add(
+                OwnedShardInclusionNotification.builder()
+                    .notificationId(UUID.randomUUID().toString())
+                    .toUsername(ownerUsername)
+                    .createdAt(new Date())
+                    .fromUsername(callingUsernameLowercase)
+                    .isRead(false)
+                    .includedShardName((String) shard.get(SHARD_NAME_PROPERTY))
+                    .includingShardName(shardNameLowercase)
+                    .build()
+            ))
         );
         notifications.addAll(
             newlyIncludedProfileUsernames
@@ -617,7 +648,21 @@ public class ShardController {
         notificationService.notifyBatch(notifications);
     }
 
-    private GraphTraversal<Vertex, Vertex> getAllPostsInShard(final String shardName) {
+    /**
+     * @return HTTP 404 Not Found if the Shard doesn't exist, otherwise the response of the given request.
+     */
+    private CompletableFuture<ResponseEntity<?>> whenShardExists(
+        final String shardNameLowercase,
+        final Supplier<CompletableFuture<ResponseEntity<?>>> request) {
+        return asyncTraversalService
+            .submit(rG.V().has(SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, shardNameLowercase), Traversal::hasNext)
+            .<ResponseEntity<?>>thenCompose(doesShardExist -> doesShardExist
+                ? request.get()
+                : CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.NOT_FOUND)))
+            .exceptionally(AsyncTraversalService::serviceUnavailableIfRejected);
+    }
+
+    GraphTraversal<Vertex, Vertex> getAllPostsInShard(final String shardName) {
         return rG
             .V().has(SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, shardName)
             .emit()
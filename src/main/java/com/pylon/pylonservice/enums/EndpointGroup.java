@@ -0,0 +1,22 @@
+package com.pylon.pylonservice.enums;
+
+/**
+ * Groups of endpoints with similar cost, each given its own concurrency limit.
+ */
+public enum EndpointGroup {
+    // Traversals over follows, inheritance or whole listings, whose cost grows with the graph
+    EXPENSIVE("Expensive"),
+    // Lookups by key, authentication and health checks
+    CHEAP("Cheap"),
+    DEFAULT("Default");
+
+    private final String metricName;
+
+    EndpointGroup(String metricName) {
+        this.metricName = metricName;
+    }
+
+    public String getMetricName() {
+        return metricName;
+    }
+}
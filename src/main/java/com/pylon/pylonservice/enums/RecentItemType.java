@@ -0,0 +1,10 @@
+package com.pylon.pylonservice.enums;
+
+/**
+ * The kinds of items listed newest first by the /all endpoints.
+ */
+public enum RecentItemType {
+    SHARD,
+    PROFILE,
+    POST
+}
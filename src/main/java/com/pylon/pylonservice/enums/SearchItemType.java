@@ -0,0 +1,10 @@
+package com.pylon.pylonservice.enums;
+
+/**
+ * The kinds of items found by the /search endpoints.
+ */
+public enum SearchItemType {
+    SHARD,
+    PROFILE,
+    POST
+}
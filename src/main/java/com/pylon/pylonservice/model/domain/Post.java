@@ -15,10 +15,12 @@ import static com.pylon.pylonservice.constants.GraphConstants.POST_BODY_PROPERTY
 import static com.pylon.pylonservice.constants.GraphConstants.POST_COMMENT_ON_POST_EDGE_LABEL;
 import static com.pylon.pylonservice.constants.GraphConstants.POST_CONTENT_URL_PROPERTY;
 import static com.pylon.pylonservice.constants.GraphConstants.POST_ID_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_NUM_LIKES_PROPERTY;
 import static com.pylon.pylonservice.constants.GraphConstants.POST_FILENAME_PROPERTY;
 import static com.pylon.pylonservice.constants.GraphConstants.POST_POSTED_IN_SHARD_EDGE_LABEL;
 import static com.pylon.pylonservice.constants.GraphConstants.POST_POSTED_IN_USER_EDGE_LABEL;
 import static com.pylon.pylonservice.constants.GraphConstants.POST_TITLE_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_TOP_LEVEL_POST_ID_PROPERTY;
 import static com.pylon.pylonservice.constants.GraphConstants.SHARD_NAME_PROPERTY;
 import static com.pylon.pylonservice.constants.GraphConstants.USER_AVATAR_FILENAME_PROPERTY;
 import static com.pylon.pylonservice.constants.GraphConstants.USER_FRIENDLY_NAME_PROPERTY;
@@ -27,6 +29,7 @@ import static com.pylon.pylonservice.constants.GraphConstants.USER_UPVOTED_POST_
 import static com.pylon.pylonservice.constants.GraphConstants.USER_USERNAME_PROPERTY;
 import static com.pylon.pylonservice.constants.GraphConstants.USER_VERIFIED_PROPERTY;
 import static com.pylon.pylonservice.constants.GraphConstants.USER_VERTEX_LABEL;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.coalesce;
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.in;
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.out;
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.outE;
@@ -34,6 +37,7 @@ import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.projec
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.repeat;
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.unfold;
 import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.valueMap;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.values;
 
 /**
  * {
@@ -163,7 +167,8 @@ public class Post implements Serializable {
             POST_LIKED_BY_USER, REPLIED_TO_USERNAME, REPLIED_TO_FRIENDLY_NAME, REPLIED_TO_AVATAR_FILENAME,
             POSTED_IN_SHARD, POSTED_IN_USER, COMMENT_ON_POST, TOP_LEVEL_POST_ID)
             .by(valueMap().by(unfold()))
-            .by(in(USER_UPVOTED_POST_EDGE_LABEL).count())
+            // Posts which have not been voted on since the like count was introduced only have their edges
+            .by(coalesce(values(POST_NUM_LIKES_PROPERTY), in(USER_UPVOTED_POST_EDGE_LABEL).count()))
             .by(
                 repeat(in(POST_COMMENT_ON_POST_EDGE_LABEL))
                     .emit()
@@ -197,11 +202,22 @@ public class Post implements Serializable {
             .by(out(POST_POSTED_IN_SHARD_EDGE_LABEL).values(SHARD_NAME_PROPERTY).fold())
             .by(out(POST_POSTED_IN_USER_EDGE_LABEL).values(USER_USERNAME_PROPERTY).fold())
             .by(out(POST_COMMENT_ON_POST_EDGE_LABEL).values(POST_ID_PROPERTY).fold())
-            .by(
-                repeat(out(POST_COMMENT_ON_POST_EDGE_LABEL))
-                    .until(outE(POST_COMMENT_ON_POST_EDGE_LABEL).count().is(0))
-                    .values(POST_ID_PROPERTY).fold()
-            );
+            .by(traverseToTopLevelPostId().fold());
+    }
+
+    /**
+     * @return The postId of the top level Post of the Post's comment tree, which is its own postId if it is a top level
+     *         Post. Read from the Post if it was stamped with it when created or by {@link
+     *         com.pylon.pylonservice.services.PostTopLevelBackfillRunner}, otherwise found by walking up the tree.
+     */
+    public static GraphTraversal<Object, Object> traverseToTopLevelPostId() {
+        return coalesce(
+            values(POST_TOP_LEVEL_POST_ID_PROPERTY),
+            repeat(out(POST_COMMENT_ON_POST_EDGE_LABEL))
+                .until(outE(POST_COMMENT_ON_POST_EDGE_LABEL).count().is(0))
+                .values(POST_ID_PROPERTY),
+            values(POST_ID_PROPERTY)
+        );
     }
 
     public void addComment(final Post post) {
@@ -1,5 +1,6 @@
 package com.pylon.pylonservice.model.domain.notification;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.pylon.pylonservice.enums.NotificationType;
 import com.pylon.pylonservice.model.tables.DatabaseNotification;
 import lombok.Builder;
@@ -7,11 +8,14 @@ import lombok.EqualsAndHashCode;
 import lombok.Value;
 
 import java.util.Date;
+import java.util.Set;
 
 @Value
 @EqualsAndHashCode(callSuper=true)
 public class PostLikeNotification extends Notification {
     String postId;
+    @JsonIgnore
+    Set<String> aggregatedFromUsernames;
 
     @Builder
     PostLikeNotification(final String notificationId,
@@ -19,9 +23,11 @@ public class PostLikeNotification extends Notification {
                          final Date createdAt,
                          final String fromUsername,
                          final boolean isRead,
-                         final String postId) {
+                         final String postId,
+                         final Set<String> aggregatedFromUsernames) {
         super(notificationId, toUsername, createdAt, fromUsername, isRead, NotificationType.POST_LIKE);
         this.postId = postId;
+        this.aggregatedFromUsernames = aggregatedFromUsernames;
     }
 
     PostLikeNotification(final DatabaseNotification databaseNotification) {
@@ -34,6 +40,14 @@ public class PostLikeNotification extends Notification {
             NotificationType.POST_LIKE
         );
         this.postId = databaseNotification.getPostId();
+        this.aggregatedFromUsernames = databaseNotification.getAggregatedFromUsernames();
+    }
+
+    /**
+     * @return The number of distinct users whose likes are rolled up into this notification, including fromUsername.
+     */
+    public int getNumAggregated() {
+        return aggregatedFromUsernames == null ? 1 : aggregatedFromUsernames.size();
     }
 
     public DatabaseNotification toDatabaseNotification() {
@@ -45,6 +59,7 @@ public class PostLikeNotification extends Notification {
             .isRead(isRead)
             .notificationType(NotificationType.POST_LIKE.getValue())
             .postId(postId)
+            .aggregatedFromUsernames(aggregatedFromUsernames)
             .build();
     }
 }
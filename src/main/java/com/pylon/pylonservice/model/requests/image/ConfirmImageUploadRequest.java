@@ -0,0 +1,21 @@
+package com.pylon.pylonservice.model.requests.image;
+
+import com.pylon.pylonservice.model.requests.Request;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConfirmImageUploadRequest implements Serializable, Request {
+    private static final long serialVersionUID = 0L;
+
+    String filename;
+
+    public boolean isValid() {
+        return filename != null && FILENAME_REGEX_PATTERN.matcher(filename).matches();
+    }
+}
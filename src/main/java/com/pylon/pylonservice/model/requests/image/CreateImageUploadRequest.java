@@ -0,0 +1,24 @@
+package com.pylon.pylonservice.model.requests.image;
+
+import com.pylon.pylonservice.model.requests.Request;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Set;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CreateImageUploadRequest implements Serializable, Request {
+    private static final long serialVersionUID = 0L;
+
+    private static final Set<String> SUPPORTED_CONTENT_TYPES = Set.of("image/png", "image/jpeg", "image/gif");
+
+    String contentType;
+
+    public boolean isValid() {
+        return contentType != null && SUPPORTED_CONTENT_TYPES.contains(contentType);
+    }
+}
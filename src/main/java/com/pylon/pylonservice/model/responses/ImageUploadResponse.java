@@ -4,6 +4,7 @@ import lombok.Builder;
 import lombok.Value;
 
 import java.io.Serializable;
+import java.util.List;
 
 @Builder
 @Value
@@ -11,4 +12,5 @@ public class ImageUploadResponse implements Serializable {
     private static final long serialVersionUID = 0L;
 
     String filename;
+    List<String> variantFilenames;
 }
@@ -0,0 +1,19 @@
+package com.pylon.pylonservice.model.responses;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Map;
+
+@Builder
+@Value
+public class ImageUploadUrlResponse implements Serializable {
+    private static final long serialVersionUID = 0L;
+
+    String filename;
+    String uploadUrl;
+    Map<String, String> uploadHeaders;
+    Date expiresAt;
+}
@@ -0,0 +1,14 @@
+package com.pylon.pylonservice.model.responses;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.io.Serializable;
+
+@Builder
+@Value
+public class UnreadNotificationCountResponse implements Serializable {
+    private static final long serialVersionUID = 0L;
+
+    long numUnread;
+}
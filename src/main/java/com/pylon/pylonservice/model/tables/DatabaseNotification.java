@@ -12,6 +12,7 @@ import lombok.NonNull;
 import lombok.Setter;
 
 import java.util.Date;
+import java.util.Set;
 
 @AllArgsConstructor
 @Builder
@@ -32,6 +33,7 @@ public class DatabaseNotification {
     String commentPostId;
     String includedShardName;
     String includingShardName;
+    Set<String> aggregatedFromUsernames;
 
     @DynamoDBHashKey
     public String getNotificationId() {
@@ -84,4 +86,9 @@ public class DatabaseNotification {
     public String getIncludingShardName() {
         return includingShardName;
     }
+
+    @DynamoDBAttribute
+    public Set<String> getAggregatedFromUsernames() {
+        return aggregatedFromUsernames;
+    }
 }
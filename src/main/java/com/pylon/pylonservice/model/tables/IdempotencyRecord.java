@@ -0,0 +1,63 @@
+package com.pylon.pylonservice.model.tables;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBAttribute;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBHashKey;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.Setter;
+
+@AllArgsConstructor
+@Builder
+@NoArgsConstructor
+@Setter
+@DynamoDBTable(tableName = "-IdempotencyRecord")
+public class IdempotencyRecord {
+    @NonNull
+    String idempotencyKey;
+    // Base64 SHA-256 of the request body, so that a key reused for a different request is rejected
+    @NonNull
+    String requestBodyHash;
+    boolean isComplete;
+    int responseStatus;
+    String responseContentType;
+    byte[] responseBody;
+    long ttl;
+
+    @DynamoDBHashKey
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    @DynamoDBAttribute
+    public String getRequestBodyHash() {
+        return requestBodyHash;
+    }
+
+    @DynamoDBAttribute
+    public boolean isComplete() {
+        return isComplete;
+    }
+
+    @DynamoDBAttribute
+    public int getResponseStatus() {
+        return responseStatus;
+    }
+
+    @DynamoDBAttribute
+    public String getResponseContentType() {
+        return responseContentType;
+    }
+
+    @DynamoDBAttribute
+    public byte[] getResponseBody() {
+        return responseBody;
+    }
+
+    @DynamoDBAttribute
+    public long getTtl() {
+        return ttl;
+    }
+}
@@ -0,0 +1,42 @@
+package com.pylon.pylonservice.model.tables;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBAttribute;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBHashKey;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBRangeKey;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.Setter;
+
+/**
+ * An index of the shards, profiles and top level posts, newest first, for the /all endpoints. The recencyKey is the
+ * item's creation time in zero padded epoch millis then its id, so it sorts by creation time and is unique.
+ */
+@AllArgsConstructor
+@Builder
+@NoArgsConstructor
+@Setter
+@DynamoDBTable(tableName = "-RecentItem")
+public class RecentItem {
+    @NonNull
+    String itemType;
+    String recencyKey;
+    String itemId;
+
+    @DynamoDBHashKey
+    public String getItemType() {
+        return itemType;
+    }
+
+    @DynamoDBRangeKey
+    public String getRecencyKey() {
+        return recencyKey;
+    }
+
+    @DynamoDBAttribute
+    public String getItemId() {
+        return itemId;
+    }
+}
@@ -0,0 +1,14 @@
+package com.pylon.pylonservice.pojo;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Builder
+@Value
+public class RecentItemPage {
+    List<String> itemIds;
+    // null on the last page
+    String nextCursor;
+}
@@ -0,0 +1,13 @@
+package com.pylon.pylonservice.pojo;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Builder
+@Value
+public class SearchResult {
+    // shardName, username or postId
+    String itemId;
+    // shardFriendlyName, userFriendlyName or postTitle
+    String displayName;
+}
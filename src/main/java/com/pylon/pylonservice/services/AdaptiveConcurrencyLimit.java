@@ -0,0 +1,87 @@
+package com.pylon.pylonservice.services;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A concurrency limit which adapts to how the work it admits is doing, additive increase, multiplicative decrease.
+ *
+ * Each request that completes within the latency threshold, while at least half the limit is in use, raises the limit
+ * by one. Each request that is slower, or fails, cuts the limit by the backoff ratio. The limit so settles near the
+ * most concurrency the backend serves at acceptable latency, and falls as soon as the backend slows down, within
+ * [minLimit, maxLimit].
+ */
+public class AdaptiveConcurrencyLimit {
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final AtomicInteger numInFlight = new AtomicInteger();
+
+    // Changed only while synchronized on this; tryAcquire reads the volatile whole number copy
+    private double limit;
+    private volatile int currentLimit;
+
+    public AdaptiveConcurrencyLimit(final int initialLimit, final int minLimit, final int maxLimit,
+                                    final Duration latencyThreshold, final double backoffRatio) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException(String.format(
+                "Expected 1 <= minLimit <= initialLimit <= maxLimit but got %d, %d, %d",
+                minLimit, initialLimit, maxLimit
+            ));
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException(String.format("Expected 0 < backoffRatio < 1 but got %s", backoffRatio));
+        }
+
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.limit = initialLimit;
+        this.currentLimit = initialLimit;
+    }
+
+    /**
+     * Never waits. Every successful call must be paired with a call to {@link #release(long, boolean)}.
+     *
+     * @return true if the request was admitted, false if the limit is reached.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            final int currentNumInFlight = numInFlight.get();
+            if (currentNumInFlight >= currentLimit) {
+                return false;
+            }
+            if (numInFlight.compareAndSet(currentNumInFlight, currentNumInFlight + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param latencyNanos How long the admitted request took.
+     * @param didFail Whether the request failed in a way that suggests the backend is overloaded.
+     */
+    public void release(final long latencyNanos, final boolean didFail) {
+        final int numInFlightBeforeRelease = numInFlight.getAndDecrement();
+
+        synchronized (this) {
+            if (didFail || latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (numInFlightBeforeRelease * 2 >= limit) {
+                // A limit that isn't being used says nothing about whether more concurrency would be served well
+                limit = Math.min(maxLimit, limit + 1);
+            }
+            currentLimit = (int) limit;
+        }
+    }
+
+    public int getLimit() {
+        return currentLimit;
+    }
+
+    public int getNumInFlight() {
+        return numInFlight.get();
+    }
+}
@@ -0,0 +1,82 @@
+package com.pylon.pylonservice.services;
+
+import org.apache.tinkerpop.gremlin.process.remote.traversal.strategy.decoration.RemoteStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Runs graph traversals for endpoints that return a {@link CompletableFuture}, which Spring handles as an async
+ * servlet request, so that the Tomcat thread is released while the traversal waits on the graph.
+ *
+ * With async request execution enabled, traversals against Neptune are submitted through the driver without blocking
+ * a thread, and the terminal step, along with everything after it, continues on the async request executor. Other
+ * traversals, such as against the in memory graph, run on that executor. When disabled, the traversal blocks the
+ * calling Tomcat thread as every other endpoint does, but the endpoint's already completed future still goes through
+ * Spring's async dispatch, which adds a second pass through the filter chain.
+ */
+@Service
+public class AsyncTraversalService {
+    private final boolean isAsyncRequestExecutionEnabled;
+    private final ExecutorService asyncRequestExecutor;
+
+    public AsyncTraversalService(
+        @Value("${async.request.execution.enabled}") final boolean isAsyncRequestExecutionEnabled,
+        @Qualifier("asyncRequestExecutor") final ExecutorService asyncRequestExecutor) {
+        this.isAsyncRequestExecutionEnabled = isAsyncRequestExecutionEnabled;
+        this.asyncRequestExecutor = asyncRequestExecutor;
+    }
+
+    /**
+     * @param traversal The traversal to run.
+     * @param terminalStep What to do with the traversal, such as Traversal::toList.
+     *
+     * @return The result of the terminal step. Completes exceptionally with a {@link RejectedExecutionException} if
+     *         the async request executor is full.
+     */
+    public <S, E, T> CompletableFuture<T> submit(final Traversal<S, E> traversal,
+                                                 final Function<Traversal<S, E>, T> terminalStep) {
+        try {
+            if (!isAsyncRequestExecutionEnabled) {
+                return CompletableFuture.completedFuture(terminalStep.apply(traversal));
+            }
+
+            if (traversal.asAdmin().getStrategies().getStrategy(RemoteStrategy.class).isPresent()) {
+                // The driver completes the promise on its own threads, which must not be kept busy with our work, the
+                // terminal step included
+                return traversal.promise(Function.<Traversal<S, E>>identity())
+                    .thenApplyAsync(terminalStep, asyncRequestExecutor);
+            }
+            return CompletableFuture.supplyAsync(() -> terminalStep.apply(traversal), asyncRequestExecutor);
+        } catch (final RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * For use with {@link CompletableFuture#exceptionally(Function)} on an endpoint's response.
+     *
+     * @return HTTP 503 Service Unavailable if the request was rejected by a full async request executor. Otherwise
+     *         rethrows, for Spring to handle as it would a synchronous endpoint's exception.
+     */
+    public static ResponseEntity<?> serviceUnavailableIfRejected(final Throwable throwable) {
+        final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+            ? throwable.getCause()
+            : throwable;
+        if (cause instanceof RejectedExecutionException) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        throw throwable instanceof CompletionException
+            ? (CompletionException) throwable
+            : new CompletionException(throwable);
+    }
+}
@@ -0,0 +1,77 @@
+package com.pylon.pylonservice.services;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+import com.pylon.pylonservice.enums.EndpointGroup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps a separate {@link AdaptiveConcurrencyLimit} for each group of endpoints, so that when the graph slows down,
+ * the expensive endpoints backing up on it are turned away before they take every request thread from the cheap ones.
+ *
+ * Each group is configured by concurrency.limit.[group].initial, .min, .max and .latency.threshold.millis.
+ */
+@Service
+public class ConcurrencyLimitService {
+    private static final String LIMIT_METRIC_NAME_FORMAT = "%sConcurrencyLimit";
+    private static final String IN_FLIGHT_METRIC_NAME_FORMAT = "%sConcurrencyInFlight";
+
+    private final Map<EndpointGroup, AdaptiveConcurrencyLimit> limits;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    ConcurrencyLimitService(final Environment environment,
+                            @Value("${concurrency.limit.backoff.ratio}") final double backoffRatio) {
+        this.limits = Arrays.stream(EndpointGroup.values())
+            .collect(Collectors.toMap(
+                Function.identity(),
+                endpointGroup -> newLimit(environment, endpointGroup, backoffRatio),
+                (first, second) -> first,
+                () -> new EnumMap<>(EndpointGroup.class)
+            ));
+    }
+
+    public AdaptiveConcurrencyLimit getLimit(final EndpointGroup endpointGroup) {
+        return limits.get(endpointGroup);
+    }
+
+    @Scheduled(fixedDelayString = "${concurrency.limit.metrics.interval.millis}")
+    public void addLimitMetrics() {
+        limits.forEach((endpointGroup, limit) -> {
+            metricsService.addGaugeMetric(
+                String.format(LIMIT_METRIC_NAME_FORMAT, endpointGroup.getMetricName()),
+                limit.getLimit(),
+                StandardUnit.Count
+            );
+            metricsService.addGaugeMetric(
+                String.format(IN_FLIGHT_METRIC_NAME_FORMAT, endpointGroup.getMetricName()),
+                limit.getNumInFlight(),
+                StandardUnit.Count
+            );
+        });
+    }
+
+    private static AdaptiveConcurrencyLimit newLimit(final Environment environment,
+                                                     final EndpointGroup endpointGroup,
+                                                     final double backoffRatio) {
+        final String prefix = String.format("concurrency.limit.%s.", endpointGroup.name().toLowerCase());
+        return new AdaptiveConcurrencyLimit(
+            environment.getRequiredProperty(prefix + "initial", Integer.class),
+            environment.getRequiredProperty(prefix + "min", Integer.class),
+            environment.getRequiredProperty(prefix + "max", Integer.class),
+            Duration.ofMillis(environment.getRequiredProperty(prefix + "latency.threshold.millis", Long.class)),
+            backoffRatio
+        );
+    }
+}
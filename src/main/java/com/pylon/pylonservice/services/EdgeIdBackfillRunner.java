@@ -0,0 +1,139 @@
+package com.pylon.pylonservice.services;
+
+import lombok.extern.log4j.Log4j2;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.pylon.pylonservice.constants.GraphConstants.POST_ID_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_VERTEX_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_NAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_VERTEX_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_FOLLOWS_SHARD_EDGE_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_FOLLOWS_USER_EDGE_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_PINNED_POST_EDGE_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_UPVOTED_POST_EDGE_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_USERNAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_VERTEX_LABEL;
+import static com.pylon.pylonservice.util.EdgeIdUtil.getEdgeId;
+import static org.apache.tinkerpop.gremlin.process.traversal.P.gt;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.V;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.inV;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.unfold;
+
+/**
+ * One-off migration which gives follow, upvote and pin edges created before they had deterministic ids the id
+ * {@link com.pylon.pylonservice.util.EdgeIdUtil#getEdgeId(String, String, String)} would give them. Edge ids cannot be
+ * changed, so each such edge is recreated with the new id and the old edge dropped. Running it again, or alongside
+ * traffic, only skips the edges which already have their new id.
+ *
+ * Until it has run, graph.edge.id.legacy.lookup.enabled must stay true so that edges without their new id are still
+ * found by the old label and vertex lookups.
+ *
+ * Disabled unless graph.edge.id.backfill.enabled is true. It only needs to run on a single node, once.
+ */
+@Log4j2
+@Service
+@ConditionalOnProperty(name = "graph.edge.id.backfill.enabled", havingValue = "true")
+public class EdgeIdBackfillRunner implements ApplicationRunner {
+    private static final String EDGE_ID = "edgeId";
+    private static final String EDGE_LABEL = "edgeLabel";
+    private static final String TO_KEY = "toKey";
+    private static final int USERS_PAGE_SIZE = 1000;
+    private static final Map<String, String> EDGE_LABEL_TO_TO_VERTEX_LABEL = Map.of(
+        USER_FOLLOWS_USER_EDGE_LABEL, USER_VERTEX_LABEL,
+        USER_FOLLOWS_SHARD_EDGE_LABEL, SHARD_VERTEX_LABEL,
+        USER_UPVOTED_POST_EDGE_LABEL, POST_VERTEX_LABEL,
+        USER_PINNED_POST_EDGE_LABEL, POST_VERTEX_LABEL
+    );
+    private static final Map<String, String> VERTEX_LABEL_TO_KEY_PROPERTY = Map.of(
+        USER_VERTEX_LABEL, USER_USERNAME_PROPERTY,
+        SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY,
+        POST_VERTEX_LABEL, POST_ID_PROPERTY
+    );
+
+    @Qualifier("writer")
+    @Autowired
+    private GraphTraversalSource wG;
+
+    @Override
+    public void run(final ApplicationArguments args) {
+        log.info("Backfilling edge ids");
+
+        long numUsers = 0;
+        long numMigratedEdges = 0;
+        String lastUsername = "";
+        List<Object> usernames;
+        do {
+            // Users are paged by username, which is unique, so no user is skipped or visited twice
+            usernames = wG
+                .V().hasLabel(USER_VERTEX_LABEL)
+                .has(USER_USERNAME_PROPERTY, gt(lastUsername))
+                .values(USER_USERNAME_PROPERTY)
+                .order()
+                .limit(USERS_PAGE_SIZE)
+                .toList();
+            for (final Object username : usernames) {
+                try {
+                    numMigratedEdges += backfillUserEdgeIds((String) username);
+                } catch (final Exception e) {
+                    log.error(String.format("Failed to backfill edge ids for username %s", username), e);
+                }
+            }
+            numUsers += usernames.size();
+            if (!usernames.isEmpty()) {
+                lastUsername = (String) usernames.get(usernames.size() - 1);
+            }
+        } while (usernames.size() == USERS_PAGE_SIZE);
+
+        log.info(String.format(
+            "Backfilled edge ids for %d edges of %d users. If no user failed, graph.edge.id.legacy.lookup.enabled "
+                + "can be set to false", numMigratedEdges, numUsers
+        ));
+    }
+
+    private long backfillUserEdgeIds(final String username) {
+        // The unique key of the vertex an edge goes into is whichever of the key properties it has
+        final List<Map<String, Object>> edges = wG
+            .V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, username)
+            .outE(EDGE_LABEL_TO_TO_VERTEX_LABEL.keySet().toArray(String[]::new))
+            .project(EDGE_ID, EDGE_LABEL, TO_KEY)
+                .by(T.id)
+                .by(T.label)
+                .by(inV().values(USER_USERNAME_PROPERTY, SHARD_NAME_PROPERTY, POST_ID_PROPERTY))
+            .toList();
+
+        long numMigratedEdges = 0;
+        for (final Map<String, Object> edge : edges) {
+            final String edgeLabel = (String) edge.get(EDGE_LABEL);
+            final String toKey = (String) edge.get(TO_KEY);
+            final String edgeId = getEdgeId(edgeLabel, username, toKey);
+            if (edgeId.equals(edge.get(EDGE_ID))) {
+                continue;
+            }
+
+            final String toVertexLabel = EDGE_LABEL_TO_TO_VERTEX_LABEL.get(edgeLabel);
+            wG
+                .E(edgeId).fold()
+                .coalesce(
+                    unfold(),
+                    V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, username)
+                        .addE(edgeLabel)
+                        .to(V().has(toVertexLabel, VERTEX_LABEL_TO_KEY_PROPERTY.get(toVertexLabel), toKey))
+                        .property(T.id, edgeId)
+                )
+                .iterate();
+            wG.E(edge.get(EDGE_ID)).drop().iterate();
+            numMigratedEdges++;
+        }
+        return numMigratedEdges;
+    }
+}
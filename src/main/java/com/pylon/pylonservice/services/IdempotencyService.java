@@ -0,0 +1,144 @@
+package com.pylon.pylonservice.services;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBSaveExpression;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pylon.pylonservice.model.tables.IdempotencyRecord;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Remembers the response to each write made with an Idempotency-Key so that a retried request is answered from the
+ * stored response rather than being executed again.
+ *
+ * A key is first claimed with a short lease, so that a request still in flight is not executed a second time by its
+ * own retry and a request whose instance died does not hold its key for long. Once the request succeeds, the record
+ * is completed with the response and kept for the full TTL.
+ */
+@Log4j2
+@Service
+public class IdempotencyService {
+    // Claims whose lease has run out are treated as absent, since DynamoDB may not delete expired items for days
+    private static final String CLAIM_CONDITION_EXPRESSION = "attribute_not_exists(idempotencyKey) OR #ttl < :v_now";
+    private static final long COMPLETED_RECORD_CACHE_MAX_SIZE = 100_000;
+
+    private final Duration claimLease;
+    private final Duration recordTtl;
+    private final Cache<String, IdempotencyRecord> completedRecordCache;
+
+    @Autowired
+    private DynamoDBMapper dynamoDBMapper;
+
+    public IdempotencyService(@Value("${idempotency.claim.lease.seconds}") final long claimLeaseSeconds,
+                              @Value("${idempotency.record.ttl.hours}") final long recordTtlHours) {
+        this.claimLease = Duration.ofSeconds(claimLeaseSeconds);
+        this.recordTtl = Duration.ofHours(recordTtlHours);
+        this.completedRecordCache = Caffeine.newBuilder()
+            .expireAfterWrite(recordTtl)
+            .maximumSize(COMPLETED_RECORD_CACHE_MAX_SIZE)
+            .build();
+    }
+
+    /**
+     * Claims an idempotency key for the calling request.
+     *
+     * @param requestBodyHash The hash of the calling request's body, stored with the claim so that retries can be
+     *                        checked against it.
+     *
+     * @return Empty if the key was claimed and the request should be executed. Otherwise the existing record, which
+     *         is either complete with the response to replay or still in progress on another request.
+     */
+    public Optional<IdempotencyRecord> claim(final String idempotencyKey, final String requestBodyHash) {
+        final IdempotencyRecord cachedRecord = completedRecordCache.getIfPresent(idempotencyKey);
+        if (cachedRecord != null) {
+            return Optional.of(cachedRecord);
+        }
+
+        final Instant now = Instant.now();
+        try {
+            dynamoDBMapper.save(
+                IdempotencyRecord.builder()
+                    .idempotencyKey(idempotencyKey)
+                    .requestBodyHash(requestBodyHash)
+                    .isComplete(false)
+                    .ttl(now.plus(claimLease).getEpochSecond())
+                    .build(),
+                new DynamoDBSaveExpression()
+                    .withConditionExpression(CLAIM_CONDITION_EXPRESSION)
+                    .withExpressionAttributeNames(Map.of("#ttl", "ttl"))
+                    .withExpressionAttributeValues(
+                        Map.of(":v_now", new AttributeValue().withN(Long.toString(now.getEpochSecond())))
+                    )
+            );
+            return Optional.empty();
+        } catch (final ConditionalCheckFailedException e) {
+            final IdempotencyRecord existingRecord = dynamoDBMapper.load(IdempotencyRecord.class, idempotencyKey);
+            if (existingRecord == null) {
+                // Released between our claim attempt and the load, so report it as in progress and let the client
+                // retry rather than racing for it again
+                return Optional.of(
+                    IdempotencyRecord.builder()
+                        .idempotencyKey(idempotencyKey)
+                        .requestBodyHash(requestBodyHash)
+                        .isComplete(false)
+                        .build()
+                );
+            }
+            if (existingRecord.isComplete()) {
+                completedRecordCache.put(idempotencyKey, existingRecord);
+            }
+            return Optional.of(existingRecord);
+        }
+    }
+
+    /**
+     * Stores the response to a claimed request so that it can be replayed to retries.
+     */
+    public void complete(final String idempotencyKey,
+                         final String requestBodyHash,
+                         final int responseStatus,
+                         final String responseContentType,
+                         final byte[] responseBody) {
+        final IdempotencyRecord record = IdempotencyRecord.builder()
+            .idempotencyKey(idempotencyKey)
+            .requestBodyHash(requestBodyHash)
+            .isComplete(true)
+            .responseStatus(responseStatus)
+            .responseContentType(responseContentType)
+            .responseBody(responseBody.length == 0 ? null : responseBody)
+            .ttl(Instant.now().plus(recordTtl).getEpochSecond())
+            .build();
+
+        completedRecordCache.put(idempotencyKey, record);
+        try {
+            dynamoDBMapper.save(record);
+        } catch (final Exception e) {
+            // The write already happened, so only retries landing on another instance will re-execute
+            log.error(String.format("Failed to store idempotency record %s", idempotencyKey), e);
+        }
+    }
+
+    /**
+     * Gives up a claimed key after a failed request so that a retry is executed again.
+     */
+    public void release(final String idempotencyKey, final String requestBodyHash) {
+        try {
+            dynamoDBMapper.delete(
+                IdempotencyRecord.builder().idempotencyKey(idempotencyKey).requestBodyHash(requestBodyHash).build()
+            );
+        } catch (final Exception e) {
+            // The claim lease will run out on its own
+            log.error(String.format("Failed to release idempotency record %s", idempotencyKey), e);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.pylon.pylonservice.services;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.CannedAccessControlList;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+/**
+ * Generates downscaled variants of uploaded images. Variants are re-encoded from decoded pixels, so they carry no
+ * EXIF or other metadata from the original. A variant of image "{uuid}.{ext}" with width w is stored as
+ * "{uuid}_{w}.{ext}". Variants are never wider than the original.
+ */
+@Log4j2
+@Service
+public class ImageProcessingService {
+    public static final List<Integer> VARIANT_WIDTHS = List.of(128, 256, 512, 1024);
+    private static final int MAX_VARIANT_WIDTH = Collections.max(VARIANT_WIDTHS);
+    private static final String VARIANT_WIDTH_DELIMITER = "_";
+    private static final String CACHE_CONTROL = "max-age=31536000";
+    // Animated gifs would lose their animation when re-encoded through ImageIO, so they are served as uploaded
+    private static final Map<String, String> FILE_EXTENSION_TO_VARIANT_FORMAT_MAPPING = Map.of(
+        "png", "png",
+        "jpg", "jpeg"
+    );
+    private static final Map<String, String> FILE_EXTENSION_TO_MIME_TYPE_MAPPING = Map.of(
+        "png", "image/png",
+        "jpg", "image/jpeg"
+    );
+
+    static {
+        // Decode and encode in memory rather than through temp files in the working directory
+        ImageIO.setUseCache(false);
+    }
+
+    @Autowired
+    private AmazonS3 amazonS3;
+    @Qualifier("imageProcessingExecutor")
+    @Autowired
+    private ExecutorService imageProcessingExecutor;
+
+    private final String imageBucketName;
+
+    ImageProcessingService(@Value("${environment.name}") final String environmentName,
+                           @Value("${image.bucket.name}") final String imageBucketName) {
+        this.imageBucketName = String.format("%s-%s", environmentName, imageBucketName);
+    }
+
+    /**
+     * @return The filenames that variants of filename are generated under, or an empty list if none are generated.
+     */
+    public static List<String> getVariantFilenames(final String filename) {
+        if (!FILE_EXTENSION_TO_VARIANT_FORMAT_MAPPING.containsKey(getFileExtension(filename))) {
+            return List.of();
+        }
+
+        return VARIANT_WIDTHS.stream()
+            .map(width -> getVariantFilename(filename, width))
+            .collect(Collectors.toList());
+    }
+
+    public static String getVariantFilename(final String filename, final int width) {
+        final int extensionIndex = filename.lastIndexOf('.');
+        return String.format(
+            "%s%s%d%s",
+            filename.substring(0, extensionIndex),
+            VARIANT_WIDTH_DELIMITER,
+            width,
+            filename.substring(extensionIndex)
+        );
+    }
+
+    /**
+     * Queues generation of the variants of an image that has already been uploaded to the image bucket. Returns
+     * immediately; if the processing queue is full the image is left without variants.
+     */
+    public void generateVariantsAsync(final String filename) {
+        if (getVariantFilenames(filename).isEmpty()) {
+            return;
+        }
+
+        imageProcessingExecutor.execute(() -> {
+            try {
+                generateVariants(filename);
+            } catch (final Exception e) {
+                log.error(String.format("Failed to generate image variants for filename %s", filename), e);
+            }
+        });
+    }
+
+    private void generateVariants(final String filename) throws IOException {
+        final String fileExtension = getFileExtension(filename);
+        final BufferedImage original = readDownsampled(filename);
+        if (original == null) {
+            log.error(String.format("No image reader could decode filename %s", filename));
+            return;
+        }
+
+        for (final int width : VARIANT_WIDTHS) {
+            final BufferedImage variant = resize(original, Integer.min(width, original.getWidth()), fileExtension);
+
+            final ByteArrayOutputStream variantBytes = new ByteArrayOutputStream();
+            ImageIO.write(variant, FILE_EXTENSION_TO_VARIANT_FORMAT_MAPPING.get(fileExtension), variantBytes);
+
+            final ObjectMetadata objectMetadata = new ObjectMetadata();
+            objectMetadata.setCacheControl(CACHE_CONTROL);
+            objectMetadata.setContentType(FILE_EXTENSION_TO_MIME_TYPE_MAPPING.get(fileExtension));
+            objectMetadata.setContentLength(variantBytes.size());
+            amazonS3.putObject(
+                new PutObjectRequest(
+                    imageBucketName,
+                    getVariantFilename(filename, width),
+                    new ByteArrayInputStream(variantBytes.toByteArray()),
+                    objectMetadata
+                ).withCannedAcl(CannedAccessControlList.PublicRead)
+            );
+        }
+    }
+
+    /**
+     * Decodes the original, skipping rows and columns while decoding so that very large uploads are never held in
+     * memory at full resolution. The result is still at least twice as wide as the widest variant.
+     */
+    private BufferedImage readDownsampled(final String filename) throws IOException {
+        try (final S3Object s3Object = amazonS3.getObject(imageBucketName, filename);
+             final ImageInputStream imageInputStream = ImageIO.createImageInputStream(s3Object.getObjectContent())) {
+            final Iterator<ImageReader> imageReaders = ImageIO.getImageReaders(imageInputStream);
+            if (!imageReaders.hasNext()) {
+                return null;
+            }
+
+            final ImageReader imageReader = imageReaders.next();
+            try {
+                imageReader.setInput(imageInputStream, true, true);
+
+                final int subsampling = Integer.max(1, imageReader.getWidth(0) / (MAX_VARIANT_WIDTH * 2));
+                final ImageReadParam imageReadParam = imageReader.getDefaultReadParam();
+                imageReadParam.setSourceSubsampling(subsampling, subsampling, 0, 0);
+
+                return imageReader.read(0, imageReadParam);
+            } finally {
+                imageReader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Halves the image until it is within a factor of two of the target width before the final bilinear step, which
+     * avoids the aliasing of a single large bilinear downscale.
+     */
+    private static BufferedImage resize(final BufferedImage source, final int targetWidth, final String fileExtension) {
+        // jpeg has no alpha channel
+        final int imageType = "jpg".equals(fileExtension) ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        final int targetHeight =
+            Integer.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Integer.max(targetWidth, currentWidth / 2);
+            currentHeight = Integer.max(targetHeight, currentHeight / 2);
+
+            final BufferedImage next = new BufferedImage(currentWidth, currentHeight, imageType);
+            final Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(
+                    RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR
+                );
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (currentWidth != targetWidth || currentHeight != targetHeight);
+
+        return current;
+    }
+
+    private static String getFileExtension(final String filename) {
+        return filename.substring(filename.lastIndexOf('.') + 1);
+    }
+}
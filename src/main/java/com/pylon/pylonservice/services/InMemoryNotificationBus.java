@@ -0,0 +1,33 @@
+package com.pylon.pylonservice.services;
+
+import com.pylon.pylonservice.model.domain.notification.Notification;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+@Log4j2
+@Service
+public class InMemoryNotificationBus implements NotificationBus {
+    private final List<Consumer<Notification>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(final Notification notification) {
+        for (final Consumer<Notification> subscriber : subscribers) {
+            try {
+                subscriber.accept(notification);
+            } catch (final Exception e) {
+                log.error(String.format(
+                    "Failed to deliver notification %s to a subscriber", notification.getNotificationId()
+                ), e);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(final Consumer<Notification> subscriber) {
+        subscribers.add(subscriber);
+    }
+}
@@ -0,0 +1,74 @@
+package com.pylon.pylonservice.services;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.model.CreateTableRequest;
+import com.amazonaws.services.dynamodbv2.model.Projection;
+import com.amazonaws.services.dynamodbv2.model.ProjectionType;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughput;
+import com.amazonaws.services.dynamodbv2.util.TableUtils;
+import com.pylon.pylonservice.model.tables.CollectedEmail;
+import com.pylon.pylonservice.model.tables.DatabaseNotification;
+import com.pylon.pylonservice.model.tables.EmailUser;
+import com.pylon.pylonservice.model.tables.IdempotencyRecord;
+import com.pylon.pylonservice.model.tables.NotificationCount;
+import com.pylon.pylonservice.model.tables.PasswordReset;
+import com.pylon.pylonservice.model.tables.RecentItem;
+import com.pylon.pylonservice.model.tables.Refresh;
+import com.pylon.pylonservice.model.tables.User;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Creates every table the service uses which doesn't already exist, so that the service can run against an empty
+ * DynamoDB Local. Tables in AWS are created outside of the service, so this is only for local runs and load tests.
+ *
+ * Disabled unless dynamodb.create.tables is true.
+ */
+@Log4j2
+@Service
+@ConditionalOnProperty(name = "dynamodb.create.tables", havingValue = "true")
+public class LocalDynamoDbTableInitializer implements ApplicationRunner {
+    private static final List<Class<?>> TABLE_CLASSES = List.of(
+        CollectedEmail.class,
+        DatabaseNotification.class,
+        EmailUser.class,
+        IdempotencyRecord.class,
+        NotificationCount.class,
+        PasswordReset.class,
+        RecentItem.class,
+        Refresh.class,
+        User.class
+    );
+    // Ignored by DynamoDB Local, but required in the request
+    private static final ProvisionedThroughput PROVISIONED_THROUGHPUT = new ProvisionedThroughput(10L, 10L);
+
+    @Autowired
+    private AmazonDynamoDB amazonDynamoDB;
+    @Autowired
+    private DynamoDBMapper dynamoDBMapper;
+
+    @Override
+    public void run(final ApplicationArguments args) throws InterruptedException {
+        for (final Class<?> tableClass : TABLE_CLASSES) {
+            final CreateTableRequest createTableRequest = dynamoDBMapper.generateCreateTableRequest(tableClass)
+                .withProvisionedThroughput(PROVISIONED_THROUGHPUT);
+            if (createTableRequest.getGlobalSecondaryIndexes() != null) {
+                createTableRequest.getGlobalSecondaryIndexes().forEach(globalSecondaryIndex -> globalSecondaryIndex
+                    .withProvisionedThroughput(PROVISIONED_THROUGHPUT)
+                    .withProjection(new Projection().withProjectionType(ProjectionType.ALL)));
+            }
+
+            if (TableUtils.createTableIfNotExists(amazonDynamoDB, createTableRequest)) {
+                log.info(String.format("Created table %s", createTableRequest.getTableName()));
+            }
+            TableUtils.waitUntilActive(amazonDynamoDB, createTableRequest.getTableName());
+        }
+    }
+}
@@ -9,10 +9,31 @@ import lombok.NonNull;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
-
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes metrics to CloudWatch. Adding a metric only queues it; queued metrics are sent in batches by
+ * {@link #flush()}, so that recording a metric never makes a request wait on CloudWatch.
+ *
+ * Each flush combines the datums of a metric into values and the number of times each was seen, which CloudWatch
+ * aggregates, percentiles included, the same as datums sent one at a time. A full queue drops the metric.
+ */
 @Log4j2
 @Service
 public class MetricsService {
@@ -20,13 +41,21 @@ public class MetricsService {
     private static final String LATENCY_NAMESPACE = "PYLON/LATENCY";
     private static final String COUNT_NAMESPACE = "PYLON/COUNT";
     private static final String SUCCESS_NAMESPACE = "PYLON/SUCCESS";
+    private static final String GAUGE_NAMESPACE = "PYLON/GAUGE";
+    // CloudWatch limits on a single put metric data request
+    static final int MAX_DATUMS_PER_REQUEST = 20;
+    static final int MAX_VALUES_PER_DATUM = 150;
 
     private final Dimension environmentDimension;
+    private final int queueCapacity;
+    private final Map<String, BlockingQueue<MetricDatum>> pendingMetricData = new ConcurrentHashMap<>();
+    private final AtomicLong numDroppedMetrics = new AtomicLong();
 
     @Autowired
     private AmazonCloudWatch amazonCloudWatch;
 
-    MetricsService(@Value("${environment.name}") final String environmentName) {
+    MetricsService(@Value("${environment.name}") final String environmentName,
+                   @Value("${metrics.queue.capacity}") final int queueCapacity) {
         final String dimensionName;
 
         // This is ugly but saves money
@@ -39,14 +68,14 @@ public class MetricsService {
         environmentDimension = new Dimension()
             .withName(ENVIRONMENT_DIMENSION_NAME)
             .withValue(dimensionName);
+        this.queueCapacity = queueCapacity;
     }
 
     public void addLatencyMetric(@NonNull final String metricName, final long nanoTime) {
         final MetricDatum metricDatum = new MetricDatum()
             .withMetricName(metricName)
             .withUnit(StandardUnit.Milliseconds)
-            .withValue((double) TimeUnit.MILLISECONDS.convert(nanoTime, TimeUnit.NANOSECONDS))
-            .withDimensions(environmentDimension);
+            .withValue((double) TimeUnit.MILLISECONDS.convert(nanoTime, TimeUnit.NANOSECONDS));
 
         addMetric(metricDatum, LATENCY_NAMESPACE);
     }
@@ -55,8 +84,7 @@ public class MetricsService {
         final MetricDatum metricDatum = new MetricDatum()
             .withMetricName(metricName)
             .withUnit(StandardUnit.None)
-            .withValue(1D)
-            .withDimensions(environmentDimension);
+            .withValue(1D);
 
         addMetric(metricDatum, COUNT_NAMESPACE);
     }
@@ -65,16 +93,95 @@ public class MetricsService {
         final MetricDatum metricDatum = new MetricDatum()
             .withMetricName(metricName)
             .withUnit(StandardUnit.None)
-            .withValue(1D)
-            .withDimensions(environmentDimension);
+            .withValue(1D);
 
         addMetric(metricDatum, SUCCESS_NAMESPACE);
     }
 
+    public void addGaugeMetric(@NonNull final String metricName, final double value, @NonNull final StandardUnit unit) {
+        final MetricDatum metricDatum = new MetricDatum()
+            .withMetricName(metricName)
+            .withUnit(unit)
+            .withValue(value);
+
+        addMetric(metricDatum, GAUGE_NAMESPACE);
+    }
+
+    /**
+     * Sends every queued metric to CloudWatch. Also runs on shutdown, so that the last interval's metrics are kept.
+     */
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${metrics.flush.interval.millis}")
+    public void flush() {
+        final long numDropped = numDroppedMetrics.getAndSet(0);
+        if (numDropped > 0) {
+            log.warn(String.format("Metrics queue was full, dropped %d metrics", numDropped));
+        }
+
+        pendingMetricData.forEach((namespace, queue) -> {
+            final List<MetricDatum> metricData = new ArrayList<>();
+            queue.drainTo(metricData);
+            if (metricData.isEmpty()) {
+                return;
+            }
+
+            final List<MetricDatum> combinedMetricData = combine(metricData);
+            for (int i = 0; i < combinedMetricData.size(); i += MAX_DATUMS_PER_REQUEST) {
+                putMetricData(
+                    namespace,
+                    combinedMetricData.subList(i, Math.min(i + MAX_DATUMS_PER_REQUEST, combinedMetricData.size()))
+                );
+            }
+        });
+    }
+
     private void addMetric(@NonNull final MetricDatum metricDatum, @NonNull final String namespace) {
+        final BlockingQueue<MetricDatum> queue = pendingMetricData.computeIfAbsent(
+            namespace, key -> new LinkedBlockingQueue<>(queueCapacity)
+        );
+        if (!queue.offer(metricDatum)) {
+            numDroppedMetrics.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return One datum per metric name, unit and up to MAX_VALUES_PER_DATUM distinct values, with the number of times
+     *         each value was seen.
+     */
+    private List<MetricDatum> combine(final List<MetricDatum> metricData) {
+        final Map<List<String>, NavigableMap<Double, Long>> valueCountsByMetric = metricData.stream()
+            .collect(Collectors.groupingBy(
+                metricDatum -> Arrays.asList(metricDatum.getMetricName(), metricDatum.getUnit()),
+                LinkedHashMap::new,
+                Collectors.groupingBy(MetricDatum::getValue, TreeMap::new, Collectors.counting())
+            ));
+
+        final List<MetricDatum> combinedMetricData = new ArrayList<>();
+        valueCountsByMetric.forEach((metric, valueCounts) -> {
+            final List<Double> values = new ArrayList<>(valueCounts.keySet());
+            final List<Double> counts = valueCounts.values().stream()
+                .map(Long::doubleValue)
+                .collect(Collectors.toList());
+
+            for (int i = 0; i < values.size(); i += MAX_VALUES_PER_DATUM) {
+                final int end = Math.min(i + MAX_VALUES_PER_DATUM, values.size());
+                combinedMetricData.add(
+                    new MetricDatum()
+                        .withMetricName(metric.get(0))
+                        .withUnit(metric.get(1))
+                        .withValues(values.subList(i, end))
+                        .withCounts(counts.subList(i, end))
+                        .withDimensions(environmentDimension)
+                );
+            }
+        });
+        return combinedMetricData;
+    }
+
+    private void putMetricData(final String namespace, final List<MetricDatum> metricData) {
         final PutMetricDataRequest putMetricDataRequest = new PutMetricDataRequest()
             .withNamespace(namespace)
-            .withMetricData(metricDatum);
+            .withMetricData(metricData);
 
         try {
             amazonCloudWatch.putMetricData(putMetricDataRequest);
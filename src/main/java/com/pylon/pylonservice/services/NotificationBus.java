@@ -0,0 +1,15 @@
+package com.pylon.pylonservice.services;
+
+import com.pylon.pylonservice.model.domain.notification.Notification;
+
+import java.util.function.Consumer;
+
+/**
+ * Fans persisted notifications out to every node which may be holding a stream for the recipient. Implementations
+ * backed by a cross-node broker can replace {@link InMemoryNotificationBus}, which only reaches the local node.
+ */
+public interface NotificationBus {
+    void publish(Notification notification);
+
+    void subscribe(Consumer<Notification> subscriber);
+}
@@ -1,37 +1,191 @@
 package com.pylon.pylonservice.services;
 
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.CancellationReason;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.ReturnValue;
+import com.amazonaws.services.dynamodbv2.model.ReturnValuesOnConditionCheckFailure;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItem;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItemsRequest;
+import com.amazonaws.services.dynamodbv2.model.TransactionCanceledException;
+import com.amazonaws.services.dynamodbv2.model.Update;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
+import com.amazonaws.util.DateUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pylon.pylonservice.enums.NotificationType;
 import com.pylon.pylonservice.model.domain.notification.Notification;
+import com.pylon.pylonservice.model.domain.notification.PostLikeNotification;
 import com.pylon.pylonservice.model.tables.DatabaseNotification;
+import com.pylon.pylonservice.model.tables.NotificationCount;
+import com.pylon.pylonservice.util.NotificationAggregationUtil;
+import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+@Log4j2
 @Service
 public class NotificationService {
     private static final String USER_NOTIFICATION_GLOBAL_SECONDARY_INDEX = "UserNotification";
+    private static final String NOTIFICATION_TABLE_NAME = "Notification";
+    private static final String NOTIFICATION_COUNT_TABLE_NAME = "NotificationCount";
+    private static final String NOTIFICATION_COUNT_USERNAME_ATTRIBUTE = "username";
+    private static final String ADD_TO_NUM_UNREAD_UPDATE_EXPRESSION = "ADD numUnread :v_delta";
+    private static final String NOTIFICATION_ID_ATTRIBUTE = "notificationId";
+    private static final String TO_USERNAME_ATTRIBUTE = "toUsername";
+    private static final String READ_ATTRIBUTE = "read";
+    private static final String AGGREGATED_FROM_USERNAMES_ATTRIBUTE = "aggregatedFromUsernames";
+    private static final String DYNAMODB_TRUE = "1";
+    private static final String DYNAMODB_FALSE = "0";
+    private static final String AGGREGATE_NOTIFICATION_UPDATE_EXPRESSION =
+        "SET toUsername = :v_toUsername, createdAt = :v_createdAt, fromUsername = :v_fromUsername, " +
+            "#read = :v_read, notificationType = :v_notificationType, postId = :v_postId " +
+            "ADD aggregatedFromUsernames :v_fromUsernames";
+    // Repeated upvote/removeUpvote toggles by the same user must not resurface or re-count the notification
+    private static final String AGGREGATE_NOTIFICATION_CONDITION_EXPRESSION =
+        "NOT contains(aggregatedFromUsernames, :v_fromUsername)";
+    private static final String MARK_READ_UPDATE_EXPRESSION = "SET #read = :v_true";
+    private static final String MARK_READ_CONDITION_EXPRESSION = "toUsername = :v_toUsername AND #read = :v_false";
+    private static final String UNREAD_UP_TO_KEY_CONDITION_EXPRESSION =
+        "toUsername = :v_toUsername AND createdAt <= :v_upTo";
+    private static final String UNREAD_FILTER_EXPRESSION = "#read = :v_false";
+    private static final String CONDITIONAL_CHECK_FAILED_CANCELLATION_CODE = "ConditionalCheckFailed";
+    // One slot of each transaction is taken by the unread counter update
+    private static final int MAX_NOTIFICATIONS_PER_TRANSACTION = 24;
+    private static final int MAX_MARK_READ_TRANSACTION_ATTEMPTS = 3;
+    private static final int MAX_KEYS_PER_BATCH_GET = 100;
+    // Badge polling is frequent, so a few seconds of staleness is traded for not reading the counter on every poll
+    private static final Duration UNREAD_COUNT_CACHE_TTL = Duration.ofSeconds(5);
+    private static final long UNREAD_COUNT_CACHE_MAX_SIZE = 100_000;
+
+    private final Cache<String, Long> unreadCountCache = Caffeine.newBuilder()
+        .expireAfterWrite(UNREAD_COUNT_CACHE_TTL)
+        .maximumSize(UNREAD_COUNT_CACHE_MAX_SIZE)
+        .build();
 
     @Value("${environment.name}")
     private String environmentName;
+    @Value("${notification.aggregation.window.minutes}")
+    private long aggregationWindowMinutes;
+    @Autowired
+    private AmazonDynamoDB amazonDynamoDB;
     @Autowired
     private DynamoDBMapper dynamoDBMapper;
+    @Autowired
+    private NotificationBus notificationBus;
 
     public void notify(final Notification notification) {
+        if (isAggregated(notification)) {
+            aggregatePostLikeNotification((PostLikeNotification) notification);
+            return;
+        }
+
         dynamoDBMapper.save(notification.toDatabaseNotification());
+
+        if (!notification.isRead()) {
+            adjustUnreadCount(notification.getToUsername(), 1);
+        }
+
+        notificationBus.publish(notification);
     }
 
     public void notifyBatch(final Set<Notification> notifications) {
+        final Map<Boolean, Set<Notification>> notificationsByIsAggregated = notifications.stream()
+            .collect(Collectors.partitioningBy(NotificationService::isAggregated, Collectors.toSet()));
+
+        notificationsByIsAggregated.get(true)
+            .forEach(notification -> aggregatePostLikeNotification((PostLikeNotification) notification));
+
+        final Set<Notification> individualNotifications = notificationsByIsAggregated.get(false);
+        if (individualNotifications.isEmpty()) {
+            return;
+        }
+
         dynamoDBMapper.batchSave(
-            notifications.stream().map(Notification::toDatabaseNotification).collect(Collectors.toSet())
+            individualNotifications.stream().map(Notification::toDatabaseNotification).collect(Collectors.toSet())
         );
+
+        countUnreadByUsername(individualNotifications).forEach(this::adjustUnreadCount);
+
+        individualNotifications.forEach(notificationBus::publish);
+    }
+
+    /**
+     * Marks the given notifications as read with conditional updates, without loading or rewriting the items.
+     * The notifications are read first to check ownership of every one of them, since the updates are split across
+     * several transactions and a later one failing would leave the earlier ones applied.
+     *
+     * @return Empty, having marked none of them, if any of the notifications does not exist or does not belong to
+     *         username. Otherwise the notifications, as read.
+     */
+    public Optional<Set<Notification>> markNotificationsRead(final String username,
+                                                             final Set<String> notificationIds) {
+        final List<String> notificationIdList = new ArrayList<>(notificationIds);
+        final Optional<Set<Notification>> notifications = loadOwnedNotifications(username, notificationIdList);
+        if (notifications.isEmpty() || !markOwnedNotificationsRead(username, notificationIdList)) {
+            return Optional.empty();
+        }
+
+        notifications.get().forEach(notification -> notification.setRead(true));
+        return notifications;
+    }
+
+    /**
+     * Marks every unread notification for username created at or before upTo as read.
+     */
+    public void markAllNotificationsRead(final String username, final Date upTo) {
+        final Map<String, AttributeValue> eav = new HashMap<>();
+        eav.put(":v_toUsername", new AttributeValue().withS(username));
+        eav.put(":v_upTo", new AttributeValue().withS(DateUtils.formatISO8601Date(upTo)));
+        eav.put(":v_false", new AttributeValue().withN(DYNAMODB_FALSE));
+
+        final Set<String> unreadNotificationIds = new HashSet<>();
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        do {
+            final QueryResult queryResult = amazonDynamoDB.query(
+                new QueryRequest()
+                    .withTableName(getTableName(NOTIFICATION_TABLE_NAME))
+                    .withIndexName(USER_NOTIFICATION_GLOBAL_SECONDARY_INDEX)
+                    .withKeyConditionExpression(UNREAD_UP_TO_KEY_CONDITION_EXPRESSION)
+                    .withFilterExpression(UNREAD_FILTER_EXPRESSION)
+                    .withProjectionExpression(NOTIFICATION_ID_ATTRIBUTE)
+                    .withExpressionAttributeNames(Map.of("#read", READ_ATTRIBUTE))
+                    .withExpressionAttributeValues(eav)
+                    .withExclusiveStartKey(exclusiveStartKey)
+            );
+
+            queryResult.getItems()
+                .forEach(item -> unreadNotificationIds.add(item.get(NOTIFICATION_ID_ATTRIBUTE).getS()));
+            exclusiveStartKey = queryResult.getLastEvaluatedKey();
+        } while (exclusiveStartKey != null && !exclusiveStartKey.isEmpty());
+
+        // Found through username's own notifications, so there is no ownership to check
+        markOwnedNotificationsRead(username, new ArrayList<>(unreadNotificationIds));
+    }
+
+    public long getUnreadCount(final String username) {
+        return unreadCountCache.get(username, this::loadUnreadCount);
     }
 
     public List<Notification> retrieveAllNotifications(final String username) {
@@ -51,27 +205,259 @@ public class NotificationService {
         return databaseNotifications.stream().map(Notification::fromDatabaseNotification).collect(Collectors.toList());
     }
 
-    public Set<Notification> loadNotifications(final Set<String> notificationIds) {
-        final Set<DatabaseNotification> databaseNotifications = notificationIds
-            .stream()
-            .map(
-                notificationId -> DatabaseNotification.builder()
-                    .notificationId(notificationId)
-                    .build()
-            ).collect(Collectors.toSet());
-
-        final Map<String, List<Object>> loadedDatabaseNotificationsMap =
-            dynamoDBMapper.batchLoad(databaseNotifications);
-
-        final String notificationsTableName = String.format("%s-%s", environmentName, "Notification");
-        final List<Object> loadedObjects = loadedDatabaseNotificationsMap.get(notificationsTableName);
-        final Set<DatabaseNotification> loadedDatabaseNotifications = loadedObjects
-            .stream()
-            .map(obj -> (DatabaseNotification) obj)
-            .collect(Collectors.toSet());
-
-        return loadedDatabaseNotifications.stream()
-            .map(Notification::fromDatabaseNotification)
-            .collect(Collectors.toSet());
+    /**
+     * @return The notifications, read with one strongly consistent batch get per 100 notifications. Empty unless every
+     *         one of them exists and belongs to username.
+     */
+    private Optional<Set<Notification>> loadOwnedNotifications(final String username,
+                                                               final List<String> notificationIds) {
+        final String tableName = getTableName(NOTIFICATION_TABLE_NAME);
+        final Set<Notification> notifications = new HashSet<>();
+
+        for (int i = 0; i < notificationIds.size(); i += MAX_KEYS_PER_BATCH_GET) {
+            final List<String> notificationIdGroup = notificationIds.subList(
+                i, Integer.min(notificationIds.size(), i + MAX_KEYS_PER_BATCH_GET)
+            );
+
+            Map<String, KeysAndAttributes> requestItems = Map.of(
+                tableName,
+                new KeysAndAttributes()
+                    .withKeys(notificationIdGroup.stream()
+                        .map(notificationId ->
+                            Map.of(NOTIFICATION_ID_ATTRIBUTE, new AttributeValue().withS(notificationId))
+                        )
+                        .collect(Collectors.toList()))
+                    .withConsistentRead(true)
+            );
+            int numOwned = 0;
+            do {
+                final BatchGetItemResult batchGetItemResult = amazonDynamoDB.batchGetItem(
+                    new BatchGetItemRequest().withRequestItems(requestItems)
+                );
+                for (final Map<String, AttributeValue> item
+                    : batchGetItemResult.getResponses().getOrDefault(tableName, List.of())) {
+                    if (!item.containsKey(TO_USERNAME_ATTRIBUTE) ||
+                        !username.equals(item.get(TO_USERNAME_ATTRIBUTE).getS())) {
+                        return Optional.empty();
+                    }
+                    notifications.add(Notification.fromDatabaseNotification(
+                        dynamoDBMapper.marshallIntoObject(DatabaseNotification.class, item)
+                    ));
+                    numOwned++;
+                }
+                requestItems = batchGetItemResult.getUnprocessedKeys();
+            } while (requestItems != null && !requestItems.isEmpty());
+
+            // Notifications which don't exist aren't returned at all
+            if (numOwned != notificationIdGroup.size()) {
+                return Optional.empty();
+            }
+        }
+
+        return Optional.of(notifications);
+    }
+
+    private boolean markOwnedNotificationsRead(final String username, final List<String> notificationIds) {
+        for (int i = 0; i < notificationIds.size(); i += MAX_NOTIFICATIONS_PER_TRANSACTION) {
+            final List<String> notificationIdGroup = notificationIds.subList(
+                i, Integer.min(notificationIds.size(), i + MAX_NOTIFICATIONS_PER_TRANSACTION)
+            );
+
+            if (!markNotificationGroupRead(username, notificationIdGroup)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Flips the notifications to read in a single transaction together with the matching decrement of the unread
+     * counter. Notifications which turn out to be read already are dropped from the transaction and it is retried.
+     */
+    private boolean markNotificationGroupRead(final String username, final List<String> notificationIds) {
+        final List<String> pendingNotificationIds = new ArrayList<>(notificationIds);
+
+        int attempt = 0;
+        while (!pendingNotificationIds.isEmpty()) {
+            attempt++;
+
+            final List<TransactWriteItem> transactItems = pendingNotificationIds.stream()
+                .map(notificationId ->
+                    new TransactWriteItem().withUpdate(createMarkReadUpdate(username, notificationId))
+                )
+                .collect(Collectors.toList());
+            transactItems.add(new TransactWriteItem().withUpdate(
+                new Update()
+                    .withTableName(getTableName(NOTIFICATION_COUNT_TABLE_NAME))
+                    .withKey(Map.of(NOTIFICATION_COUNT_USERNAME_ATTRIBUTE, new AttributeValue().withS(username)))
+                    .withUpdateExpression(ADD_TO_NUM_UNREAD_UPDATE_EXPRESSION)
+                    .withExpressionAttributeValues(
+                        Map.of(":v_delta", new AttributeValue().withN(Integer.toString(-pendingNotificationIds.size())))
+                    )
+            ));
+
+            try {
+                amazonDynamoDB.transactWriteItems(new TransactWriteItemsRequest().withTransactItems(transactItems));
+                break;
+            } catch (final TransactionCanceledException e) {
+                final List<CancellationReason> cancellationReasons = e.getCancellationReasons();
+                if (cancellationReasons == null) {
+                    throw e;
+                }
+
+                final List<String> alreadyReadNotificationIds = new ArrayList<>();
+                for (int i = 0; i < pendingNotificationIds.size(); i++) {
+                    final CancellationReason cancellationReason = cancellationReasons.get(i);
+                    if (!CONDITIONAL_CHECK_FAILED_CANCELLATION_CODE.equals(cancellationReason.getCode())) {
+                        continue;
+                    }
+
+                    final Map<String, AttributeValue> item = cancellationReason.getItem();
+                    if (item == null || !item.containsKey(TO_USERNAME_ATTRIBUTE) ||
+                        !username.equals(item.get(TO_USERNAME_ATTRIBUTE).getS())) {
+                        return false;
+                    }
+                    alreadyReadNotificationIds.add(pendingNotificationIds.get(i));
+                }
+
+                // Nothing to drop means the transaction conflicted with a concurrent write, so it is retried as is
+                if (alreadyReadNotificationIds.isEmpty() && attempt >= MAX_MARK_READ_TRANSACTION_ATTEMPTS) {
+                    throw e;
+                }
+                pendingNotificationIds.removeAll(alreadyReadNotificationIds);
+            } finally {
+                unreadCountCache.invalidate(username);
+            }
+        }
+
+        return true;
+    }
+
+    private Update createMarkReadUpdate(final String username, final String notificationId) {
+        final Map<String, AttributeValue> eav = new HashMap<>();
+        eav.put(":v_toUsername", new AttributeValue().withS(username));
+        eav.put(":v_true", new AttributeValue().withN(DYNAMODB_TRUE));
+        eav.put(":v_false", new AttributeValue().withN(DYNAMODB_FALSE));
+
+        return new Update()
+            .withTableName(getTableName(NOTIFICATION_TABLE_NAME))
+            .withKey(Map.of(NOTIFICATION_ID_ATTRIBUTE, new AttributeValue().withS(notificationId)))
+            .withUpdateExpression(MARK_READ_UPDATE_EXPRESSION)
+            .withConditionExpression(MARK_READ_CONDITION_EXPRESSION)
+            .withExpressionAttributeNames(Map.of("#read", READ_ATTRIBUTE))
+            .withExpressionAttributeValues(eav)
+            .withReturnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD);
+    }
+
+    /**
+     * Upserts the notification into the rolled-up item for its post, recipient and aggregation window. The recipient's
+     * unread counter is only incremented when the rolled-up item is new or had already been read, so that it counts
+     * once no matter how many likes it holds.
+     */
+    private void aggregatePostLikeNotification(final PostLikeNotification notification) {
+        final String notificationId = NotificationAggregationUtil.getAggregatedNotificationId(
+            NotificationType.POST_LIKE,
+            notification.getToUsername(),
+            notification.getPostId(),
+            notification.getCreatedAt(),
+            Duration.ofMinutes(aggregationWindowMinutes)
+        );
+
+        final Map<String, AttributeValue> eav = new HashMap<>();
+        eav.put(":v_toUsername", new AttributeValue().withS(notification.getToUsername()));
+        eav.put(":v_createdAt", new AttributeValue().withS(DateUtils.formatISO8601Date(notification.getCreatedAt())));
+        eav.put(":v_fromUsername", new AttributeValue().withS(notification.getFromUsername()));
+        eav.put(":v_read", new AttributeValue().withN(notification.isRead() ? DYNAMODB_TRUE : DYNAMODB_FALSE));
+        eav.put(
+            ":v_notificationType",
+            new AttributeValue().withN(Integer.toString(NotificationType.POST_LIKE.getValue()))
+        );
+        eav.put(":v_postId", new AttributeValue().withS(notification.getPostId()));
+        eav.put(":v_fromUsernames", new AttributeValue().withSS(notification.getFromUsername()));
+
+        final UpdateItemResult updateItemResult;
+        try {
+            updateItemResult = amazonDynamoDB.updateItem(
+                new UpdateItemRequest()
+                    .withTableName(getTableName(NOTIFICATION_TABLE_NAME))
+                    .withKey(Map.of(NOTIFICATION_ID_ATTRIBUTE, new AttributeValue().withS(notificationId)))
+                    .withUpdateExpression(AGGREGATE_NOTIFICATION_UPDATE_EXPRESSION)
+                    .withConditionExpression(AGGREGATE_NOTIFICATION_CONDITION_EXPRESSION)
+                    .withExpressionAttributeNames(Map.of("#read", READ_ATTRIBUTE))
+                    .withExpressionAttributeValues(eav)
+                    .withReturnValues(ReturnValue.ALL_OLD)
+            );
+        } catch (final ConditionalCheckFailedException e) {
+            // fromUsername is already rolled up into this notification
+            return;
+        }
+
+        final Map<String, AttributeValue> oldItem = updateItemResult.getAttributes();
+        final boolean wasUnread = oldItem != null && oldItem.containsKey(READ_ATTRIBUTE) &&
+            DYNAMODB_FALSE.equals(oldItem.get(READ_ATTRIBUTE).getN());
+        if (!notification.isRead() && !wasUnread) {
+            adjustUnreadCount(notification.getToUsername(), 1);
+        }
+
+        final Set<String> aggregatedFromUsernames = new HashSet<>();
+        if (oldItem != null && oldItem.containsKey(AGGREGATED_FROM_USERNAMES_ATTRIBUTE)) {
+            aggregatedFromUsernames.addAll(oldItem.get(AGGREGATED_FROM_USERNAMES_ATTRIBUTE).getSS());
+        }
+        aggregatedFromUsernames.add(notification.getFromUsername());
+
+        notificationBus.publish(
+            PostLikeNotification.builder()
+                .notificationId(notificationId)
+                .toUsername(notification.getToUsername())
+                .createdAt(notification.getCreatedAt())
+                .fromUsername(notification.getFromUsername())
+                .isRead(notification.isRead())
+                .postId(notification.getPostId())
+                .aggregatedFromUsernames(aggregatedFromUsernames)
+                .build()
+        );
+    }
+
+    private long loadUnreadCount(final String username) {
+        final NotificationCount notificationCount = dynamoDBMapper.load(NotificationCount.class, username);
+
+        // Concurrent read marking can briefly push the counter below zero
+        return notificationCount == null ? 0 : Math.max(0, notificationCount.getNumUnread());
+    }
+
+    private void adjustUnreadCount(final String username, final long delta) {
+        try {
+            amazonDynamoDB.updateItem(
+                new UpdateItemRequest()
+                    .withTableName(getTableName(NOTIFICATION_COUNT_TABLE_NAME))
+                    .withKey(Map.of(NOTIFICATION_COUNT_USERNAME_ATTRIBUTE, new AttributeValue().withS(username)))
+                    .withUpdateExpression(ADD_TO_NUM_UNREAD_UPDATE_EXPRESSION)
+                    .withExpressionAttributeValues(
+                        Map.of(":v_delta", new AttributeValue().withN(Long.toString(delta)))
+                    )
+            );
+        } catch (final Exception e) {
+            log.error(
+                String.format("Failed to adjust unread notification count for username %s by %d", username, delta),
+                e
+            );
+        } finally {
+            unreadCountCache.invalidate(username);
+        }
+    }
+
+    private static boolean isAggregated(final Notification notification) {
+        return notification instanceof PostLikeNotification;
+    }
+
+    private static Map<String, Long> countUnreadByUsername(final Set<Notification> notifications) {
+        return notifications.stream()
+            .filter(notification -> !notification.isRead())
+            .collect(Collectors.groupingBy(Notification::getToUsername, Collectors.counting()));
+    }
+
+    private String getTableName(final String tableName) {
+        return String.format("%s-%s", environmentName, tableName);
     }
 }
@@ -0,0 +1,234 @@
+package com.pylon.pylonservice.services;
+
+import com.pylon.pylonservice.model.domain.notification.Notification;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holds the open Server-Sent Events streams of this node, keyed by username. Streams are async servlet requests, so
+ * an idle listener holds no request thread, only its emitter.
+ *
+ * Publishing and heartbeats only queue events on each stream. The blocking writes happen on the bounded notification
+ * stream executor, one stream at a time, so a client that stops reading ties up at most one of its threads instead of
+ * the thread that created the notification. A stream whose queue fills up, or whose write has been blocked for a
+ * heartbeat interval, is dropped, and the client is expected to reconnect.
+ */
+@Log4j2
+@Service
+public class NotificationStreamService {
+    private static final String NOTIFICATION_EVENT_NAME = "notification";
+    private static final String HEARTBEAT_COMMENT = "heartbeat";
+    private static final String DROPPED_NOTIFICATION_STREAM_METRIC_NAME = "DroppedNotificationStream";
+    // Clients are expected to reconnect once the stream times out, which EventSource does on its own
+    private static final Duration STREAM_TIMEOUT = Duration.ofMinutes(30);
+    // Keeps idle connections from being closed by load balancers
+    private static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(30);
+    private static final int MAX_PENDING_EVENTS_PER_STREAM = 32;
+
+    private final Map<String, List<NotificationStream>> streamsByUsername = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "notification-stream-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final int maxStreamsPerUser;
+
+    @Autowired
+    private MetricsService metricsService;
+    @Autowired
+    private NotificationBus notificationBus;
+    @Qualifier("notificationStreamExecutor")
+    @Autowired
+    private ExecutorService notificationStreamExecutor;
+
+    private static class NotificationStream {
+        final String username;
+        final SseEmitter emitter;
+        final BlockingQueue<SseEmitter.SseEventBuilder> pendingEvents =
+            new ArrayBlockingQueue<>(MAX_PENDING_EVENTS_PER_STREAM);
+        // Set while a task draining pendingEvents is queued or running, so that writes to the stream never overlap
+        final AtomicBoolean isDraining = new AtomicBoolean();
+        final AtomicBoolean isClosed = new AtomicBoolean();
+        // When the write in progress started, or 0 if none is
+        volatile long sendStartedAtNanos;
+
+        NotificationStream(final String username, final SseEmitter emitter) {
+            this.username = username;
+            this.emitter = emitter;
+        }
+    }
+
+    public NotificationStreamService(@Value("${notification.stream.max.per.user}") final int maxStreamsPerUser) {
+        this.maxStreamsPerUser = maxStreamsPerUser;
+    }
+
+    @PostConstruct
+    public void init() {
+        notificationBus.subscribe(this::deliver);
+        heartbeatExecutor.scheduleAtFixedRate(
+            this::sendHeartbeats,
+            HEARTBEAT_INTERVAL.toMillis(),
+            HEARTBEAT_INTERVAL.toMillis(),
+            TimeUnit.MILLISECONDS
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeatExecutor.shutdownNow();
+        streamsByUsername.values().forEach(streams -> streams.forEach(stream -> stream.emitter.complete()));
+    }
+
+    /**
+     * Opens a stream for username. If username already has the maximum number of streams open on this node, the
+     * oldest is closed, since it most likely belongs to a tab that was left open.
+     */
+    public SseEmitter openStream(final String username) {
+        final NotificationStream stream = new NotificationStream(username, new SseEmitter(STREAM_TIMEOUT.toMillis()));
+
+        final List<NotificationStream> evictedStreams = new ArrayList<>();
+        streamsByUsername.compute(username, (key, streams) -> {
+            final List<NotificationStream> userStreams = streams == null ? new CopyOnWriteArrayList<>() : streams;
+            while (userStreams.size() >= maxStreamsPerUser) {
+                evictedStreams.add(userStreams.remove(0));
+            }
+            userStreams.add(stream);
+            return userStreams;
+        });
+        evictedStreams.forEach(evictedStream -> close(evictedStream, null));
+
+        stream.emitter.onCompletion(() -> removeStream(stream));
+        stream.emitter.onTimeout(() -> removeStream(stream));
+        stream.emitter.onError(throwable -> removeStream(stream));
+
+        return stream.emitter;
+    }
+
+    private void deliver(final Notification notification) {
+        final List<NotificationStream> streams = streamsByUsername.get(notification.getToUsername());
+        if (streams == null) {
+            return;
+        }
+
+        streams.forEach(stream -> enqueue(
+            stream,
+            SseEmitter.event().id(notification.getNotificationId()).name(NOTIFICATION_EVENT_NAME).data(notification)
+        ));
+    }
+
+    private void sendHeartbeats() {
+        final long now = System.nanoTime();
+        streamsByUsername.values().forEach(streams -> streams.forEach(stream -> {
+            final long sendStartedAtNanos = stream.sendStartedAtNanos;
+            if (sendStartedAtNanos != 0 && now - sendStartedAtNanos > HEARTBEAT_INTERVAL.toNanos()) {
+                log.warn(String.format("Dropping a notification stream of %s blocked on a write", stream.username));
+                metricsService.addCountMetric(DROPPED_NOTIFICATION_STREAM_METRIC_NAME);
+                close(stream, null);
+            } else if (stream.pendingEvents.isEmpty()) {
+                enqueue(stream, SseEmitter.event().comment(HEARTBEAT_COMMENT));
+            } else {
+                // Streams with events waiting to be written don't need a heartbeat, but their drain may have been
+                // rejected by a full executor
+                scheduleDrain(stream);
+            }
+        }));
+    }
+
+    private void enqueue(final NotificationStream stream, final SseEmitter.SseEventBuilder event) {
+        if (stream.isClosed.get()) {
+            return;
+        }
+        if (!stream.pendingEvents.offer(event)) {
+            log.warn(String.format("Dropping a notification stream of %s which isn't keeping up", stream.username));
+            metricsService.addCountMetric(DROPPED_NOTIFICATION_STREAM_METRIC_NAME);
+            close(stream, null);
+            return;
+        }
+        scheduleDrain(stream);
+    }
+
+    private void scheduleDrain(final NotificationStream stream) {
+        if (!stream.isDraining.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            notificationStreamExecutor.execute(() -> drain(stream));
+        } catch (final RejectedExecutionException e) {
+            // The events stay queued for the next event or heartbeat to schedule again
+            stream.isDraining.set(false);
+        }
+    }
+
+    private void drain(final NotificationStream stream) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!stream.isClosed.get() && (event = stream.pendingEvents.poll()) != null) {
+                stream.sendStartedAtNanos = System.nanoTime();
+                try {
+                    stream.emitter.send(event);
+                } catch (final Exception e) {
+                    // The client went away
+                    close(stream, e);
+                    return;
+                } finally {
+                    stream.sendStartedAtNanos = 0;
+                }
+            }
+        } finally {
+            stream.isDraining.set(false);
+        }
+
+        // An event queued after the loop found the queue empty, but before isDraining was cleared, would otherwise
+        // wait for the next one
+        if (!stream.isClosed.get() && !stream.pendingEvents.isEmpty()) {
+            scheduleDrain(stream);
+        }
+    }
+
+    /**
+     * Completing the emitter releases the async request.
+     */
+    private void close(final NotificationStream stream, final Throwable throwable) {
+        if (!stream.isClosed.compareAndSet(false, true)) {
+            return;
+        }
+
+        removeStream(stream);
+        stream.pendingEvents.clear();
+        if (throwable == null) {
+            stream.emitter.complete();
+        } else {
+            stream.emitter.completeWithError(throwable);
+        }
+    }
+
+    private void removeStream(final NotificationStream stream) {
+        stream.isClosed.set(true);
+        streamsByUsername.computeIfPresent(stream.username, (key, streams) -> {
+            streams.remove(stream);
+            return streams.isEmpty() ? null : streams;
+        });
+    }
+}
@@ -0,0 +1,195 @@
+package com.pylon.pylonservice.services;
+
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import lombok.extern.log4j.Log4j2;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static com.pylon.pylonservice.constants.GraphConstants.POST_FILENAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_AVATAR_FILENAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_BANNER_FILENAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_FEATURED_IMAGE_FILENAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_AVATAR_FILENAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_BANNER_FILENAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_UPLOADED_IMAGES_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_VERTEX_LABEL;
+import static org.apache.tinkerpop.gremlin.process.traversal.P.within;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.has;
+
+/**
+ * Periodically deletes uploaded images which no post, profile or shard references, together with their variants,
+ * and prunes them from every user's uploaded images. Images younger than the grace period are kept, since they may
+ * have been uploaded for a post or profile update which has not been submitted yet.
+ *
+ * Disabled unless image.gc.enabled is true. It only needs to run on a single node.
+ */
+@Log4j2
+@Service
+@ConditionalOnProperty(name = "image.gc.enabled", havingValue = "true")
+public class OrphanedImageCollector {
+    private static final String COLLECT_ORPHANED_IMAGES_METRIC_NAME = "CollectOrphanedImages";
+    private static final String DELETED_ORPHANED_IMAGES_METRIC_NAME = "DeletedOrphanedImages";
+    // DeleteObjects accepts at most 1000 keys, so each listed page is collected with a single delete call
+    private static final int MAX_KEYS_PER_PAGE = 1000;
+    // Matches "{uuid}.{ext}" and its variants "{uuid}_{width}.{ext}", capturing the parts of the original's filename
+    private static final Pattern IMAGE_KEY_PATTERN =
+        Pattern.compile("^([0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12})(?:_[0-9]+)?\\.(jpg|gif|png)$");
+    private static final String[] IMAGE_FILENAME_PROPERTIES = {
+        USER_AVATAR_FILENAME_PROPERTY,
+        USER_BANNER_FILENAME_PROPERTY,
+        SHARD_AVATAR_FILENAME_PROPERTY,
+        SHARD_BANNER_FILENAME_PROPERTY,
+        SHARD_FEATURED_IMAGE_FILENAME_PROPERTY,
+        POST_FILENAME_PROPERTY
+    };
+
+    @Autowired
+    private AmazonS3 amazonS3;
+    @Autowired
+    private MetricsService metricsService;
+    @Qualifier("reader")
+    @Autowired
+    private GraphTraversalSource rG;
+    @Qualifier("writer")
+    @Autowired
+    private GraphTraversalSource wG;
+
+    private final String imageBucketName;
+    private final Duration gracePeriod;
+
+    OrphanedImageCollector(@Value("${environment.name}") final String environmentName,
+                           @Value("${image.bucket.name}") final String imageBucketName,
+                           @Value("${image.gc.grace.period.hours}") final long gracePeriodHours) {
+        this.imageBucketName = String.format("%s-%s", environmentName, imageBucketName);
+        this.gracePeriod = Duration.ofHours(gracePeriodHours);
+    }
+
+    @Scheduled(initialDelayString = "${image.gc.interval.millis}", fixedDelayString = "${image.gc.interval.millis}")
+    public void collectOrphanedImages() {
+        final long startTime = System.nanoTime();
+        metricsService.addCountMetric(COLLECT_ORPHANED_IMAGES_METRIC_NAME);
+
+        final Date cutoff = new Date(System.currentTimeMillis() - gracePeriod.toMillis());
+        final ListObjectsV2Request listObjectsV2Request = new ListObjectsV2Request()
+            .withBucketName(imageBucketName)
+            .withMaxKeys(MAX_KEYS_PER_PAGE);
+
+        long numDeleted = 0;
+        try {
+            ListObjectsV2Result listObjectsV2Result;
+            do {
+                listObjectsV2Result = amazonS3.listObjectsV2(listObjectsV2Request);
+                numDeleted += collectPage(listObjectsV2Result.getObjectSummaries(), cutoff);
+                listObjectsV2Request.setContinuationToken(listObjectsV2Result.getNextContinuationToken());
+            } while (listObjectsV2Result.isTruncated());
+        } catch (final Exception e) {
+            log.error(String.format("Failed to collect orphaned images after deleting %d objects", numDeleted), e);
+            return;
+        } finally {
+            metricsService.addGaugeMetric(DELETED_ORPHANED_IMAGES_METRIC_NAME, numDeleted, StandardUnit.Count);
+        }
+
+        log.info(String.format("Deleted %d orphaned image objects", numDeleted));
+        metricsService.addSuccessMetric(COLLECT_ORPHANED_IMAGES_METRIC_NAME);
+        metricsService.addLatencyMetric(COLLECT_ORPHANED_IMAGES_METRIC_NAME, System.nanoTime() - startTime);
+    }
+
+    /**
+     * @return The number of objects deleted from the page.
+     */
+    private int collectPage(final List<S3ObjectSummary> objectSummaries, final Date cutoff) {
+        final Map<String, List<String>> expiredKeysByFilename = new HashMap<>();
+        for (final S3ObjectSummary objectSummary : objectSummaries) {
+            final Matcher matcher = IMAGE_KEY_PATTERN.matcher(objectSummary.getKey());
+            if (!objectSummary.getLastModified().before(cutoff) || !matcher.matches()) {
+                continue;
+            }
+
+            final String filename = String.format("%s.%s", matcher.group(1), matcher.group(2));
+            expiredKeysByFilename.computeIfAbsent(filename, key -> new ArrayList<>()).add(objectSummary.getKey());
+        }
+
+        // Deduplicated uploads only restart the original's grace period, so expired variants alone don't make an image
+        // collectable. Variants whose original is gone, e.g. listed on the page after it was collected, still are.
+        final Set<String> expiredFilenames = expiredKeysByFilename.entrySet().stream()
+            .filter(entry -> entry.getValue().contains(entry.getKey())
+                || !amazonS3.doesObjectExist(imageBucketName, entry.getKey()))
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toSet());
+
+        if (expiredFilenames.isEmpty()) {
+            return 0;
+        }
+
+        final Set<String> referencedFilenames = getReferencedFilenames(expiredFilenames);
+        final Set<String> orphanedFilenames = expiredFilenames.stream()
+            .filter(filename -> !referencedFilenames.contains(filename))
+            .collect(Collectors.toSet());
+
+        if (orphanedFilenames.isEmpty()) {
+            return 0;
+        }
+
+        // Pruned before deleting, so that an interrupted sweep leaves at worst an unreferenced object behind, which the
+        // next sweep finds again
+        wG.V()
+            .hasLabel(USER_VERTEX_LABEL)
+            .has(USER_UPLOADED_IMAGES_PROPERTY, within(orphanedFilenames))
+            .properties(USER_UPLOADED_IMAGES_PROPERTY)
+            .hasValue(within(orphanedFilenames))
+            .drop()
+            .iterate();
+
+        final String[] orphanedKeys = orphanedFilenames.stream()
+            .flatMap(filename -> expiredKeysByFilename.get(filename).stream())
+            .toArray(String[]::new);
+        amazonS3.deleteObjects(
+            new DeleteObjectsRequest(imageBucketName)
+                .withKeys(orphanedKeys)
+                .withQuiet(true)
+        );
+
+        return orphanedKeys.length;
+    }
+
+    /**
+     * @return The subset of filenames which a post, profile or shard references.
+     */
+    @SuppressWarnings("unchecked")
+    private Set<String> getReferencedFilenames(final Set<String> filenames) {
+        final Traversal<?, ?>[] referencesAnyFilename = Arrays.stream(IMAGE_FILENAME_PROPERTIES)
+            .map(property -> has(property, within(filenames)))
+            .toArray(Traversal[]::new);
+
+        return rG.V()
+            .or(referencesAnyFilename)
+            .values(IMAGE_FILENAME_PROPERTIES)
+            .toStream()
+            .map(value -> (String) value)
+            .filter(filenames::contains)
+            .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,65 @@
+package com.pylon.pylonservice.services;
+
+import lombok.extern.log4j.Log4j2;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+import static com.pylon.pylonservice.constants.GraphConstants.POST_COMMENT_ON_POST_EDGE_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_ID_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_IS_TOP_LEVEL_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_TOP_LEVEL_POST_ID_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_VERTEX_LABEL;
+import static com.pylon.pylonservice.model.domain.Post.traverseToTopLevelPostId;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.choose;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.constant;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.outE;
+import static org.apache.tinkerpop.gremlin.structure.VertexProperty.Cardinality.single;
+
+/**
+ * One-off migration which stamps Posts created before Posts were stamped with whether they are top level and the
+ * postId of their top level Post, so that reading either no longer walks the comment tree. Only Posts without a top
+ * level postId are stamped, so running it again, or alongside traffic, is harmless.
+ *
+ * Disabled unless post.top.level.backfill.enabled is true. It only needs to run on a single node, once.
+ */
+@Log4j2
+@Service
+@ConditionalOnProperty(name = "post.top.level.backfill.enabled", havingValue = "true")
+public class PostTopLevelBackfillRunner implements ApplicationRunner {
+    @Qualifier("writer")
+    @Autowired
+    private GraphTraversalSource wG;
+
+    @Override
+    public void run(final ApplicationArguments args) {
+        final List<Object> postIds = wG
+            .V().hasLabel(POST_VERTEX_LABEL).hasNot(POST_TOP_LEVEL_POST_ID_PROPERTY)
+            .values(POST_ID_PROPERTY)
+            .toList();
+        log.info(String.format("Backfilling top level post properties for %d posts", postIds.size()));
+
+        long numBackfilledPosts = 0;
+        for (final Object postId : postIds) {
+            try {
+                // Comments are the only posts with an outgoing comment edge
+                wG.V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, postId)
+                    .property(single, POST_IS_TOP_LEVEL_PROPERTY,
+                        choose(outE(POST_COMMENT_ON_POST_EDGE_LABEL), constant(false), constant(true)))
+                    .property(single, POST_TOP_LEVEL_POST_ID_PROPERTY, traverseToTopLevelPostId())
+                    .iterate();
+                numBackfilledPosts++;
+            } catch (final Exception e) {
+                log.error(String.format("Failed to backfill top level post properties for postId %s", postId), e);
+            }
+        }
+
+        log.info(String.format("Backfilled top level post properties for %d posts", numBackfilledPosts));
+    }
+}
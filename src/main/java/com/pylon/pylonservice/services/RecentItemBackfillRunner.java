@@ -0,0 +1,89 @@
+package com.pylon.pylonservice.services;
+
+import com.pylon.pylonservice.enums.RecentItemType;
+import com.pylon.pylonservice.model.tables.RecentItem;
+import lombok.extern.log4j.Log4j2;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.pylon.pylonservice.constants.GraphConstants.COMMON_CREATED_AT_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_COMMENT_ON_POST_EDGE_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_ID_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_IS_TOP_LEVEL_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_VERTEX_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_NAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_VERTEX_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_USERNAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_VERTEX_LABEL;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.has;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.hasNot;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.outE;
+
+/**
+ * One-off migration which adds every Shard, User and top level Post created before the {@link RecentItem} index
+ * existed to it. Items already in the index are overwritten with the same item, so running it again, or alongside
+ * traffic, is harmless. Also repairs items whose indexing failed when they were created.
+ *
+ * Disabled unless recent.item.backfill.enabled is true. It only needs to run on a single node, once.
+ */
+@Log4j2
+@Service
+@ConditionalOnProperty(name = "recent.item.backfill.enabled", havingValue = "true")
+public class RecentItemBackfillRunner implements ApplicationRunner {
+    private static final String ITEM_ID = "itemId";
+    private static final String CREATED_AT = "createdAt";
+
+    @Qualifier("reader")
+    @Autowired
+    private GraphTraversalSource rG;
+    @Autowired
+    private RecentItemService recentItemService;
+
+    @Override
+    public void run(final ApplicationArguments args) {
+        backfill(RecentItemType.SHARD, rG.V().hasLabel(SHARD_VERTEX_LABEL), SHARD_NAME_PROPERTY);
+        backfill(RecentItemType.PROFILE, rG.V().hasLabel(USER_VERTEX_LABEL), USER_USERNAME_PROPERTY);
+        // Posts not yet stamped by PostTopLevelBackfillRunner are top level if they aren't a comment on another post
+        backfill(
+            RecentItemType.POST,
+            rG.V().hasLabel(POST_VERTEX_LABEL).or(
+                has(POST_IS_TOP_LEVEL_PROPERTY, true),
+                hasNot(POST_IS_TOP_LEVEL_PROPERTY).not(outE(POST_COMMENT_ON_POST_EDGE_LABEL))
+            ),
+            POST_ID_PROPERTY
+        );
+    }
+
+    private void backfill(final RecentItemType itemType, final GraphTraversal<Vertex, Vertex> vertices,
+                          final String idProperty) {
+        final List<RecentItem> recentItems = vertices
+            .project(ITEM_ID, CREATED_AT)
+                .by(idProperty)
+                .by(COMMON_CREATED_AT_PROPERTY)
+            .toList()
+            .stream()
+            .map(item -> RecentItemService.toRecentItem(
+                itemType, (String) item.get(ITEM_ID), (Date) item.get(CREATED_AT)
+            ))
+            .collect(Collectors.toList());
+        log.info(String.format("Backfilling %d recent %s items", recentItems.size(), itemType));
+
+        try {
+            recentItemService.recordAll(recentItems);
+            log.info(String.format("Backfilled %d recent %s items", recentItems.size(), itemType));
+        } catch (final Exception e) {
+            log.error(String.format("Failed to backfill recent %s items", itemType), e);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.pylon.pylonservice.services;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper.FailedBatch;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
+import com.amazonaws.services.dynamodbv2.model.Condition;
+import com.pylon.pylonservice.enums.RecentItemType;
+import com.pylon.pylonservice.model.tables.RecentItem;
+import com.pylon.pylonservice.pojo.RecentItemPage;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the {@link RecentItem} index the /all endpoints page through, so that listing the newest shards, profiles or
+ * posts reads one page of keys instead of ordering every vertex of a label in the graph.
+ *
+ * Pages are continued with an opaque cursor, the recencyKey of the last item returned, so a page doesn't shift when
+ * items are created while a client pages through.
+ */
+@Log4j2
+@Service
+public class RecentItemService {
+    private static final String RECORD_RECENT_ITEM_FAILURE_METRIC_NAME = "RecordRecentItemFailure";
+    private static final String ITEM_TYPE_ATTRIBUTE = "itemType";
+    private static final String RECENCY_KEY_ATTRIBUTE = "recencyKey";
+    private static final String RECENCY_KEY_FORMAT = "%013d#%s";
+    // Sorts before every recencyKey of the same millisecond
+    private static final String RECENCY_KEY_CREATED_AT_FORMAT = "%013d";
+    private static final Pattern RECENCY_KEY_PATTERN = Pattern.compile("\\d{13}#.+");
+    // Skipped items are still read from the table, so offsets only page through the first few pages
+    static final int MAX_NUM_TO_SKIP = 1000;
+
+    @Autowired
+    private DynamoDBMapper dynamoDBMapper;
+    @Autowired
+    private MetricsService metricsService;
+
+    /**
+     * Adds an item to the index. Failures are logged rather than thrown, since the item itself was created; the
+     * {@link RecentItemBackfillRunner} adds any missing items.
+     */
+    public void record(final RecentItemType itemType, final String itemId, final Date createdAt) {
+        try {
+            dynamoDBMapper.save(toRecentItem(itemType, itemId, createdAt));
+        } catch (final Exception e) {
+            log.error(String.format("Failed to record recent %s %s", itemType, itemId), e);
+            metricsService.addCountMetric(RECORD_RECENT_ITEM_FAILURE_METRIC_NAME);
+        }
+    }
+
+    /**
+     * @throws IllegalStateException If any of the items could not be written, after the mapper's own retries.
+     */
+    public void recordAll(final List<RecentItem> recentItems) {
+        final List<FailedBatch> failedBatches = dynamoDBMapper.batchSave(recentItems);
+        if (failedBatches.isEmpty()) {
+            return;
+        }
+
+        final long numFailedItems = failedBatches.stream()
+            .flatMap(failedBatch -> failedBatch.getUnprocessedItems().values().stream())
+            .mapToLong(List::size)
+            .sum();
+        throw new IllegalStateException(
+            String.format("Failed to record %d of %d recent items", numFailedItems, recentItems.size()),
+            failedBatches.get(0).getException()
+        );
+    }
+
+    /**
+     * @param cursor The nextCursor of the previous page, or null for the first page.
+     * @param numToSkip How many items to skip, for clients still paging by offset. At most MAX_NUM_TO_SKIP, and only
+     *                  without a cursor.
+     * @param count How many item ids to return at most.
+     *
+     * @throws IllegalArgumentException If the cursor wasn't returned by this method, or numToSkip isn't allowed.
+     */
+    public RecentItemPage getPage(final RecentItemType itemType, final String cursor, final int numToSkip,
+                                  final int count) {
+        if (numToSkip > MAX_NUM_TO_SKIP || (cursor != null && numToSkip > 0)) {
+            throw new IllegalArgumentException(
+                String.format("Cannot skip %d items after cursor %s", numToSkip, cursor)
+            );
+        }
+
+        Map<String, AttributeValue> exclusiveStartKey = cursor == null
+            ? null
+            : Map.of(
+                ITEM_TYPE_ATTRIBUTE, new AttributeValue().withS(itemType.name()),
+                RECENCY_KEY_ATTRIBUTE, new AttributeValue().withS(decodeCursor(cursor))
+            );
+
+        final List<RecentItem> recentItems = new ArrayList<>();
+        int numSkipped = 0;
+        do {
+            final QueryResultPage<RecentItem> queryResultPage = dynamoDBMapper.queryPage(
+                RecentItem.class,
+                new DynamoDBQueryExpression<RecentItem>()
+                    .withHashKeyValues(RecentItem.builder().itemType(itemType.name()).build())
+                    .withScanIndexForward(false)
+                    .withConsistentRead(false)
+                    .withLimit(numToSkip - numSkipped + count - recentItems.size())
+                    .withExclusiveStartKey(exclusiveStartKey)
+            );
+
+            for (final RecentItem recentItem : queryResultPage.getResults()) {
+                if (numSkipped < numToSkip) {
+                    numSkipped++;
+                } else {
+                    recentItems.add(recentItem);
+                }
+            }
+            exclusiveStartKey = queryResultPage.getLastEvaluatedKey();
+        } while (recentItems.size() < count && exclusiveStartKey != null && !exclusiveStartKey.isEmpty());
+
+        final boolean hasMoreItems = exclusiveStartKey != null && !exclusiveStartKey.isEmpty();
+        return RecentItemPage.builder()
+            .itemIds(recentItems.stream().map(RecentItem::getItemId).collect(Collectors.toList()))
+            .nextCursor(hasMoreItems && !recentItems.isEmpty()
+                ? encodeCursor(recentItems.get(recentItems.size() - 1).getRecencyKey())
+                : null)
+            .build();
+    }
+
+    /**
+     * @return The ids of every item created at or after createdAt, oldest first. Meant for short, recent intervals.
+     */
+    public List<String> getItemIdsCreatedSince(final RecentItemType itemType, final Date createdAt) {
+        return dynamoDBMapper.query(
+            RecentItem.class,
+            new DynamoDBQueryExpression<RecentItem>()
+                .withHashKeyValues(RecentItem.builder().itemType(itemType.name()).build())
+                .withRangeKeyCondition(
+                    RECENCY_KEY_ATTRIBUTE,
+                    new Condition()
+                        .withComparisonOperator(ComparisonOperator.GE)
+                        .withAttributeValueList(new AttributeValue().withS(
+                            String.format(RECENCY_KEY_CREATED_AT_FORMAT, createdAt.getTime())
+                        ))
+                )
+                .withConsistentRead(false)
+        ).stream()
+            .map(RecentItem::getItemId)
+            .collect(Collectors.toList());
+    }
+
+    static RecentItem toRecentItem(final RecentItemType itemType, final String itemId, final Date createdAt) {
+        return RecentItem.builder()
+            .itemType(itemType.name())
+            .recencyKey(String.format(RECENCY_KEY_FORMAT, createdAt.getTime(), itemId))
+            .itemId(itemId)
+            .build();
+    }
+
+    static String encodeCursor(final String recencyKey) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(recencyKey.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String decodeCursor(final String cursor) {
+        final String recencyKey = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (!RECENCY_KEY_PATTERN.matcher(recencyKey).matches()) {
+            throw new IllegalArgumentException(String.format("Invalid cursor %s", cursor));
+        }
+        return recencyKey;
+    }
+}
@@ -0,0 +1,195 @@
+package com.pylon.pylonservice.services;
+
+import com.pylon.pylonservice.pojo.SearchResult;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * An in memory inverted index of one kind of item, from each lowercase word of the item's names and text to the ids of
+ * the items containing it. Words are kept sorted, so the items containing a word starting with a prefix are found with
+ * a range scan rather than by visiting every word.
+ *
+ * A query matches the items containing each of its words, except that its last word only needs to start a word, since
+ * it may still be being typed. Items whose name is the query come first, then items with a name starting with it.
+ *
+ * Reads don't lock and may run alongside a write, seeing an item's old or new words until the write completes.
+ */
+public class SearchIndex {
+    private static final Pattern WORD_SEPARATOR_PATTERN = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Words of items' names only, for typeahead
+    private final ConcurrentSkipListMap<String, Set<String>> nameWordToItemIds = new ConcurrentSkipListMap<>();
+    // Words of items' names and text
+    private final ConcurrentSkipListMap<String, Set<String>> wordToItemIds = new ConcurrentSkipListMap<>();
+    private final Map<String, Document> documents = new ConcurrentHashMap<>();
+
+    private static class Document {
+        final String itemId;
+        final String displayName;
+        // Each name's words joined by single spaces, to rank by how well a name matches the whole query
+        final List<String> normalizedNames;
+        final Set<String> nameWords;
+        final Set<String> words;
+
+        Document(final String itemId, final String displayName, final List<String> names, final List<String> texts) {
+            this.itemId = itemId;
+            this.displayName = displayName;
+            this.normalizedNames = names.stream()
+                .filter(Objects::nonNull)
+                .map(name -> String.join(" ", toWords(name)))
+                .collect(Collectors.toList());
+            this.nameWords = names.stream()
+                .filter(Objects::nonNull)
+                .flatMap(name -> toWords(name).stream())
+                .collect(Collectors.toSet());
+            this.words = new HashSet<>(nameWords);
+            texts.stream()
+                .filter(Objects::nonNull)
+                .forEach(text -> this.words.addAll(toWords(text)));
+        }
+
+        int rank(final String normalizedQuery) {
+            if (normalizedNames.contains(normalizedQuery)) {
+                return 0;
+            }
+            return normalizedNames.stream().anyMatch(name -> name.startsWith(normalizedQuery)) ? 1 : 2;
+        }
+    }
+
+    /**
+     * Adds an item, or replaces it if it is already indexed.
+     *
+     * @param displayName What to show for the item in typeahead results.
+     * @param names The item's names, matched by both typeahead and search. Null names are ignored.
+     * @param texts The item's other text, matched only by search. Null texts are ignored.
+     */
+    public void put(final String itemId, final String displayName, final List<String> names,
+                    final List<String> texts) {
+        put(new Document(itemId, displayName, names, texts), true);
+    }
+
+    /**
+     * Adds an item unless it is already indexed, so that a bulk load doesn't overwrite newer writes made during it.
+     */
+    public void putIfAbsent(final String itemId, final String displayName, final List<String> names,
+                            final List<String> texts) {
+        put(new Document(itemId, displayName, names, texts), false);
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * @return At most count items whose names match the query, best first.
+     */
+    public List<SearchResult> typeahead(final String query, final int count) {
+        return find(nameWordToItemIds, query, count).stream()
+            .map(document -> SearchResult.builder()
+                .itemId(document.itemId)
+                .displayName(document.displayName)
+                .build())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * @return The ids of at most count items whose names or text match the query, best first.
+     */
+    public List<String> search(final String query, final int count) {
+        return find(wordToItemIds, query, count).stream()
+            .map(document -> document.itemId)
+            .collect(Collectors.toList());
+    }
+
+    private synchronized void put(final Document document, final boolean replace) {
+        final Document previous = replace
+            ? documents.put(document.itemId, document)
+            : documents.putIfAbsent(document.itemId, document);
+        if (previous != null && !replace) {
+            return;
+        }
+
+        if (previous != null) {
+            removeItemId(nameWordToItemIds, difference(previous.nameWords, document.nameWords), document.itemId);
+            removeItemId(wordToItemIds, difference(previous.words, document.words), document.itemId);
+        }
+        document.nameWords.forEach(word ->
+            nameWordToItemIds.computeIfAbsent(word, key -> ConcurrentHashMap.newKeySet()).add(document.itemId)
+        );
+        document.words.forEach(word ->
+            wordToItemIds.computeIfAbsent(word, key -> ConcurrentHashMap.newKeySet()).add(document.itemId)
+        );
+    }
+
+    private List<Document> find(final ConcurrentSkipListMap<String, Set<String>> index, final String query,
+                                final int count) {
+        final List<String> queryWords = toWords(query);
+        if (queryWords.isEmpty()) {
+            return List.of();
+        }
+
+        Set<String> itemIds = null;
+        for (int i = 0; i < queryWords.size(); i++) {
+            final String queryWord = queryWords.get(i);
+            final Set<String> matchingItemIds = i == queryWords.size() - 1
+                ? getItemIdsWithPrefix(index, queryWord)
+                : index.getOrDefault(queryWord, Set.of());
+            if (itemIds == null) {
+                itemIds = new HashSet<>(matchingItemIds);
+            } else {
+                itemIds.retainAll(matchingItemIds);
+            }
+            if (itemIds.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        final String normalizedQuery = String.join(" ", queryWords);
+        return itemIds.stream()
+            .map(documents::get)
+            .filter(Objects::nonNull)
+            .sorted(Comparator.comparingInt((Document document) -> document.rank(normalizedQuery))
+                .thenComparing(document -> document.itemId))
+            .limit(count)
+            .collect(Collectors.toList());
+    }
+
+    private static Set<String> getItemIdsWithPrefix(final ConcurrentSkipListMap<String, Set<String>> index,
+                                                    final String prefix) {
+        final Set<String> itemIds = new HashSet<>();
+        index.subMap(prefix, prefix + Character.MAX_VALUE).values().forEach(itemIds::addAll);
+        return itemIds;
+    }
+
+    private static void removeItemId(final ConcurrentSkipListMap<String, Set<String>> index,
+                                     final Collection<String> words, final String itemId) {
+        words.forEach(word -> index.computeIfPresent(word, (key, itemIds) -> {
+            itemIds.remove(itemId);
+            return itemIds.isEmpty() ? null : itemIds;
+        }));
+    }
+
+    private static Set<String> difference(final Set<String> words, final Set<String> wordsToExclude) {
+        return words.stream()
+            .filter(word -> !wordsToExclude.contains(word))
+            .collect(Collectors.toSet());
+    }
+
+    static List<String> toWords(final String text) {
+        return Arrays.stream(WORD_SEPARATOR_PATTERN.split(text.toLowerCase(Locale.ROOT)))
+            .filter(word -> !word.isEmpty())
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,234 @@
+package com.pylon.pylonservice.services;
+
+import com.pylon.pylonservice.enums.RecentItemType;
+import com.pylon.pylonservice.enums.SearchItemType;
+import lombok.extern.log4j.Log4j2;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.pylon.pylonservice.constants.GraphConstants.POST_ID_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_TITLE_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_VERTEX_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_DESCRIPTION_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_FRIENDLY_NAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_NAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.SHARD_VERTEX_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_FRIENDLY_NAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_USERNAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_VERTEX_LABEL;
+import static org.apache.tinkerpop.gremlin.process.traversal.P.neq;
+import static org.apache.tinkerpop.gremlin.process.traversal.P.within;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.values;
+
+/**
+ * Keeps a {@link SearchIndex} of Shards, Profiles and top level Posts for the /search endpoints, so that finding items
+ * by name reads memory instead of scanning the graph.
+ *
+ * Shards are found by shardName, friendly name and description, Profiles by username and friendly name, and Posts by
+ * title. The write paths index the items they create or update. Every few seconds, items other nodes created since
+ * the last catch up are read from the {@link RecentItemService} index and indexed too. Updates made on other nodes
+ * are only picked up by the full rebuild from the reader, which runs at startup and then rarely. Until the first
+ * rebuild completes, only items written by this node are found. Catching up can be turned off with
+ * search.catch.up.enabled where there are no other nodes, or no DynamoDB.
+ */
+@Log4j2
+@Service
+public class SearchIndexService {
+    private static final String REINDEX_SEARCH_METRIC_NAME = "ReindexSearch";
+    private static final String CATCH_UP_SEARCH_METRIC_NAME = "CatchUpSearch";
+    // Each catch up starts this long before the previous one did, since an item's createdAt is taken before it is
+    // written, and it may take a while to reach the reader
+    private static final Duration CATCH_UP_OVERLAP = Duration.ofMinutes(1);
+    private static final String ITEM_ID = "itemId";
+    private static final String NAME = "name";
+    private static final String TEXT = "text";
+
+    private final Map<SearchItemType, SearchIndex> indexes = new ConcurrentHashMap<>();
+    // Indexes being rebuilt, which writes also go to so that they aren't lost when the rebuilt index replaces the old
+    private final Map<SearchItemType, SearchIndex> rebuildingIndexes = new ConcurrentHashMap<>();
+    // Items created before startup are found by the first rebuild
+    private volatile long lastCatchUpStartMillis = System.currentTimeMillis();
+
+    @Qualifier("reader")
+    @Autowired
+    private GraphTraversalSource rG;
+    @Autowired
+    private MetricsService metricsService;
+    @Autowired
+    private RecentItemService recentItemService;
+    @Value("${search.catch.up.enabled}")
+    private boolean isCatchUpEnabled;
+
+    public SearchIndexService() {
+        Arrays.stream(SearchItemType.values()).forEach(itemType -> indexes.put(itemType, new SearchIndex()));
+    }
+
+    public SearchIndex getIndex(final SearchItemType itemType) {
+        return indexes.get(itemType);
+    }
+
+    public void indexShard(final String shardName, final String shardFriendlyName, final String shardDescription) {
+        index(SearchItemType.SHARD, shardName, shardFriendlyName, shardDescription);
+    }
+
+    public void indexProfile(final String username, final String userFriendlyName) {
+        index(SearchItemType.PROFILE, username, userFriendlyName, null);
+    }
+
+    public void indexPost(final String postId, final String postTitle) {
+        // Quick posts have no title
+        if (!postTitle.isEmpty()) {
+            index(SearchItemType.POST, postId, postTitle, null);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${search.reindex.interval.millis}")
+    public void reindex() {
+        final long startTime = System.nanoTime();
+        metricsService.addCountMetric(REINDEX_SEARCH_METRIC_NAME);
+
+        try {
+            reindex(SearchItemType.SHARD, projectShards(rG.V().hasLabel(SHARD_VERTEX_LABEL)));
+            reindex(SearchItemType.PROFILE, projectProfiles(rG.V().hasLabel(USER_VERTEX_LABEL)));
+            reindex(SearchItemType.POST, projectPosts(rG.V().hasLabel(POST_VERTEX_LABEL)));
+        } catch (final Exception e) {
+            log.error("Failed to rebuild search indexes", e);
+            return;
+        }
+
+        metricsService.addSuccessMetric(REINDEX_SEARCH_METRIC_NAME);
+        metricsService.addLatencyMetric(REINDEX_SEARCH_METRIC_NAME, System.nanoTime() - startTime);
+    }
+
+    @Scheduled(
+        initialDelayString = "${search.catch.up.interval.millis}",
+        fixedDelayString = "${search.catch.up.interval.millis}"
+    )
+    public void catchUp() {
+        if (!isCatchUpEnabled) {
+            return;
+        }
+
+        final long startTime = System.nanoTime();
+        metricsService.addCountMetric(CATCH_UP_SEARCH_METRIC_NAME);
+
+        final long catchUpStartMillis = System.currentTimeMillis();
+        final Date createdAt = new Date(lastCatchUpStartMillis - CATCH_UP_OVERLAP.toMillis());
+        try {
+            final List<String> shardNames = recentItemService.getItemIdsCreatedSince(RecentItemType.SHARD, createdAt);
+            if (!shardNames.isEmpty()) {
+                index(SearchItemType.SHARD, projectShards(
+                    rG.V().has(SHARD_VERTEX_LABEL, SHARD_NAME_PROPERTY, within(shardNames))
+                ));
+            }
+            final List<String> usernames = recentItemService.getItemIdsCreatedSince(RecentItemType.PROFILE, createdAt);
+            if (!usernames.isEmpty()) {
+                index(SearchItemType.PROFILE, projectProfiles(
+                    rG.V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, within(usernames))
+                ));
+            }
+            final List<String> postIds = recentItemService.getItemIdsCreatedSince(RecentItemType.POST, createdAt);
+            if (!postIds.isEmpty()) {
+                index(SearchItemType.POST, projectPosts(
+                    rG.V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, within(postIds))
+                ));
+            }
+        } catch (final Exception e) {
+            // The next catch up starts from the same time
+            log.error("Failed to catch up search indexes", e);
+            return;
+        }
+        lastCatchUpStartMillis = catchUpStartMillis;
+
+        metricsService.addSuccessMetric(CATCH_UP_SEARCH_METRIC_NAME);
+        metricsService.addLatencyMetric(CATCH_UP_SEARCH_METRIC_NAME, System.nanoTime() - startTime);
+    }
+
+    private void index(final SearchItemType itemType, final String itemId, final String name, final String text) {
+        // The rebuilding index is written first, so a write racing the end of a rebuild reaches the index it leaves
+        final SearchIndex rebuildingIndex = rebuildingIndexes.get(itemType);
+        if (rebuildingIndex != null) {
+            put(rebuildingIndex, itemType, itemId, name, text, true);
+        }
+        put(indexes.get(itemType), itemType, itemId, name, text, true);
+    }
+
+    private void index(final SearchItemType itemType, final GraphTraversal<Vertex, Map<String, Object>> items) {
+        items.forEachRemaining(item ->
+            index(itemType, (String) item.get(ITEM_ID), first(item.get(NAME)), first(item.get(TEXT)))
+        );
+    }
+
+    private void reindex(final SearchItemType itemType, final GraphTraversal<Vertex, Map<String, Object>> items) {
+        final SearchIndex searchIndex = new SearchIndex();
+        rebuildingIndexes.put(itemType, searchIndex);
+        try {
+            items.forEachRemaining(item -> put(
+                searchIndex, itemType, (String) item.get(ITEM_ID), first(item.get(NAME)), first(item.get(TEXT)), false
+            ));
+            indexes.put(itemType, searchIndex);
+        } finally {
+            rebuildingIndexes.remove(itemType);
+        }
+        log.info(String.format("Rebuilt search index of %d %s items", searchIndex.size(), itemType));
+    }
+
+    private static GraphTraversal<Vertex, Map<String, Object>> projectShards(
+        final GraphTraversal<Vertex, Vertex> shards) {
+        return shards
+            .project(ITEM_ID, NAME, TEXT)
+                .by(SHARD_NAME_PROPERTY)
+                .by(values(SHARD_FRIENDLY_NAME_PROPERTY).fold())
+                .by(values(SHARD_DESCRIPTION_PROPERTY).fold());
+    }
+
+    private static GraphTraversal<Vertex, Map<String, Object>> projectProfiles(
+        final GraphTraversal<Vertex, Vertex> users) {
+        return users
+            .project(ITEM_ID, NAME)
+                .by(USER_USERNAME_PROPERTY)
+                .by(values(USER_FRIENDLY_NAME_PROPERTY).fold());
+    }
+
+    private static GraphTraversal<Vertex, Map<String, Object>> projectPosts(
+        final GraphTraversal<Vertex, Vertex> posts) {
+        // Comments and quick posts have no title
+        return posts
+            .has(POST_TITLE_PROPERTY, neq(""))
+            .project(ITEM_ID, NAME)
+                .by(POST_ID_PROPERTY)
+                .by(values(POST_TITLE_PROPERTY).fold());
+    }
+
+    private static void put(final SearchIndex searchIndex, final SearchItemType itemType, final String itemId,
+                            final String name, final String text, final boolean replace) {
+        // Shards and Profiles are also found by shardName or username, but a postId isn't worth matching
+        final List<String> names = itemType == SearchItemType.POST
+            ? Arrays.asList(name)
+            : Arrays.asList(itemId, name);
+        final List<String> texts = Arrays.asList(text);
+        if (replace) {
+            searchIndex.put(itemId, name, names, texts);
+        } else {
+            searchIndex.putIfAbsent(itemId, name, names, texts);
+        }
+    }
+
+    private static String first(final Object values) {
+        final List<?> valueList = (List<?>) values;
+        return valueList == null || valueList.isEmpty() ? null : (String) valueList.get(0);
+    }
+}
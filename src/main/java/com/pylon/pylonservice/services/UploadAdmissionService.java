@@ -0,0 +1,79 @@
+package com.pylon.pylonservice.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the number of concurrent uploads and the total number of bytes they carry. Admission waits briefly for
+ * capacity and otherwise fails fast, so that a burst of uploads is turned away instead of piling up in memory.
+ */
+@Service
+public class UploadAdmissionService {
+    private static final int BYTES_PER_PERMIT = 1024;
+
+    private final Semaphore uploadPermits;
+    private final Semaphore inFlightKilobytePermits;
+    private final int maxInFlightKilobytes;
+    private final Duration maxAdmissionWait;
+
+    UploadAdmissionService(@Value("${image.upload.max.concurrent}") final int maxConcurrentUploads,
+                           @Value("${image.upload.max.in.flight.size}") final DataSize maxInFlightSize,
+                           @Value("${image.upload.max.admission.wait.millis}") final long maxAdmissionWaitMillis) {
+        this.uploadPermits = new Semaphore(maxConcurrentUploads, true);
+        this.maxInFlightKilobytes = (int) (maxInFlightSize.toBytes() / BYTES_PER_PERMIT);
+        this.inFlightKilobytePermits = new Semaphore(maxInFlightKilobytes, true);
+        this.maxAdmissionWait = Duration.ofMillis(maxAdmissionWaitMillis);
+    }
+
+    /**
+     * Waits up to the configured admission wait for an upload slot and for room in the in-flight bytes budget.
+     * Every successful call must be paired with a call to {@link #release(long)} with the same size.
+     *
+     * @return true if the upload was admitted, false if capacity did not free up in time.
+     */
+    public boolean tryAdmit(final long sizeBytes) throws InterruptedException {
+        final long deadline = System.nanoTime() + maxAdmissionWait.toNanos();
+
+        if (!uploadPermits.tryAcquire(maxAdmissionWait.toNanos(), TimeUnit.NANOSECONDS)) {
+            return false;
+        }
+
+        final boolean isAdmitted;
+        try {
+            isAdmitted = inFlightKilobytePermits.tryAcquire(
+                toKilobytePermits(sizeBytes), deadline - System.nanoTime(), TimeUnit.NANOSECONDS
+            );
+        } catch (final InterruptedException e) {
+            uploadPermits.release();
+            throw e;
+        }
+
+        if (!isAdmitted) {
+            uploadPermits.release();
+        }
+        return isAdmitted;
+    }
+
+    public void release(final long sizeBytes) {
+        inFlightKilobytePermits.release(toKilobytePermits(sizeBytes));
+        uploadPermits.release();
+    }
+
+    public long getInFlightBytes() {
+        return (long) (maxInFlightKilobytes - inFlightKilobytePermits.availablePermits()) * BYTES_PER_PERMIT;
+    }
+
+    /**
+     * Rounds up to whole kilobytes, capped at the whole budget so that a single upload larger than the budget can
+     * still be admitted when nothing else is in flight.
+     */
+    private int toKilobytePermits(final long sizeBytes) {
+        final long kilobytes = (sizeBytes + BYTES_PER_PERMIT - 1) / BYTES_PER_PERMIT;
+        return (int) Long.min(Long.max(kilobytes, 1), maxInFlightKilobytes);
+    }
+}
@@ -0,0 +1,228 @@
+package com.pylon.pylonservice.services;
+
+import com.pylon.pylonservice.model.domain.Post;
+import com.pylon.pylonservice.model.domain.notification.PostLikeNotification;
+import lombok.extern.log4j.Log4j2;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.pylon.pylonservice.constants.GraphConstants.POST_ID_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_NUM_LIKES_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_VERTEX_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_SUBMITTED_POST_EDGE_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_UPVOTED_POST_EDGE_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_USERNAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_VERTEX_LABEL;
+import static com.pylon.pylonservice.util.EdgeIdUtil.getEdgeId;
+import static org.apache.tinkerpop.gremlin.process.traversal.P.within;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.V;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.inE;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.outV;
+import static org.apache.tinkerpop.gremlin.structure.VertexProperty.Cardinality.single;
+
+/**
+ * Buffers upvotes and upvote removals in memory and writes them to the graph in periodic batches, so that a burst of
+ * votes on a popular post becomes one write to that post's vertex instead of many concurrent ones contending on it.
+ *
+ * Votes are kept per post, and only the latest vote of each user is kept, so toggling within a flush interval costs
+ * nothing. Each flush looks up and drops upvote edges by their ids, then adds the new upvote edges and writes the
+ * post's denormalized like count in a single traversal. Votes stay pending until that traversal completes, and the
+ * voter sees their own pending votes through {@link #applyPendingVotes(Post, String)}. A failed flush leaves them
+ * pending for the next one.
+ */
+@Log4j2
+@Service
+public class VoteBuffer {
+    private static final String FLUSH_VOTES_METRIC_NAME = "FlushVotes";
+    private static final String FAILED_VOTE_FLUSH_METRIC_NAME = "FailedVoteFlush";
+
+    // postId -> username -> whether the post is upvoted. A post's votes are only ever mutated inside compute() on
+    // the outer map, which makes recording a vote atomic with the flush removing the votes it wrote.
+    private final Map<String, Map<String, Boolean>> pendingVotes = new ConcurrentHashMap<>();
+
+    @Qualifier("writer")
+    @Autowired
+    private GraphTraversalSource wG;
+    @Autowired
+    private MetricsService metricsService;
+    @Autowired
+    private NotificationService notificationService;
+    @Value("${graph.edge.id.legacy.lookup.enabled}")
+    private boolean isLegacyEdgeLookupEnabled;
+
+    public void recordVote(final String postId, final String username, final boolean isUpvoted) {
+        pendingVotes.compute(postId, (key, votes) -> {
+            final Map<String, Boolean> postVotes = votes == null ? new ConcurrentHashMap<>() : votes;
+            postVotes.put(username, isUpvoted);
+            return postVotes;
+        });
+    }
+
+    public Optional<Boolean> getPendingVote(final String postId, final String username) {
+        final Map<String, Boolean> postVotes = pendingVotes.get(postId);
+        return postVotes == null ? Optional.empty() : Optional.ofNullable(postVotes.get(username));
+    }
+
+    /**
+     * Overlays the calling user's unflushed votes onto a Post and its comments.
+     */
+    public void applyPendingVotes(final Post post, final String callingUsername) {
+        getPendingVote(post.getPostId(), callingUsername).ifPresent(isUpvoted -> {
+            if (isUpvoted && !post.isPostLikedByUser()) {
+                post.setNumLikes(post.getNumLikes() + 1);
+            } else if (!isUpvoted && post.isPostLikedByUser()) {
+                post.setNumLikes(Math.max(0, post.getNumLikes() - 1));
+            }
+            post.setPostLikedByUser(isUpvoted);
+        });
+        post.getComments().forEach(comment -> applyPendingVotes(comment, callingUsername));
+    }
+
+    /**
+     * Writes every pending vote to the graph. Also runs on shutdown, so that the last interval's votes are kept.
+     */
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${vote.buffer.flush.interval.millis}")
+    public void flush() {
+        final long startTime = System.nanoTime();
+        metricsService.addCountMetric(FLUSH_VOTES_METRIC_NAME);
+
+        for (final Map.Entry<String, Map<String, Boolean>> entry : pendingVotes.entrySet()) {
+            final String postId = entry.getKey();
+            // A copy, so that votes recorded while it is written are compared against what was written
+            final Map<String, Boolean> postVotes = new HashMap<>(entry.getValue());
+            if (postVotes.isEmpty()) {
+                continue;
+            }
+
+            try {
+                flushPostVotes(postId, postVotes);
+            } catch (final Exception e) {
+                log.error(String.format("Failed to flush %d votes for postId %s", postVotes.size(), postId), e);
+                metricsService.addCountMetric(FAILED_VOTE_FLUSH_METRIC_NAME);
+                continue;
+            }
+            removeFlushedVotes(postId, postVotes);
+        }
+
+        metricsService.addSuccessMetric(FLUSH_VOTES_METRIC_NAME);
+        metricsService.addLatencyMetric(FLUSH_VOTES_METRIC_NAME, System.nanoTime() - startTime);
+    }
+
+    private void flushPostVotes(final String postId, final Map<String, Boolean> postVotes) {
+        final Map<String, String> upvoteEdgeIds = usernamesWithVote(postVotes, true).stream()
+            .collect(Collectors.toMap(
+                Function.identity(),
+                username -> getEdgeId(USER_UPVOTED_POST_EDGE_LABEL, username, postId)
+            ));
+        final Set<String> removedUpvoterUsernames = usernamesWithVote(postVotes, false);
+        final Object[] removedUpvoteEdgeIds = removedUpvoterUsernames.stream()
+            .map(username -> getEdgeId(USER_UPVOTED_POST_EDGE_LABEL, username, postId))
+            .toArray();
+
+        // Removals and the existence of upvotes are lookups by edge id, however many upvotes the users or post have
+        if (removedUpvoteEdgeIds.length > 0) {
+            wG.E(removedUpvoteEdgeIds).drop().iterate();
+            if (isLegacyEdgeLookupEnabled) {
+                getLegacyUpvotes(postId, removedUpvoterUsernames).drop().iterate();
+            }
+        }
+        final Set<Object> existingUpvoteEdgeIds = upvoteEdgeIds.isEmpty()
+            ? Set.of()
+            : new HashSet<>(wG.E(upvoteEdgeIds.values().toArray()).id().toList());
+        final Set<Object> legacyUpvoterUsernames = upvoteEdgeIds.isEmpty() || !isLegacyEdgeLookupEnabled
+            ? Set.of()
+            : new HashSet<>(
+                getLegacyUpvotes(postId, upvoteEdgeIds.keySet()).outV().values(USER_USERNAME_PROPERTY).toList()
+            );
+        final Set<String> newUpvoterUsernames = upvoteEdgeIds.keySet().stream()
+            .filter(username -> !existingUpvoteEdgeIds.contains(upvoteEdgeIds.get(username)))
+            .filter(username -> !legacyUpvoterUsernames.contains(username))
+            .collect(Collectors.toSet());
+
+        GraphTraversal<Vertex, Vertex> traversal = wG.V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, postId).as("post");
+        for (final String username : newUpvoterUsernames) {
+            traversal = traversal.sideEffect(
+                V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, username)
+                    .addE(USER_UPVOTED_POST_EDGE_LABEL).to("post")
+                    .property(T.id, upvoteEdgeIds.get(username))
+            );
+        }
+        final Optional<Object> submitterUsername = traversal
+            .property(single, POST_NUM_LIKES_PROPERTY, inE(USER_UPVOTED_POST_EDGE_LABEL).count())
+            .in(USER_SUBMITTED_POST_EDGE_LABEL)
+            .values(USER_USERNAME_PROPERTY)
+            .tryNext();
+
+        submitterUsername.ifPresent(toUsername -> newUpvoterUsernames.forEach(
+            fromUsername -> sendPostLikeNotification(postId, (String) toUsername, fromUsername)
+        ));
+    }
+
+    /**
+     * Upvotes created before edges had deterministic ids, which are only found by scanning the post's upvotes. Only
+     * needed until the EdgeIdBackfillRunner has given every such edge its id.
+     */
+    private GraphTraversal<Vertex, Edge> getLegacyUpvotes(final String postId, final Set<String> usernames) {
+        return wG
+            .V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, postId)
+            .inE(USER_UPVOTED_POST_EDGE_LABEL)
+            .where(outV().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, within(usernames)));
+    }
+
+    private void removeFlushedVotes(final String postId, final Map<String, Boolean> flushedVotes) {
+        // Votes changed since the flush read them are newer than what was written, so they stay pending
+        pendingVotes.computeIfPresent(postId, (key, votes) -> {
+            flushedVotes.forEach(votes::remove);
+            return votes.isEmpty() ? null : votes;
+        });
+    }
+
+    private void sendPostLikeNotification(final String postId, final String toUsername, final String fromUsername) {
+        try {
+            notificationService.notify(
+                PostLikeNotification.builder()
+                    .notificationId(UUID.randomUUID().toString())
+                    .toUsername(toUsername)
+                    .createdAt(new Date())
+                    .fromUsername(fromUsername)
+                    .isRead(false)
+                    .postId(postId)
+                    .build()
+            );
+        } catch (final Exception e) {
+            log.error(String.format(
+                "Failed to send post like notification for postId %s and fromUsername %s",
+                postId,
+                fromUsername
+            ));
+        }
+    }
+
+    private static Set<String> usernamesWithVote(final Map<String, Boolean> postVotes, final boolean isUpvoted) {
+        return postVotes.entrySet().stream()
+            .filter(vote -> vote.getValue() == isUpvoted)
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,46 @@
+package com.pylon.pylonservice.util;
+
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+
+import static com.pylon.pylonservice.constants.GraphConstants.USER_USERNAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_VERTEX_LABEL;
+import static org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__.inV;
+
+public final class EdgeIdUtil {
+    private static final String EDGE_ID_DELIMITER = ":";
+
+    private EdgeIdUtil() {}
+
+    /**
+     * Edges of which there is at most one per pair of vertices are given an id derived from their label and the
+     * unique keys of their vertices, so that whether they exist can be checked, and they can be dropped, by looking
+     * them up by id instead of scanning every edge of the vertex.
+     *
+     * @param edgeLabel The label of the edge.
+     * @param fromKey The unique key (username, shardName or postId) of the vertex the edge goes out of.
+     * @param toKey The unique key (username, shardName or postId) of the vertex the edge goes into.
+     */
+    public static String getEdgeId(final String edgeLabel, final String fromKey, final String toKey) {
+        return String.join(EDGE_ID_DELIMITER, edgeLabel, fromKey, toKey);
+    }
+
+    /**
+     * Finds edges from a User created before edges had deterministic ids, which can only be found by scanning the
+     * User's edges. Only needed while graph.edge.id.legacy.lookup.enabled is true, that is until the
+     * EdgeIdBackfillRunner has given every such edge its id.
+     */
+    public static GraphTraversal<Vertex, Edge> getLegacyEdges(final GraphTraversalSource g,
+                                                              final String edgeLabel,
+                                                              final String fromUsername,
+                                                              final String toVertexLabel,
+                                                              final String toKeyProperty,
+                                                              final String toKey) {
+        return g
+            .V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, fromUsername)
+            .outE(edgeLabel)
+            .where(inV().has(toVertexLabel, toKeyProperty, toKey));
+    }
+}
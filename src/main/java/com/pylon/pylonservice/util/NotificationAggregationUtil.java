@@ -0,0 +1,34 @@
+package com.pylon.pylonservice.util;
+
+import com.pylon.pylonservice.enums.NotificationType;
+
+import java.time.Duration;
+import java.util.Date;
+
+public final class NotificationAggregationUtil {
+    private static final String AGGREGATED_NOTIFICATION_ID_DELIMITER = "#";
+
+    private NotificationAggregationUtil() {}
+
+    public static long getAggregationWindowIndex(final Date createdAt, final Duration aggregationWindow) {
+        return Math.floorDiv(createdAt.getTime(), aggregationWindow.toMillis());
+    }
+
+    /**
+     * Notifications of the same type about the same subject for the same recipient within one aggregation window map
+     * to the same notificationId, so that they can be upserted into a single rolled-up item.
+     */
+    public static String getAggregatedNotificationId(final NotificationType notificationType,
+                                                     final String toUsername,
+                                                     final String subjectId,
+                                                     final Date createdAt,
+                                                     final Duration aggregationWindow) {
+        return String.join(
+            AGGREGATED_NOTIFICATION_ID_DELIMITER,
+            Integer.toString(notificationType.getValue()),
+            toUsername,
+            subjectId,
+            Long.toString(getAggregationWindowIndex(createdAt, aggregationWindow))
+        );
+    }
+}
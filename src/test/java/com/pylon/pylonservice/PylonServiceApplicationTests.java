@@ -2,8 +2,12 @@ package com.pylon.pylonservice;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
-@SpringBootTest
+// With no tables created at startup and search catch up, which polls the RecentItem table, turned off, nothing touches
+// DynamoDB until a request does, so the context loads without DynamoDB Local
+@SpringBootTest(properties = {"dynamodb.create.tables=false", "search.catch.up.enabled=false"})
+@ActiveProfiles("inmemory")
 class PylonServiceApplicationTests {
 
 	@Test
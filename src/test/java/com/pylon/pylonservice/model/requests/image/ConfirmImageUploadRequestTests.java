@@ -0,0 +1,50 @@
+package com.pylon.pylonservice.model.requests.image;
+
+import org.assertj.core.api.Assertions;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class ConfirmImageUploadRequestTests {
+    @DataProvider
+    private Object[][] provideValidConfirmImageUploadRequests() {
+        return new Object[][] {
+            {
+                new ConfirmImageUploadRequest("5237af6c-6cf7-46ee-8537-f0b1b90d870a.png")
+            },
+            {
+                new ConfirmImageUploadRequest("5237af6c-6cf7-46ee-8537-f0b1b90d870a.jpg")
+            },
+            {
+                new ConfirmImageUploadRequest("5237af6c-6cf7-46ee-8537-f0b1b90d870a.gif")
+            }
+        };
+    }
+
+    @DataProvider
+    private Object[][] provideInvalidConfirmImageUploadRequests() {
+        return new Object[][] {
+            {
+                new ConfirmImageUploadRequest(null)
+            },
+            {
+                new ConfirmImageUploadRequest("5237af6c-6cf7-46ee-8537-f0b1b90d870a.svg")
+            },
+            {
+                new ConfirmImageUploadRequest("5237af6c-6cf7-46ee-8537-f0b1b90d870a_256.png")
+            },
+            {
+                new ConfirmImageUploadRequest("../5237af6c-6cf7-46ee-8537-f0b1b90d870a.png")
+            }
+        };
+    }
+
+    @Test(dataProvider = "provideValidConfirmImageUploadRequests")
+    public void testValidConfirmImageUploadRequests(final ConfirmImageUploadRequest confirmImageUploadRequest) {
+        Assertions.assertThat(confirmImageUploadRequest.isValid()).isTrue();
+    }
+
+    @Test(dataProvider = "provideInvalidConfirmImageUploadRequests")
+    public void testInvalidConfirmImageUploadRequests(final ConfirmImageUploadRequest confirmImageUploadRequest) {
+        Assertions.assertThat(confirmImageUploadRequest.isValid()).isFalse();
+    }
+}
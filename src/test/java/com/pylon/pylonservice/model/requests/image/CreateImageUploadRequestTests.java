@@ -0,0 +1,50 @@
+package com.pylon.pylonservice.model.requests.image;
+
+import org.assertj.core.api.Assertions;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class CreateImageUploadRequestTests {
+    @DataProvider
+    private Object[][] provideValidCreateImageUploadRequests() {
+        return new Object[][] {
+            {
+                new CreateImageUploadRequest("image/png")
+            },
+            {
+                new CreateImageUploadRequest("image/jpeg")
+            },
+            {
+                new CreateImageUploadRequest("image/gif")
+            }
+        };
+    }
+
+    @DataProvider
+    private Object[][] provideInvalidCreateImageUploadRequests() {
+        return new Object[][] {
+            {
+                new CreateImageUploadRequest(null)
+            },
+            {
+                new CreateImageUploadRequest("")
+            },
+            {
+                new CreateImageUploadRequest("image/svg+xml")
+            },
+            {
+                new CreateImageUploadRequest("application/octet-stream")
+            }
+        };
+    }
+
+    @Test(dataProvider = "provideValidCreateImageUploadRequests")
+    public void testValidCreateImageUploadRequests(final CreateImageUploadRequest createImageUploadRequest) {
+        Assertions.assertThat(createImageUploadRequest.isValid()).isTrue();
+    }
+
+    @Test(dataProvider = "provideInvalidCreateImageUploadRequests")
+    public void testInvalidCreateImageUploadRequests(final CreateImageUploadRequest createImageUploadRequest) {
+        Assertions.assertThat(createImageUploadRequest.isValid()).isFalse();
+    }
+}
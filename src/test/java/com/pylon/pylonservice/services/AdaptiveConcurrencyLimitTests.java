@@ -0,0 +1,104 @@
+package com.pylon.pylonservice.services;
+
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AdaptiveConcurrencyLimitTests {
+    private static final Duration LATENCY_THRESHOLD = Duration.ofMillis(100);
+    private static final long FAST_NANOS = Duration.ofMillis(10).toNanos();
+    private static final long SLOW_NANOS = Duration.ofMillis(500).toNanos();
+    private static final double BACKOFF_RATIO = 0.5;
+
+    @Test
+    public void testRejectsBeyondLimit() {
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, LATENCY_THRESHOLD, BACKOFF_RATIO);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.getNumInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    public void testReleaseFreesConcurrency() {
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 1, LATENCY_THRESHOLD, BACKOFF_RATIO);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        limit.release(FAST_NANOS, false);
+
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    public void testFastRequestsAtHighUsageRaiseLimit() {
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, LATENCY_THRESHOLD, BACKOFF_RATIO);
+
+        limit.tryAcquire();
+        limit.tryAcquire();
+        limit.release(FAST_NANOS, false);
+
+        assertThat(limit.getLimit()).isEqualTo(3);
+    }
+
+    @Test
+    public void testFastRequestsAtLowUsageKeepLimit() {
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 1, 10, LATENCY_THRESHOLD, BACKOFF_RATIO);
+
+        limit.tryAcquire();
+        limit.release(FAST_NANOS, false);
+
+        assertThat(limit.getLimit()).isEqualTo(8);
+    }
+
+    @Test
+    public void testSlowRequestsLowerLimit() {
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 1, 10, LATENCY_THRESHOLD, BACKOFF_RATIO);
+
+        limit.tryAcquire();
+        limit.release(SLOW_NANOS, false);
+
+        assertThat(limit.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    public void testFailedRequestsLowerLimit() {
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 1, 10, LATENCY_THRESHOLD, BACKOFF_RATIO);
+
+        limit.tryAcquire();
+        limit.release(FAST_NANOS, true);
+
+        assertThat(limit.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    public void testLimitStaysWithinBounds() {
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 2, 6, LATENCY_THRESHOLD, BACKOFF_RATIO);
+
+        IntStream.range(0, 10).forEach(i -> {
+            limit.tryAcquire();
+            limit.release(SLOW_NANOS, false);
+        });
+        assertThat(limit.getLimit()).isEqualTo(2);
+
+        for (int i = 0; i < 10; i++) {
+            while (limit.tryAcquire()) {
+                // Use the whole limit
+            }
+            while (limit.getNumInFlight() > 0) {
+                limit.release(FAST_NANOS, false);
+            }
+        }
+        assertThat(limit.getLimit()).isEqualTo(6);
+    }
+
+    @Test
+    public void testRejectsInvalidBounds() {
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimit(1, 2, 10, LATENCY_THRESHOLD, BACKOFF_RATIO))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,35 @@
+package com.pylon.pylonservice.services;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ImageProcessingServiceTests {
+    private static final String UUID = "5237af6c-6cf7-46ee-8537-f0b1b90d870a";
+
+    @DataProvider
+    public Object[][] provideVariantFilenames() {
+        return new Object[][] {
+            {
+                UUID + ".png",
+                List.of(UUID + "_128.png", UUID + "_256.png", UUID + "_512.png", UUID + "_1024.png")
+            },
+            {
+                UUID + ".jpg",
+                List.of(UUID + "_128.jpg", UUID + "_256.jpg", UUID + "_512.jpg", UUID + "_1024.jpg")
+            },
+            {
+                UUID + ".gif", List.of()
+            }
+        };
+    }
+
+    @Test(dataProvider = "provideVariantFilenames")
+    public void testGetVariantFilenames(final String filename, final List<String> expectedVariantFilenames) {
+        assertThat(ImageProcessingService.getVariantFilenames(filename))
+            .containsExactlyElementsOf(expectedVariantFilenames);
+    }
+}
@@ -0,0 +1,56 @@
+package com.pylon.pylonservice.services;
+
+import com.pylon.pylonservice.model.domain.notification.Notification;
+import com.pylon.pylonservice.model.domain.notification.ProfileFollowNotification;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InMemoryNotificationBusTests {
+    private static final Notification TEST_NOTIFICATION = ProfileFollowNotification.builder()
+        .notificationId("5237af6c-6cf7-46ee-8537-f0b1b90d870a")
+        .toUsername("testtousername")
+        .createdAt(new Date())
+        .fromUsername("testfromusername")
+        .isRead(false)
+        .build();
+
+    @Test
+    public void testPublishDeliversToEverySubscriber() {
+        final InMemoryNotificationBus notificationBus = new InMemoryNotificationBus();
+        final List<Notification> firstReceived = new ArrayList<>();
+        final List<Notification> secondReceived = new ArrayList<>();
+        notificationBus.subscribe(firstReceived::add);
+        notificationBus.subscribe(secondReceived::add);
+
+        notificationBus.publish(TEST_NOTIFICATION);
+
+        assertThat(firstReceived).containsExactly(TEST_NOTIFICATION);
+        assertThat(secondReceived).containsExactly(TEST_NOTIFICATION);
+    }
+
+    @Test
+    public void testPublishWithoutSubscribers() {
+        final InMemoryNotificationBus notificationBus = new InMemoryNotificationBus();
+
+        notificationBus.publish(TEST_NOTIFICATION);
+    }
+
+    @Test
+    public void testFailingSubscriberDoesNotBlockOtherSubscribers() {
+        final InMemoryNotificationBus notificationBus = new InMemoryNotificationBus();
+        final List<Notification> received = new ArrayList<>();
+        notificationBus.subscribe(notification -> {
+            throw new IllegalStateException();
+        });
+        notificationBus.subscribe(received::add);
+
+        notificationBus.publish(TEST_NOTIFICATION);
+
+        assertThat(received).containsExactly(TEST_NOTIFICATION);
+    }
+}
@@ -0,0 +1,115 @@
+package com.pylon.pylonservice.services;
+
+import com.amazonaws.services.cloudwatch.AmazonCloudWatch;
+import com.amazonaws.services.cloudwatch.model.MetricDatum;
+import com.amazonaws.services.cloudwatch.model.PutMetricDataRequest;
+import com.amazonaws.services.cloudwatch.model.StandardUnit;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetricsServiceTests {
+    private static final String TEST_METRIC_NAME = "TestMetric";
+    private static final int TEST_QUEUE_CAPACITY = 1000;
+
+    private AmazonCloudWatch amazonCloudWatch;
+    private MetricsService metricsService;
+
+    @BeforeMethod
+    public void setUp() {
+        amazonCloudWatch = Mockito.mock(AmazonCloudWatch.class);
+        metricsService = new MetricsService("test", TEST_QUEUE_CAPACITY);
+        ReflectionTestUtils.setField(metricsService, "amazonCloudWatch", amazonCloudWatch);
+    }
+
+    @Test
+    public void testNothingIsSentUntilFlush() {
+        metricsService.addCountMetric(TEST_METRIC_NAME);
+
+        Mockito.verifyNoInteractions(amazonCloudWatch);
+    }
+
+    @Test
+    public void testCountsAreCombined() {
+        metricsService.addCountMetric(TEST_METRIC_NAME);
+        metricsService.addCountMetric(TEST_METRIC_NAME);
+        metricsService.addCountMetric(TEST_METRIC_NAME);
+
+        metricsService.flush();
+
+        final List<MetricDatum> metricData = getSentMetricData();
+        assertThat(metricData).hasSize(1);
+        assertThat(metricData.get(0).getMetricName()).isEqualTo(TEST_METRIC_NAME);
+        assertThat(metricData.get(0).getValues()).containsExactly(1D);
+        assertThat(metricData.get(0).getCounts()).containsExactly(3D);
+        assertThat(metricData.get(0).getDimensions()).hasSize(1);
+    }
+
+    @Test
+    public void testLatenciesKeepEachValue() {
+        metricsService.addLatencyMetric(TEST_METRIC_NAME, TimeUnit.MILLISECONDS.toNanos(5));
+        metricsService.addLatencyMetric(TEST_METRIC_NAME, TimeUnit.MILLISECONDS.toNanos(20));
+        metricsService.addLatencyMetric(TEST_METRIC_NAME, TimeUnit.MILLISECONDS.toNanos(5));
+
+        metricsService.flush();
+
+        final List<MetricDatum> metricData = getSentMetricData();
+        assertThat(metricData).hasSize(1);
+        assertThat(metricData.get(0).getValues()).containsExactly(5D, 20D);
+        assertThat(metricData.get(0).getCounts()).containsExactly(2D, 1D);
+    }
+
+    @Test
+    public void testManyValuesAreSplitIntoRequestsWithinLimits() {
+        final int numValues = MetricsService.MAX_VALUES_PER_DATUM * MetricsService.MAX_DATUMS_PER_REQUEST + 1;
+        for (int i = 0; i < numValues; i++) {
+            metricsService.addGaugeMetric(TEST_METRIC_NAME, i, StandardUnit.Count);
+        }
+
+        metricsService.flush();
+
+        final List<PutMetricDataRequest> putMetricDataRequests = getSentRequests();
+        assertThat(putMetricDataRequests).hasSize(2);
+        assertThat(putMetricDataRequests).allSatisfy(putMetricDataRequest -> {
+            assertThat(putMetricDataRequest.getMetricData()).hasSizeLessThanOrEqualTo(
+                MetricsService.MAX_DATUMS_PER_REQUEST
+            );
+            assertThat(putMetricDataRequest.getMetricData()).allSatisfy(metricDatum ->
+                assertThat(metricDatum.getValues()).hasSizeLessThanOrEqualTo(MetricsService.MAX_VALUES_PER_DATUM)
+            );
+        });
+        assertThat(getSentMetricData().stream().mapToInt(metricDatum -> metricDatum.getValues().size()).sum())
+            .isEqualTo(numValues);
+    }
+
+    @Test
+    public void testMetricsBeyondQueueCapacityAreDropped() {
+        for (int i = 0; i < TEST_QUEUE_CAPACITY + 1; i++) {
+            metricsService.addCountMetric(TEST_METRIC_NAME);
+        }
+
+        metricsService.flush();
+
+        assertThat(getSentMetricData().get(0).getCounts()).containsExactly((double) TEST_QUEUE_CAPACITY);
+    }
+
+    private List<PutMetricDataRequest> getSentRequests() {
+        final ArgumentCaptor<PutMetricDataRequest> captor = ArgumentCaptor.forClass(PutMetricDataRequest.class);
+        Mockito.verify(amazonCloudWatch, Mockito.atLeastOnce()).putMetricData(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private List<MetricDatum> getSentMetricData() {
+        return getSentRequests().stream()
+            .flatMap(putMetricDataRequest -> putMetricDataRequest.getMetricData().stream())
+            .collect(Collectors.toList());
+    }
+}
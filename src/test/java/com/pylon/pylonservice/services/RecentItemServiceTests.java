@@ -0,0 +1,79 @@
+package com.pylon.pylonservice.services;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper.FailedBatch;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.pylon.pylonservice.enums.RecentItemType;
+import com.pylon.pylonservice.model.tables.RecentItem;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.annotations.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RecentItemServiceTests {
+    private static final String TEST_POST_ID = "5237af6c-6cf7-46ee-8537-f0b1b90d870a";
+
+    @Test
+    public void testRecencyKeysSortByCreationTime() {
+        final RecentItem older = RecentItemService.toRecentItem(RecentItemType.POST, "b", new Date(999L));
+        final RecentItem newer = RecentItemService.toRecentItem(RecentItemType.POST, "a", new Date(1000L));
+
+        assertThat(newer.getRecencyKey()).isGreaterThan(older.getRecencyKey());
+    }
+
+    @Test
+    public void testCursorRoundTrips() {
+        final RecentItem recentItem =
+            RecentItemService.toRecentItem(RecentItemType.POST, TEST_POST_ID, new Date(1600000000000L));
+
+        final String cursor = RecentItemService.encodeCursor(recentItem.getRecencyKey());
+
+        assertThat(RecentItemService.decodeCursor(cursor)).isEqualTo(recentItem.getRecencyKey());
+    }
+
+    @Test
+    public void testRejectsInvalidCursor() {
+        assertThatThrownBy(() -> RecentItemService.decodeCursor("not a cursor"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecentItemService.decodeCursor(RecentItemService.encodeCursor("123#abc")))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testRejectsSkippingTooManyItems() {
+        assertThatThrownBy(() -> new RecentItemService().getPage(
+            RecentItemType.POST, null, RecentItemService.MAX_NUM_TO_SKIP + 1, 25
+        )).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testRejectsSkippingAfterCursor() {
+        final String cursor = RecentItemService.encodeCursor(
+            RecentItemService.toRecentItem(RecentItemType.POST, TEST_POST_ID, new Date(1600000000000L)).getRecencyKey()
+        );
+
+        assertThatThrownBy(() -> new RecentItemService().getPage(RecentItemType.POST, cursor, 1, 25))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testRecordAllThrowsOnFailedBatch() {
+        final DynamoDBMapper dynamoDBMapper = Mockito.mock(DynamoDBMapper.class);
+        final FailedBatch failedBatch = new FailedBatch();
+        failedBatch.setUnprocessedItems(Map.of("RecentItem", List.of(new WriteRequest())));
+        failedBatch.setException(new RuntimeException("Throttled"));
+        Mockito.when(dynamoDBMapper.batchSave(Mockito.anyList())).thenReturn(List.of(failedBatch));
+        final RecentItemService recentItemService = new RecentItemService();
+        ReflectionTestUtils.setField(recentItemService, "dynamoDBMapper", dynamoDBMapper);
+
+        assertThatThrownBy(() -> recentItemService.recordAll(List.of(
+            RecentItemService.toRecentItem(RecentItemType.POST, TEST_POST_ID, new Date(1600000000000L))
+        ))).isInstanceOf(IllegalStateException.class);
+    }
+}
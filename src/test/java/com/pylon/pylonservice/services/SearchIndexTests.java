@@ -0,0 +1,78 @@
+package com.pylon.pylonservice.services;
+
+import com.pylon.pylonservice.pojo.SearchResult;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SearchIndexTests {
+    private SearchIndex searchIndex;
+
+    @BeforeMethod
+    public void setup() {
+        searchIndex = new SearchIndex();
+        searchIndex.put("darksouls", "Dark Souls", List.of("darksouls", "Dark Souls"),
+            List.of("Praise the sun"));
+        searchIndex.put("dark", "Dark", List.of("dark", "Dark"), List.of("Everything dark"));
+        searchIndex.put("soulsborne", "Soulsborne Fans", List.of("soulsborne", "Soulsborne Fans"),
+            List.of("Dark and difficult games"));
+    }
+
+    @Test
+    public void testTypeaheadMatchesPrefixOfLastWord() {
+        final List<SearchResult> searchResults = searchIndex.typeahead("dark so", 10);
+
+        assertThat(searchResults)
+            .extracting(SearchResult::getItemId)
+            .containsExactly("darksouls");
+        assertThat(searchResults.get(0).getDisplayName()).isEqualTo("Dark Souls");
+    }
+
+    @Test
+    public void testTypeaheadRanksExactThenPrefixNameMatchesFirst() {
+        assertThat(searchIndex.typeahead("DARK", 10))
+            .extracting(SearchResult::getItemId)
+            .containsExactly("dark", "darksouls");
+    }
+
+    @Test
+    public void testTypeaheadIgnoresText() {
+        assertThat(searchIndex.typeahead("difficult", 10)).isEmpty();
+    }
+
+    @Test
+    public void testSearchMatchesText() {
+        assertThat(searchIndex.search("dark", 10)).containsExactly("dark", "darksouls", "soulsborne");
+        assertThat(searchIndex.search("difficult games!", 10)).containsExactly("soulsborne");
+    }
+
+    @Test
+    public void testSearchLimitsCount() {
+        assertThat(searchIndex.search("dark", 2)).containsExactly("dark", "darksouls");
+    }
+
+    @Test
+    public void testSearchWithoutWordsMatchesNothing() {
+        assertThat(searchIndex.search(" -- ", 10)).isEmpty();
+    }
+
+    @Test
+    public void testPutReplacesWords() {
+        searchIndex.put("dark", "Light", List.of("dark", "Light"), List.of());
+
+        assertThat(searchIndex.search("everything", 10)).isEmpty();
+        assertThat(searchIndex.search("light", 10)).containsExactly("dark");
+        assertThat(searchIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void testPutIfAbsentKeepsExistingItem() {
+        searchIndex.putIfAbsent("dark", "Light", List.of("dark", "Light"), List.of());
+
+        assertThat(searchIndex.search("light", 10)).isEmpty();
+        assertThat(searchIndex.search("everything", 10)).containsExactly("dark");
+    }
+}
@@ -0,0 +1,63 @@
+package com.pylon.pylonservice.services;
+
+import org.springframework.util.unit.DataSize;
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UploadAdmissionServiceTests {
+    private static final long ONE_MEGABYTE = DataSize.ofMegabytes(1).toBytes();
+    private static final long NO_WAIT_MILLIS = 0;
+
+    @Test
+    public void testAdmitsWithinLimits() throws InterruptedException {
+        final UploadAdmissionService uploadAdmissionService =
+            new UploadAdmissionService(2, DataSize.ofMegabytes(4), NO_WAIT_MILLIS);
+
+        assertThat(uploadAdmissionService.tryAdmit(ONE_MEGABYTE)).isTrue();
+        assertThat(uploadAdmissionService.tryAdmit(ONE_MEGABYTE)).isTrue();
+        assertThat(uploadAdmissionService.getInFlightBytes()).isEqualTo(2 * ONE_MEGABYTE);
+    }
+
+    @Test
+    public void testRejectsBeyondMaxConcurrentUploads() throws InterruptedException {
+        final UploadAdmissionService uploadAdmissionService =
+            new UploadAdmissionService(1, DataSize.ofMegabytes(4), NO_WAIT_MILLIS);
+
+        assertThat(uploadAdmissionService.tryAdmit(ONE_MEGABYTE)).isTrue();
+        assertThat(uploadAdmissionService.tryAdmit(ONE_MEGABYTE)).isFalse();
+        assertThat(uploadAdmissionService.getInFlightBytes()).isEqualTo(ONE_MEGABYTE);
+    }
+
+    @Test
+    public void testRejectsBeyondInFlightBytesBudget() throws InterruptedException {
+        final UploadAdmissionService uploadAdmissionService =
+            new UploadAdmissionService(4, DataSize.ofMegabytes(2), NO_WAIT_MILLIS);
+
+        assertThat(uploadAdmissionService.tryAdmit(ONE_MEGABYTE + 1)).isTrue();
+        assertThat(uploadAdmissionService.tryAdmit(ONE_MEGABYTE)).isFalse();
+        // The rejected upload must not keep its upload slot
+        assertThat(uploadAdmissionService.tryAdmit(1)).isTrue();
+    }
+
+    @Test
+    public void testAdmitsUploadLargerThanBudgetWhenIdle() throws InterruptedException {
+        final UploadAdmissionService uploadAdmissionService =
+            new UploadAdmissionService(4, DataSize.ofMegabytes(1), NO_WAIT_MILLIS);
+
+        assertThat(uploadAdmissionService.tryAdmit(4 * ONE_MEGABYTE)).isTrue();
+        assertThat(uploadAdmissionService.tryAdmit(1)).isFalse();
+    }
+
+    @Test
+    public void testReleaseRestoresCapacity() throws InterruptedException {
+        final UploadAdmissionService uploadAdmissionService =
+            new UploadAdmissionService(1, DataSize.ofMegabytes(1), NO_WAIT_MILLIS);
+
+        assertThat(uploadAdmissionService.tryAdmit(ONE_MEGABYTE)).isTrue();
+        uploadAdmissionService.release(ONE_MEGABYTE);
+
+        assertThat(uploadAdmissionService.getInFlightBytes()).isZero();
+        assertThat(uploadAdmissionService.tryAdmit(ONE_MEGABYTE)).isTrue();
+    }
+}
@@ -0,0 +1,161 @@
+package com.pylon.pylonservice.services;
+
+import com.pylon.pylonservice.model.domain.notification.PostLikeNotification;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static com.pylon.pylonservice.constants.GraphConstants.POST_ID_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_NUM_LIKES_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.POST_VERTEX_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_SUBMITTED_POST_EDGE_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_UPVOTED_POST_EDGE_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_USERNAME_PROPERTY;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_VERTEX_LABEL;
+import static com.pylon.pylonservice.util.EdgeIdUtil.getEdgeId;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VoteBufferTests {
+    private static final String TEST_POST_ID = "5237af6c-6cf7-46ee-8537-f0b1b90d870a";
+    private static final String TEST_USERNAME = "testusername";
+    private static final String OTHER_USERNAME = "otherusername";
+    private static final String SUBMITTER_USERNAME = "submitterusername";
+
+    private GraphTraversalSource wG;
+    private MetricsService metricsService;
+    private NotificationService notificationService;
+    private VoteBuffer voteBuffer;
+
+    @BeforeMethod
+    public void setUp() {
+        wG = TinkerGraph.open().traversal();
+        final Vertex post = wG.addV(POST_VERTEX_LABEL)
+            .property(POST_ID_PROPERTY, TEST_POST_ID)
+            .property(POST_NUM_LIKES_PROPERTY, 0L)
+            .next();
+        wG.addV(USER_VERTEX_LABEL).property(USER_USERNAME_PROPERTY, SUBMITTER_USERNAME)
+            .addE(USER_SUBMITTED_POST_EDGE_LABEL).to(post)
+            .iterate();
+        wG.addV(USER_VERTEX_LABEL).property(USER_USERNAME_PROPERTY, TEST_USERNAME).iterate();
+        wG.addV(USER_VERTEX_LABEL).property(USER_USERNAME_PROPERTY, OTHER_USERNAME).iterate();
+
+        metricsService = Mockito.mock(MetricsService.class);
+        notificationService = Mockito.mock(NotificationService.class);
+        voteBuffer = new VoteBuffer();
+        ReflectionTestUtils.setField(voteBuffer, "wG", wG);
+        ReflectionTestUtils.setField(voteBuffer, "metricsService", metricsService);
+        ReflectionTestUtils.setField(voteBuffer, "notificationService", notificationService);
+    }
+
+    @Test
+    public void testNoPendingVote() {
+        assertThat(voteBuffer.getPendingVote(TEST_POST_ID, TEST_USERNAME)).isEmpty();
+    }
+
+    @Test
+    public void testLatestVoteWins() {
+        voteBuffer.recordVote(TEST_POST_ID, TEST_USERNAME, true);
+        voteBuffer.recordVote(TEST_POST_ID, TEST_USERNAME, false);
+
+        assertThat(voteBuffer.getPendingVote(TEST_POST_ID, TEST_USERNAME)).contains(false);
+    }
+
+    @Test
+    public void testVotesAreKeptPerUser() {
+        voteBuffer.recordVote(TEST_POST_ID, TEST_USERNAME, true);
+
+        assertThat(voteBuffer.getPendingVote(TEST_POST_ID, OTHER_USERNAME)).isEmpty();
+    }
+
+    @Test
+    public void testFlushAddsUpvotesAndCountsLikes() {
+        voteBuffer.recordVote(TEST_POST_ID, TEST_USERNAME, true);
+        voteBuffer.recordVote(TEST_POST_ID, OTHER_USERNAME, true);
+
+        voteBuffer.flush();
+
+        assertThat(wG.E(
+            getEdgeId(USER_UPVOTED_POST_EDGE_LABEL, TEST_USERNAME, TEST_POST_ID),
+            getEdgeId(USER_UPVOTED_POST_EDGE_LABEL, OTHER_USERNAME, TEST_POST_ID)
+        ).count().next()).isEqualTo(2L);
+        assertThat(getNumLikes()).isEqualTo(2L);
+        assertThat(voteBuffer.getPendingVote(TEST_POST_ID, TEST_USERNAME)).isEmpty();
+        Mockito.verify(notificationService, Mockito.times(2)).notify(Mockito.any(PostLikeNotification.class));
+    }
+
+    @Test
+    public void testFlushDropsRemovedUpvotes() {
+        voteBuffer.recordVote(TEST_POST_ID, TEST_USERNAME, true);
+        voteBuffer.flush();
+
+        voteBuffer.recordVote(TEST_POST_ID, TEST_USERNAME, false);
+        voteBuffer.flush();
+
+        assertThat(wG.V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, TEST_POST_ID)
+            .inE(USER_UPVOTED_POST_EDGE_LABEL).hasNext()).isFalse();
+        assertThat(getNumLikes()).isEqualTo(0L);
+        assertThat(voteBuffer.getPendingVote(TEST_POST_ID, TEST_USERNAME)).isEmpty();
+    }
+
+    @Test
+    public void testFlushDoesNotAddExistingUpvote() {
+        wG.V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, TEST_USERNAME)
+            .addE(USER_UPVOTED_POST_EDGE_LABEL)
+                .to(wG.V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, TEST_POST_ID).next())
+                .property(T.id, getEdgeId(USER_UPVOTED_POST_EDGE_LABEL, TEST_USERNAME, TEST_POST_ID))
+            .iterate();
+
+        voteBuffer.recordVote(TEST_POST_ID, TEST_USERNAME, true);
+        voteBuffer.flush();
+
+        assertThat(getNumLikes()).isEqualTo(1L);
+        Mockito.verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    public void testFlushFindsLegacyUpvotes() {
+        ReflectionTestUtils.setField(voteBuffer, "isLegacyEdgeLookupEnabled", true);
+        wG.V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, TEST_USERNAME)
+            .addE(USER_UPVOTED_POST_EDGE_LABEL)
+                .to(wG.V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, TEST_POST_ID).next())
+            .iterate();
+        wG.V().has(USER_VERTEX_LABEL, USER_USERNAME_PROPERTY, OTHER_USERNAME)
+            .addE(USER_UPVOTED_POST_EDGE_LABEL)
+                .to(wG.V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, TEST_POST_ID).next())
+            .iterate();
+
+        voteBuffer.recordVote(TEST_POST_ID, TEST_USERNAME, true);
+        voteBuffer.recordVote(TEST_POST_ID, OTHER_USERNAME, false);
+        voteBuffer.flush();
+
+        assertThat(wG.V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, TEST_POST_ID)
+            .in(USER_UPVOTED_POST_EDGE_LABEL).values(USER_USERNAME_PROPERTY).toList()).containsExactly(TEST_USERNAME);
+        assertThat(getNumLikes()).isEqualTo(1L);
+        Mockito.verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    public void testFailedFlushKeepsVotesPending() {
+        ReflectionTestUtils.setField(voteBuffer, "wG", Mockito.mock(
+            GraphTraversalSource.class,
+            invocation -> {
+                throw new IllegalStateException("Writer is unavailable");
+            }
+        ));
+        voteBuffer.recordVote(TEST_POST_ID, TEST_USERNAME, true);
+
+        voteBuffer.flush();
+
+        assertThat(voteBuffer.getPendingVote(TEST_POST_ID, TEST_USERNAME)).contains(true);
+        Mockito.verify(metricsService).addCountMetric("FailedVoteFlush");
+    }
+
+    private Object getNumLikes() {
+        return wG.V().has(POST_VERTEX_LABEL, POST_ID_PROPERTY, TEST_POST_ID).values(POST_NUM_LIKES_PROPERTY).next();
+    }
+}
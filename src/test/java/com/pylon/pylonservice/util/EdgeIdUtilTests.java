@@ -0,0 +1,25 @@
+package com.pylon.pylonservice.util;
+
+import org.testng.annotations.Test;
+
+import static com.pylon.pylonservice.constants.GraphConstants.USER_FOLLOWS_USER_EDGE_LABEL;
+import static com.pylon.pylonservice.constants.GraphConstants.USER_UPVOTED_POST_EDGE_LABEL;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EdgeIdUtilTests {
+    private static final String USERNAME = "testusername";
+    private static final String OTHER_USERNAME = "otherusername";
+    private static final String POST_ID = "4fa0c3d1-6a44-4b7a-9d0c-2b1f5e1f3a11";
+
+    @Test
+    public void testEdgeId() {
+        assertThat(EdgeIdUtil.getEdgeId(USER_UPVOTED_POST_EDGE_LABEL, USERNAME, POST_ID))
+            .isEqualTo("userUpvotedPost:testusername:4fa0c3d1-6a44-4b7a-9d0c-2b1f5e1f3a11");
+    }
+
+    @Test
+    public void testEdgeIdIsDirected() {
+        assertThat(EdgeIdUtil.getEdgeId(USER_FOLLOWS_USER_EDGE_LABEL, USERNAME, OTHER_USERNAME))
+            .isNotEqualTo(EdgeIdUtil.getEdgeId(USER_FOLLOWS_USER_EDGE_LABEL, OTHER_USERNAME, USERNAME));
+    }
+}
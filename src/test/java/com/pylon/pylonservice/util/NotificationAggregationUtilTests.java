@@ -0,0 +1,73 @@
+package com.pylon.pylonservice.util;
+
+import com.pylon.pylonservice.enums.NotificationType;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NotificationAggregationUtilTests {
+    private static final Duration ONE_HOUR = Duration.ofHours(1);
+    private static final long WINDOW_START_MILLIS = ONE_HOUR.toMillis() * 450_000;
+    private static final String TO_USERNAME = "testtousername";
+    private static final String OTHER_TO_USERNAME = "othertousername";
+    private static final String POST_ID = "4fa0c3d1-6a44-4b7a-9d0c-2b1f5e1f3a11";
+    private static final String OTHER_POST_ID = "9b7e2d55-0e3c-4f4f-8f43-7a6c2b9e0d22";
+
+    @DataProvider
+    public Object[][] provideNotificationsToAggregate() {
+        return new Object[][] {
+            {
+                NotificationType.POST_LIKE, TO_USERNAME, POST_ID, WINDOW_START_MILLIS,
+                NotificationType.POST_LIKE, TO_USERNAME, POST_ID, WINDOW_START_MILLIS, true
+            },
+            {
+                NotificationType.POST_LIKE, TO_USERNAME, POST_ID, WINDOW_START_MILLIS,
+                NotificationType.POST_LIKE, TO_USERNAME, POST_ID, WINDOW_START_MILLIS + ONE_HOUR.toMillis() - 1, true
+            },
+            {
+                NotificationType.POST_LIKE, TO_USERNAME, POST_ID, WINDOW_START_MILLIS,
+                NotificationType.POST_LIKE, TO_USERNAME, POST_ID, WINDOW_START_MILLIS + ONE_HOUR.toMillis(), false
+            },
+            {
+                NotificationType.POST_LIKE, TO_USERNAME, POST_ID, WINDOW_START_MILLIS,
+                NotificationType.POST_LIKE, TO_USERNAME, POST_ID, WINDOW_START_MILLIS - 1, false
+            },
+            {
+                NotificationType.POST_LIKE, TO_USERNAME, POST_ID, WINDOW_START_MILLIS,
+                NotificationType.POST_LIKE, TO_USERNAME, OTHER_POST_ID, WINDOW_START_MILLIS, false
+            },
+            {
+                NotificationType.POST_LIKE, TO_USERNAME, POST_ID, WINDOW_START_MILLIS,
+                NotificationType.POST_LIKE, OTHER_TO_USERNAME, POST_ID, WINDOW_START_MILLIS, false
+            },
+            {
+                NotificationType.POST_LIKE, TO_USERNAME, POST_ID, WINDOW_START_MILLIS,
+                NotificationType.POST_COMMENT, TO_USERNAME, POST_ID, WINDOW_START_MILLIS, false
+            }
+        };
+    }
+
+    @Test(dataProvider = "provideNotificationsToAggregate")
+    public void testGetAggregatedNotificationId(final NotificationType notificationType,
+                                                final String toUsername,
+                                                final String subjectId,
+                                                final long createdAtMillis,
+                                                final NotificationType otherNotificationType,
+                                                final String otherToUsername,
+                                                final String otherSubjectId,
+                                                final long otherCreatedAtMillis,
+                                                final boolean expectedSameNotificationId) {
+        final String notificationId = NotificationAggregationUtil.getAggregatedNotificationId(
+            notificationType, toUsername, subjectId, new Date(createdAtMillis), ONE_HOUR
+        );
+        final String otherNotificationId = NotificationAggregationUtil.getAggregatedNotificationId(
+            otherNotificationType, otherToUsername, otherSubjectId, new Date(otherCreatedAtMillis), ONE_HOUR
+        );
+
+        assertThat(notificationId.equals(otherNotificationId)).isEqualTo(expectedSameNotificationId);
+    }
+}